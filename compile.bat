@@ -25,6 +25,9 @@ javac -encoding UTF-8 -cp bin -d bin src/client/*.java
 echo Compiling admin classes...
 javac -encoding UTF-8 -cp bin -d bin src/admin/*.java
 
+echo Compiling benchmark classes...
+javac -encoding UTF-8 -cp bin -d bin src/bench/*.java
+
 echo.
 echo ========================================
 echo  Compilation Complete!
@@ -3,12 +3,16 @@ package admin;
 import models.Question;
 import models.QuizResult;
 import utils.DataPersistence;
+import utils.QuestionMutation;
 import utils.QuizEvaluator;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
 import java.util.*;
 import java.util.List;
 
@@ -91,9 +95,13 @@ public class AdminPanel extends JFrame {
         editQuestionItem.addActionListener(e -> showEditQuestionDialog());
         JMenuItem deleteQuestionItem = new JMenuItem("Delete Question");
         deleteQuestionItem.addActionListener(e -> deleteSelectedQuestion());
+        JMenuItem importQuestionsItem = new JMenuItem("Import Questions...");
+        importQuestionsItem.addActionListener(e -> importQuestions());
         questionsMenu.add(addQuestionItem);
         questionsMenu.add(editQuestionItem);
         questionsMenu.add(deleteQuestionItem);
+        questionsMenu.addSeparator();
+        questionsMenu.add(importQuestionsItem);
 
         menuBar.add(fileMenu);
         menuBar.add(questionsMenu);
@@ -122,7 +130,7 @@ public class AdminPanel extends JFrame {
             }
         };
         questionsTable = new JTable(questionsTableModel);
-        questionsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        questionsTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         JScrollPane scrollPane = new JScrollPane(questionsTable);
         panel.add(scrollPane, BorderLayout.CENTER);
 
@@ -428,29 +436,79 @@ public class AdminPanel extends JFrame {
     }
 
     /**
-     * Delete selected question
+     * Delete selected questions (one batch, however many rows are selected)
      */
     private void deleteSelectedQuestion() {
-        int selectedRow = questionsTable.getSelectedRow();
-        if (selectedRow < 0) {
+        int[] selectedRows = questionsTable.getSelectedRows();
+        if (selectedRows.length == 0) {
             JOptionPane.showMessageDialog(this, "Please select a question to delete.", "Warning",
                     JOptionPane.WARNING_MESSAGE);
             return;
         }
 
-        int questionId = (int) questionsTableModel.getValueAt(selectedRow, 0);
+        String prompt = selectedRows.length == 1
+                ? "Are you sure you want to delete question ID: " + questionsTableModel.getValueAt(selectedRows[0], 0) + "?"
+                : "Are you sure you want to delete " + selectedRows.length + " questions?";
         int confirm = JOptionPane.showConfirmDialog(this,
-                "Are you sure you want to delete question ID: " + questionId + "?",
+                prompt,
                 "Confirm Delete",
                 JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            dataPersistence.deleteQuestion(questionId);
+            List<QuestionMutation> deletions = new ArrayList<>();
+            for (int row : selectedRows) {
+                deletions.add(QuestionMutation.delete((int) questionsTableModel.getValueAt(row, 0)));
+            }
+            int deleted = dataPersistence.applyQuestionMutations(deletions);
             loadQuestions();
-            JOptionPane.showMessageDialog(this, "Question deleted successfully!");
+            JOptionPane.showMessageDialog(this, deleted == 1
+                    ? "Question deleted successfully!"
+                    : deleted + " questions deleted successfully!");
         }
     }
 
+    /**
+     * Import questions from a questions.txt-format file as one batch
+     * Questions with an existing ID replace it
+     */
+    private void importQuestions() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Import Questions");
+
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        List<QuestionMutation> additions = new ArrayList<>();
+        int skipped = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileChooser.getSelectedFile()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    Question question = DataPersistence.parseQuestionLine(line);
+                    if (question != null) {
+                        additions.add(QuestionMutation.add(question));
+                    } else {
+                        skipped++;
+                    }
+                } catch (NumberFormatException e) {
+                    skipped++;
+                }
+            }
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        int imported = dataPersistence.applyQuestionMutations(additions);
+        loadQuestions();
+        JOptionPane.showMessageDialog(this, "Imported " + imported + " questions" +
+                (skipped > 0 ? " (" + skipped + " invalid lines skipped)." : "."));
+    }
+
     /**
      * Export results to CSV
      */
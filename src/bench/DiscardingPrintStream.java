@@ -0,0 +1,23 @@
+package bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Swallows output without taking the PrintStream lock
+ * Benchmarks install it as System.out so console logging does not hide scaling
+ */
+class DiscardingPrintStream extends PrintStream {
+
+    DiscardingPrintStream() {
+        super(OutputStream.nullOutputStream());
+    }
+
+    @Override
+    public void println(String x) {
+    }
+
+    @Override
+    public void println(Object x) {
+    }
+}
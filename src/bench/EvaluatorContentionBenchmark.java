@@ -0,0 +1,137 @@
+package bench;
+
+import models.Answer;
+import models.Question;
+import utils.DataPersistence;
+import utils.Logger;
+import utils.QuizEvaluator;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * EvaluatorContentionBenchmark Class
+ * Measures QuizEvaluator.evaluateAnswer throughput as threads are added
+ * - Every thread scores answers for its own students, as ClientHandlers do
+ * - Console logging is discarded by default so the PrintStream lock does not hide scaling
+ * - The logging argument measures what per-answer logging costs the evaluator:
+ *   discard (default), sync (written by the evaluating thread, like plain
+ *   println), async (handed to the Logger ring buffer) or off (INFO disabled).
+ *   sync and async write to a temporary file through a PrintStream set up
+ *   like System.out
+ * - Runs against a temporary copy of data/, so bench sessions stay out of the
+ *   session journal
+ *
+ * Run from the project root:
+ *   java -cp bin bench.EvaluatorContentionBenchmark [seconds] [maxThreads] [discard|sync|async|off]
+ */
+public class EvaluatorContentionBenchmark {
+
+    private static final int SESSIONS_PER_THREAD = 64;
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String logging = args.length > 2 ? args[2] : "discard";
+
+        PrintStream console = System.out;
+        ScratchDataDirectory.install();
+        QuizEvaluator evaluator = QuizEvaluator.getInstance();
+        List<Question> questions = DataPersistence.getInstance().getQuestions();
+        Path logFile = null;
+        switch (logging) {
+            case "discard":
+                System.setOut(new DiscardingPrintStream());
+                break;
+            case "off":
+                System.setOut(new DiscardingPrintStream());
+                Logger.configure(Logger.Level.WARN, true);
+                break;
+            case "sync":
+            case "async":
+                logFile = Files.createTempFile("evaluator-bench", ".log");
+                System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(logFile.toFile()), 128), true));
+                Logger.configure(Logger.Level.INFO, logging.equals("async"));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown logging mode: " + logging);
+        }
+
+        console.println("logging: " + logging);
+        console.println("threads  answers/sec  scaling");
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            run(evaluator, questions, threads, 1); // warm-up
+            double throughput = run(evaluator, questions, threads, seconds);
+            if (threads == 1) {
+                baseline = throughput;
+            }
+            console.printf("%7d  %11.0f  %6.2fx%n", threads, throughput, throughput / baseline);
+        }
+        Logger.flush(5000);
+        if (Logger.getDroppedCount() > 0) {
+            console.println("log lines dropped: " + Logger.getDroppedCount());
+        }
+        System.setOut(console);
+        if (logFile != null) {
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    private static double run(QuizEvaluator evaluator, List<Question> questions,
+            int threads, int seconds) throws InterruptedException {
+        LongAdder answers = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch ready = new CountDownLatch(threads);
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            final int worker = t;
+            workers[t] = new Thread(() -> {
+                String[] students = new String[SESSIONS_PER_THREAD];
+                for (int s = 0; s < students.length; s++) {
+                    students[s] = "bench-" + worker + "-" + s;
+                    evaluator.initializeQuizSession(students[s], students[s]);
+                }
+                ready.countDown();
+
+                long count = 0;
+                int i = 0;
+                while (running.get()) {
+                    // Each student answers every question once, so no answer is a retransmission
+                    Question question = questions.get(i % questions.size());
+                    String student = students[(i / questions.size()) % students.length];
+                    evaluator.evaluateAnswer(new Answer(question.getQuestionId(), i & 3, student));
+                    i++;
+                    count++;
+                    if (i == questions.size() * students.length) {
+                        // Everyone has finished: start fresh sessions
+                        i = 0;
+                        for (String s : students) {
+                            evaluator.initializeQuizSession(s, s);
+                        }
+                    }
+                }
+                answers.add(count);
+            });
+            workers[t].start();
+        }
+
+        ready.await();
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        return answers.sum() / elapsed;
+    }
+}
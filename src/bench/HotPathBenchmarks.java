@@ -0,0 +1,284 @@
+package bench;
+
+import models.Answer;
+import models.Message;
+import models.Question;
+import models.QuizResult;
+import server.QuestionPayloadCache;
+import utils.BenchHooks;
+import utils.DataPersistence;
+import utils.MessageFraming;
+import utils.QuestionBank;
+import utils.QuizEvaluator;
+import utils.WireFormat;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * HotPathBenchmarks Class
+ * Micro-benchmarks for the server's hot paths, run on the Microbench harness
+ * - QuizEvaluator.evaluateAnswer, single-threaded and contended
+ * - Question lookup by ID (QuestionBank.get, as evaluateAnswer does it) at several bank sizes
+ * - DataPersistence.loadQuestions / loadResults, and per-line parsing of both files
+ * - Message and QuizResult frame round-trips in each framed wire format
+ * - Building the redacted GET_QUESTIONS payload (QuestionPayloadCache)
+ *
+ * The evaluator and loader benchmarks run against a temporary copy of data/,
+ * so bench sessions never reach the real session journal. Run from the project root:
+ *   java -cp bin bench.HotPathBenchmarks [--warmup=N] [--iterations=N] [--time=MS]
+ *        [--filter=REGEX] [--json=FILE] [--baseline=FILE]
+ */
+public class HotPathBenchmarks {
+
+    private static final String PREFIX = "bench.HotPathBenchmarks.";
+    private static final int SESSIONS_PER_THREAD = 64;
+    private static final int[] BANK_SIZES = { 10, 1_000, 100_000 };
+    private static final int PARSE_LINES = 1_000;
+    private static final int LOOKUPS = 4096;
+
+    public static void main(String[] args) throws Exception {
+        int warmup = 3;
+        int iterations = 5;
+        long iterationMillis = 1000;
+        Pattern filter = null;
+        Path json = null;
+        Path baseline = null;
+
+        for (String arg : args) {
+            try {
+                if (arg.startsWith("--warmup=")) {
+                    warmup = Integer.parseInt(arg.substring("--warmup=".length()));
+                } else if (arg.startsWith("--iterations=")) {
+                    iterations = Integer.parseInt(arg.substring("--iterations=".length()));
+                } else if (arg.startsWith("--time=")) {
+                    iterationMillis = Long.parseLong(arg.substring("--time=".length()));
+                } else if (arg.startsWith("--filter=")) {
+                    filter = Pattern.compile(arg.substring("--filter=".length()));
+                } else if (arg.startsWith("--json=")) {
+                    json = Paths.get(arg.substring("--json=".length()));
+                } else if (arg.startsWith("--baseline=")) {
+                    baseline = Paths.get(arg.substring("--baseline=".length()));
+                } else {
+                    System.err.println("Unknown option: " + arg);
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid value, ignored: " + arg);
+            }
+        }
+
+        PrintStream console = System.out;
+        System.setOut(new DiscardingPrintStream());
+        QuizEvaluator.configureSessionSnapshots(0);
+        ScratchDataDirectory.install();
+        Microbench bench = new Microbench(warmup, iterations, iterationMillis, filter, console);
+        console.printf("Warm-up %d x %d ms, measurement %d x %d ms, avgt%n%n",
+                warmup, iterationMillis, iterations, iterationMillis);
+
+        try {
+            evaluateAnswer(bench);
+            findQuestionById(bench);
+            loading(bench);
+            parsing(bench);
+            serialization(bench);
+            questionPayload(bench);
+
+            if (json != null) {
+                bench.writeJson(json);
+                console.println();
+                console.println("Results written to " + json);
+            }
+            if (baseline != null) {
+                bench.compare(baseline);
+            }
+        } finally {
+            System.setOut(console);
+        }
+        // The evaluator's background threads would keep the JVM alive
+        System.exit(0);
+    }
+
+    /**
+     * One answer per op; each student answers every question once, then
+     * every session is restarted, so no answer is a retransmission
+     */
+    private static void evaluateAnswer(Microbench bench) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>(Arrays.asList(1, 2, 4));
+        if (cores > 4) {
+            threadCounts.add(cores);
+        }
+        AtomicInteger workerIds = new AtomicInteger();
+
+        for (int threads : threadCounts) {
+            bench.run(PREFIX + "evaluateAnswer", Collections.emptyMap(), threads, () -> {
+                QuizEvaluator evaluator = QuizEvaluator.getInstance();
+                List<Question> questions = evaluator.getQuestionBank().getQuestions();
+                int worker = workerIds.getAndIncrement();
+                String[] students = new String[SESSIONS_PER_THREAD];
+                for (int s = 0; s < students.length; s++) {
+                    students[s] = "bench-" + worker + "-" + s;
+                    evaluator.initializeQuizSession(students[s], students[s]);
+                }
+                int[] next = new int[1];
+                return () -> {
+                    int i = next[0]++;
+                    Question question = questions.get(i % questions.size());
+                    String student = students[(i / questions.size()) % students.length];
+                    boolean correct = evaluator.evaluateAnswer(new Answer(question.getQuestionId(), i & 3, student));
+                    if (next[0] == questions.size() * students.length) {
+                        next[0] = 0;
+                        for (String s : students) {
+                            evaluator.initializeQuizSession(s, s);
+                        }
+                    }
+                    return correct ? 1 : 0;
+                };
+            });
+        }
+    }
+
+    /**
+     * Random lookups by question ID in banks of increasing size
+     */
+    private static void findQuestionById(Microbench bench) throws Exception {
+        for (int size : BANK_SIZES) {
+            QuestionBank bank = new QuestionBank(1, syntheticQuestions(size));
+            Random random = new Random(42);
+            int[] ids = new int[LOOKUPS];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = 1 + random.nextInt(size);
+            }
+            bench.run(PREFIX + "findQuestionById", params("bankSize", size), 1, () -> {
+                int[] next = new int[1];
+                return () -> bank.get(ids[next[0]++ & (LOOKUPS - 1)]).getPoints();
+            });
+        }
+    }
+
+    /**
+     * Whole-file loads from (a copy of) data/ as the server does them at startup
+     */
+    private static void loading(Microbench bench) throws Exception {
+        DataPersistence persistence = DataPersistence.getInstance();
+        bench.run(PREFIX + "loadQuestions", Collections.emptyMap(), 1,
+                () -> () -> persistence.loadQuestions().size());
+        bench.run(PREFIX + "loadResults", Collections.emptyMap(), 1,
+                () -> () -> persistence.loadResults().size());
+    }
+
+    /**
+     * Parse a block of questions.txt and results.txt lines (per line cost = score / lines)
+     */
+    private static void parsing(Microbench bench) throws Exception {
+        List<String> questionLines = new ArrayList<>(PARSE_LINES);
+        for (Question question : syntheticQuestions(PARSE_LINES)) {
+            questionLines.add(BenchHooks.formatQuestionLine(question));
+        }
+        bench.run(PREFIX + "parseQuestionLines", params("lines", PARSE_LINES), 1, () -> () -> {
+            long points = 0;
+            for (String line : questionLines) {
+                points += DataPersistence.parseQuestionLine(line).getPoints();
+            }
+            return points;
+        });
+
+        List<String> resultLines = new ArrayList<>(PARSE_LINES);
+        for (int i = 0; i < PARSE_LINES; i++) {
+            String line = BenchHooks.formatResultLine(syntheticResult(i));
+            resultLines.add(line.substring(0, line.length() - 1));
+        }
+        bench.run(PREFIX + "parseResultLines", params("lines", PARSE_LINES), 1, () -> {
+            Function<String, QuizResult> parser = BenchHooks.resultLineParser();
+            return () -> {
+                long score = 0;
+                for (String line : resultLines) {
+                    score += parser.apply(line).getTotalScore();
+                }
+                return score;
+            };
+        });
+    }
+
+    /**
+     * Encode a message to a frame and decode it back
+     */
+    private static void serialization(Microbench bench) throws Exception {
+        Map<String, Message> messages = new LinkedHashMap<>();
+        messages.put("submitAnswer", new Message(Message.SUBMIT_ANSWER, new Answer(3, 1, "IT21000000")));
+        messages.put("quizResult", new Message(Message.SUCCESS, syntheticResult(7),
+                "Quiz completed! Your final score: 70/100"));
+
+        for (WireFormat format : new WireFormat[] { WireFormat.SERIALIZED_FRAMES, WireFormat.BINARY }) {
+            for (Map.Entry<String, Message> entry : messages.entrySet()) {
+                Map<String, String> params = new LinkedHashMap<>();
+                params.put("format", format.name());
+                params.put("message", entry.getKey());
+                Message message = entry.getValue();
+                bench.run(PREFIX + "frameRoundTrip", params, 1, () -> () -> {
+                    byte[] frame = format.encodeFrame(message);
+                    Message decoded = format.decodePayload(frame, MessageFraming.HEADER_SIZE,
+                            frame.length - MessageFraming.HEADER_SIZE);
+                    return frame.length + decoded.getType().length();
+                });
+            }
+        }
+    }
+
+    /**
+     * Redact the loaded bank and pre-encode both frames, as the first
+     * GET_QUESTIONS after a bank change does
+     */
+    private static void questionPayload(Microbench bench) throws Exception {
+        DataPersistence persistence = DataPersistence.getInstance();
+        persistence.loadQuestions();
+        bench.run(PREFIX + "buildQuestionPayload",
+                params("questions", persistence.getQuestionBank().size()), 1, () -> () -> {
+                    QuestionPayloadCache.Payload payload = new QuestionPayloadCache(persistence).get();
+                    return payload.getFrame(WireFormat.BINARY).length;
+                });
+    }
+
+    private static Map<String, String> params(String name, int value) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put(name, String.valueOf(value));
+        return params;
+    }
+
+    private static List<Question> syntheticQuestions(int count) {
+        List<Question> questions = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            questions.add(new Question(id, "What is the answer to question " + id + "?",
+                    Arrays.asList("Option A", "Option B", "Option C", "Option D"),
+                    id % 4, "Category " + (id % 8), 10));
+        }
+        return questions;
+    }
+
+    private static QuizResult syntheticResult(int i) {
+        QuizResult result = new QuizResult("IT2100" + String.format("%04d", i), "Student " + i);
+        for (int q = 1; q <= 10; q++) {
+            Answer answer = new Answer(q, q % 4, result.getStudentId());
+            answer.setCorrect(q % 3 != 0);
+            result.addAnswer(answer);
+        }
+        result.setTotalScore(70);
+        result.setMaxScore(100);
+        result.setCorrectAnswers(7);
+        result.setTotalQuestions(10);
+        result.setCompletionDate(new Date(1_700_000_000_000L + i * 60_000L));
+        return result;
+    }
+}
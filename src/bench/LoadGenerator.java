@@ -0,0 +1,674 @@
+package bench;
+
+import client.AsyncQuizClient;
+import client.ClientReactor;
+import models.Answer;
+import models.Message;
+import models.Question;
+import models.User;
+import utils.BinaryProtocol;
+import utils.DataPersistence;
+import utils.ExamPayload;
+import utils.WireFormat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * LoadGenerator Class
+ * Headless students for capacity testing a running QuizServer
+ * - Each simulated student connects, fetches the questions, answers them all
+ *   with a think time between answers, asks for the result and starts over
+ * - Students start evenly over the ramp-up; latencies are recorded per
+ *   message type only once everyone has started
+ * - Search mode doubles the student count until p99 SUBMIT_ANSWER latency
+ *   crosses the threshold, then bisects to the largest count that stays under it
+ *
+ * - Async mode (--async, framed formats) runs every student on one
+ *   ClientReactor with AsyncQuizClient instead of a thread per student
+ *
+ * Correct answers come from a local copy of the question bank (--answer-key),
+ * since the server never sends them; unknown questions are answered at random.
+ *
+ * Run from the project root:
+ *   java -cp bin bench.LoadGenerator [--host=H] [--port=N] [--format=object|framed|binary]
+ *        [--students=N] [--think=MS] [--correct=0..1] [--ramp=SEC] [--duration=SEC]
+ *        [--answer-key=FILE] [--async] [--search [--p99=MS] [--max-students=N]]
+ */
+public class LoadGenerator {
+
+    private static final String[] MEASURED_TYPES = {
+            Message.CONNECT, Message.GET_QUESTIONS, Message.SUBMIT_ANSWER, Message.GET_RESULT
+    };
+    private static final long REPORT_INTERVAL_MILLIS = 5000;
+    private static final long RETRY_DELAY_MILLIS = 250;
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    private final String host;
+    private final int port;
+    private final WireFormat wireFormat;
+    private final long thinkMillis;
+    private final double correctRate;
+    private final Map<Integer, Integer> answerKey;
+    private boolean async;
+    private int runCount;
+
+    public LoadGenerator(String host, int port, WireFormat wireFormat, long thinkMillis,
+            double correctRate, Map<Integer, Integer> answerKey) {
+        this.host = host;
+        this.port = port;
+        this.wireFormat = wireFormat;
+        this.thinkMillis = thinkMillis;
+        this.correctRate = correctRate;
+        this.answerKey = answerKey;
+    }
+
+    /**
+     * Drive the students with AsyncQuizClient on one reactor thread (framed formats only)
+     */
+    public void setAsync(boolean async) {
+        if (async && !wireFormat.isFramed()) {
+            throw new IllegalArgumentException("Async students need a framed format, not " + wireFormat);
+        }
+        this.async = async;
+    }
+
+    /**
+     * Drive `students` concurrent students: ramp up, then measure for `durationMillis`
+     */
+    public Run run(int students, long rampMillis, long durationMillis, boolean report)
+            throws InterruptedException, IOException {
+        Run run = new Run(++runCount);
+        ExecutorService executor = null;
+        ClientReactor reactor = async ? new ClientReactor() : null;
+        if (reactor != null) {
+            Executor onReactor = reactor::execute;
+            for (int i = 0; i < students; i++) {
+                long startDelay = students > 1 ? rampMillis * i / students : 0;
+                final int student = i;
+                CompletableFuture.delayedExecutor(startDelay, TimeUnit.MILLISECONDS, onReactor)
+                        .execute(() -> simulateStudentAsync(run, reactor, student));
+            }
+        } else {
+            executor = newStudentExecutor();
+            for (int i = 0; i < students; i++) {
+                long startDelay = students > 1 ? rampMillis * i / students : 0;
+                final int student = i;
+                executor.execute(() -> simulateStudent(run, student, startDelay));
+            }
+        }
+
+        Thread.sleep(rampMillis);
+        run.startMeasuring();
+        long end = System.currentTimeMillis() + durationMillis;
+        long lastCalls = 0;
+        while (System.currentTimeMillis() < end) {
+            long interval = Math.min(REPORT_INTERVAL_MILLIS, end - System.currentTimeMillis());
+            Thread.sleep(Math.max(1, interval));
+            if (report) {
+                long calls = run.getCallCount();
+                System.out.printf("[LoadGenerator] %6.1f s: %d students connected, %.0f msg/s, %d errors%n",
+                        run.getElapsedMillis() / 1000.0, run.connected.get(),
+                        (calls - lastCalls) * 1000.0 / Math.max(1, interval), run.getErrorCount());
+                lastCalls = calls;
+            }
+        }
+        run.stopMeasuring();
+
+        if (reactor != null) {
+            reactor.close(); // fails whatever is in flight; the students see run.isStopped()
+        } else {
+            executor.shutdownNow();
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                System.err.println("[LoadGenerator] Some students did not stop in time");
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Find the most students whose p99 SUBMIT_ANSWER latency stays within the
+     * threshold (with under 1% errors); returns 0 if even `initial` fails
+     */
+    public int searchCapacity(int initial, int maxStudents, long rampMillis, long durationMillis,
+            double p99ThresholdMillis) throws InterruptedException, IOException {
+        int good = 0;
+        int bad = -1;
+        int students = Math.max(1, initial);
+
+        // Double until it fails, then bisect
+        while (true) {
+            Run run = run(students, rampMillis, durationMillis, false);
+            LatencyHistogram submits = run.getLatencies(Message.SUBMIT_ANSWER);
+            double p99 = submits.getPercentileMicros(99) / 1000.0;
+            boolean ok = submits.getCount() > 0 && p99 <= p99ThresholdMillis
+                    && run.getErrorCount() <= run.getCallCount() * MAX_ERROR_RATE;
+            System.out.printf("[LoadGenerator] %6d students: p99 %s %.2f ms, %.0f answers/s, %d errors -> %s%n",
+                    students, Message.SUBMIT_ANSWER, p99, run.getRate(Message.SUBMIT_ANSWER),
+                    run.getErrorCount(), ok ? "sustained" : "over threshold");
+
+            if (ok) {
+                good = students;
+            } else {
+                bad = students;
+            }
+            if (bad < 0) {
+                if (students >= maxStudents) {
+                    break;
+                }
+                students = Math.min(maxStudents, students * 2);
+            } else {
+                if (bad - good <= Math.max(1, good / 20)) {
+                    break;
+                }
+                students = good + (bad - good) / 2;
+            }
+        }
+        return good;
+    }
+
+    private void simulateStudent(Run run, int index, long startDelay) {
+        String studentId = "load-" + run.number + "-" + index;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            Thread.sleep(startDelay);
+            while (!Thread.currentThread().isInterrupted()) {
+                try (Connection connection = new Connection(host, port, wireFormat)) {
+                    run.connected.incrementAndGet();
+                    try {
+                        takeQuiz(run, connection, studentId, random);
+                    } finally {
+                        run.connected.decrementAndGet();
+                    }
+                } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                    run.errors.increment();
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Run is over
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void takeQuiz(Run run, Connection connection, String studentId, ThreadLocalRandom random)
+            throws IOException, ClassNotFoundException, InterruptedException {
+        if (!run.call(connection, new Message(Message.CONNECT, new User(studentId, studentId, "STUDENT")))) {
+            return;
+        }
+        List<Question> questions;
+        if (connection.sealedQuestions != null) {
+            // Scheduled exam: wait in the room, then open the questions pushed on connect
+            questions = ExamPayload.open(connection.sealedQuestions, connection.awaitExamStart());
+        } else {
+            Message response = connection.exchange(new Message(Message.GET_QUESTIONS, null), run);
+            if (response == null) {
+                return;
+            }
+            questions = (List<Question>) response.getData();
+        }
+
+        for (Question question : questions) {
+            long think = (long) (thinkMillis * (0.5 + random.nextDouble()));
+            Thread.sleep(think);
+            int choice = chooseAnswer(question, random);
+            run.call(connection, new Message(Message.SUBMIT_ANSWER,
+                    new Answer(question.getQuestionId(), choice, studentId)));
+        }
+
+        run.call(connection, new Message(Message.GET_RESULT, null));
+        connection.send(new Message(Message.DISCONNECT, null));
+    }
+
+    /**
+     * One student's endless quiz loop as a chain of futures on the reactor thread
+     */
+    private void simulateStudentAsync(Run run, ClientReactor reactor, int index) {
+        if (run.isStopped()) {
+            return;
+        }
+        String studentId = "load-" + run.number + "-" + index;
+        Executor onReactor = reactor::execute;
+        AsyncQuizClient.open(reactor, host, port, wireFormat).whenComplete((client, openError) -> {
+            if (openError != null) {
+                if (!run.isStopped()) {
+                    run.errors.increment();
+                }
+                CompletableFuture.delayedExecutor(RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS, onReactor)
+                        .execute(() -> simulateStudentAsync(run, reactor, index));
+                return;
+            }
+            run.connected.incrementAndGet();
+            takeQuizAsync(run, client, studentId, onReactor).whenComplete((done, quizError) -> {
+                run.connected.decrementAndGet();
+                if (quizError == null) {
+                    client.disconnect();
+                    onReactor.execute(() -> simulateStudentAsync(run, reactor, index));
+                } else {
+                    // The failed call was already counted by timed()
+                    client.close();
+                    CompletableFuture.delayedExecutor(RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS, onReactor)
+                            .execute(() -> simulateStudentAsync(run, reactor, index));
+                }
+            });
+        });
+    }
+
+    private CompletableFuture<Void> takeQuizAsync(Run run, AsyncQuizClient client, String studentId,
+            Executor onReactor) {
+        return timed(run, Message.CONNECT, () -> client.connect(studentId, studentId))
+                .thenCompose(welcome -> client.isScheduledExam()
+                        ? client.getQuestions() // opened from the pushed payload at the start, not a request
+                        : timed(run, Message.GET_QUESTIONS, client::getQuestions))
+                .thenCompose(questions -> answerAsync(run, client, questions, 0, onReactor))
+                .thenCompose(answered -> timed(run, Message.GET_RESULT, client::getResult))
+                .thenApply(result -> null);
+    }
+
+    /**
+     * Think, answer question `next`, then continue with the rest; a rejected
+     * answer is counted and the quiz goes on, as in the blocking students
+     */
+    private CompletableFuture<Void> answerAsync(Run run, AsyncQuizClient client, List<Question> questions,
+            int next, Executor onReactor) {
+        if (next == questions.size() || run.isStopped()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Question question = questions.get(next);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long think = (long) (thinkMillis * (0.5 + random.nextDouble()));
+        int choice = chooseAnswer(question, random);
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(think,
+                        TimeUnit.MILLISECONDS, onReactor))
+                .thenCompose(thought -> timed(run, Message.SUBMIT_ANSWER,
+                        () -> client.submitAnswer(question.getQuestionId(), choice)))
+                .handle((correct, error) -> client.isClosed()) // only a lost connection ends the quiz
+                .thenCompose(lost -> lost
+                        ? CompletableFuture.failedFuture(new IOException("Connection lost"))
+                        : answerAsync(run, client, questions, next + 1, onReactor));
+    }
+
+    /**
+     * Issue a call and record its latency once its future completes
+     */
+    private static <T> CompletableFuture<T> timed(Run run, String type, Supplier<CompletableFuture<T>> call) {
+        long start = System.nanoTime();
+        return call.get().whenComplete((value, error) ->
+                run.record(type, System.nanoTime() - start, error == null));
+    }
+
+    private int chooseAnswer(Question question, ThreadLocalRandom random) {
+        int options = Math.max(1, question.getOptions().size());
+        Integer correct = answerKey.get(question.getQuestionId());
+        if (correct == null || options == 1) {
+            return random.nextInt(options);
+        }
+        if (random.nextDouble() < correctRate) {
+            return correct;
+        }
+        // Any other option
+        int wrong = random.nextInt(options - 1);
+        return wrong >= correct ? wrong + 1 : wrong;
+    }
+
+    /**
+     * Question ID to correct option index, from a questions.txt-format file
+     */
+    static Map<Integer, Integer> loadAnswerKey(Path file) {
+        Map<Integer, Integer> key = new HashMap<>();
+        if (!Files.exists(file)) {
+            System.err.println("[LoadGenerator] No answer key at " + file + "; answering at random");
+            return key;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    Question question = DataPersistence.parseQuestionLine(line);
+                    if (question != null) {
+                        key.put(question.getQuestionId(), question.getCorrectAnswerIndex());
+                    }
+                } catch (RuntimeException e) {
+                    // Skip malformed lines
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[LoadGenerator] Error reading answer key: " + e.getMessage());
+        }
+        return key;
+    }
+
+    /**
+     * One virtual thread per student when the JDK has them, otherwise
+     * platform threads with small stacks
+     */
+    private static ExecutorService newStudentExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threads = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(null, task, "load-student-" + threads.incrementAndGet(), 256 * 1024);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Counters and latency histograms for one run
+     */
+    public static final class Run {
+        private final int number;
+        private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+        private final LongAdder errors = new LongAdder();
+        private final AtomicInteger connected = new AtomicInteger();
+        private volatile boolean measuring;
+        private volatile boolean stopped;
+        private volatile long measureStartNanos;
+        private volatile long measureEndNanos;
+
+        Run(int number) {
+            this.number = number;
+            for (String type : MEASURED_TYPES) {
+                latencies.put(type, new LatencyHistogram());
+            }
+        }
+
+        /**
+         * Send a request and wait for its reply; false if the server answered with an error
+         */
+        boolean call(Connection connection, Message request) throws IOException, ClassNotFoundException {
+            return connection.exchange(request, this) != null;
+        }
+
+        void record(String type, long nanos, boolean success) {
+            if (!measuring) {
+                return;
+            }
+            if (success) {
+                latencies.get(type).recordNanos(nanos);
+            } else {
+                errors.increment();
+            }
+        }
+
+        void startMeasuring() {
+            measureStartNanos = System.nanoTime();
+            measuring = true;
+        }
+
+        void stopMeasuring() {
+            measuring = false;
+            stopped = true;
+            measureEndNanos = System.nanoTime();
+        }
+
+        boolean isStopped() {
+            return stopped;
+        }
+
+        long getElapsedMillis() {
+            long end = measuring ? System.nanoTime() : measureEndNanos;
+            return TimeUnit.NANOSECONDS.toMillis(end - measureStartNanos);
+        }
+
+        public LatencyHistogram getLatencies(String type) {
+            return latencies.get(type);
+        }
+
+        public long getCallCount() {
+            long calls = 0;
+            for (LatencyHistogram histogram : latencies.values()) {
+                calls += histogram.getCount();
+            }
+            return calls;
+        }
+
+        public long getErrorCount() {
+            return errors.sum();
+        }
+
+        public double getRate(String type) {
+            return latencies.get(type).getCount() * 1000.0 / Math.max(1, getElapsedMillis());
+        }
+
+        public void printReport() {
+            System.out.println();
+            System.out.printf("%-14s %9s %9s %8s %8s %8s %8s %8s %8s%n",
+                    "type", "count", "rate/s", "mean ms", "p50", "p90", "p99", "p99.9", "max");
+            for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+                LatencyHistogram histogram = entry.getValue();
+                System.out.printf("%-14s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+                        entry.getKey(), histogram.getCount(), getRate(entry.getKey()),
+                        histogram.getMeanMicros() / 1000.0,
+                        histogram.getPercentileMicros(50) / 1000.0,
+                        histogram.getPercentileMicros(90) / 1000.0,
+                        histogram.getPercentileMicros(99) / 1000.0,
+                        histogram.getPercentileMicros(99.9) / 1000.0,
+                        histogram.getMaxMicros() / 1000.0);
+            }
+            System.out.printf("errors: %d, measured for %.1f s%n", errors.sum(), getElapsedMillis() / 1000.0);
+        }
+    }
+
+    /**
+     * One student's connection, speaking the same protocol as StudentClient
+     */
+    static final class Connection implements Closeable {
+        private final Socket socket;
+        private final WireFormat wireFormat;
+        private DataOutputStream frameOutput;
+        private DataInputStream frameInput;
+        private ObjectOutputStream output;
+        private ObjectInputStream input;
+        private String sealedQuestions; // EXAM_PAYLOAD pushed in a scheduled exam's waiting room
+        private String examKey; // START_QUIZ
+
+        Connection(String host, int port, WireFormat wireFormat) throws IOException {
+            this.socket = new Socket(host, port);
+            this.wireFormat = wireFormat;
+            try {
+                socket.setTcpNoDelay(true);
+                if (wireFormat.isFramed()) {
+                    frameOutput = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                    frameInput = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                    if (wireFormat == WireFormat.BINARY) {
+                        frameOutput.write(BinaryProtocol.hello(BinaryProtocol.VERSION));
+                        frameOutput.flush();
+                        byte[] reply = new byte[BinaryProtocol.HELLO_SIZE];
+                        frameInput.readFully(reply);
+                        BinaryProtocol.parseHello(reply);
+                    }
+                } else {
+                    output = new ObjectOutputStream(socket.getOutputStream());
+                    output.flush();
+                    input = new ObjectInputStream(socket.getInputStream());
+                }
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Send a request and time it until its reply; returns null on an ERROR reply
+         */
+        Message exchange(Message request, Run run) throws IOException, ClassNotFoundException {
+            long start = System.nanoTime();
+            send(request);
+            Message response = receive();
+            boolean success = !Message.ERROR.equals(response.getType());
+            run.record(request.getType(), System.nanoTime() - start, success);
+            return success ? response : null;
+        }
+
+        void send(Message message) throws IOException {
+            if (wireFormat.isFramed()) {
+                wireFormat.writeFrame(frameOutput, message);
+            } else {
+                output.writeObject(message);
+                output.flush();
+                output.reset();
+            }
+        }
+
+        /**
+         * Block until the exam starts; returns the key from START_QUIZ
+         */
+        String awaitExamStart() throws IOException, ClassNotFoundException {
+            while (examKey == null) {
+                readOne();
+            }
+            return examKey;
+        }
+
+        /**
+         * Next reply, skipping server pushes (broadcasts, END_QUIZ, the exam payload and start)
+         */
+        private Message receive() throws IOException, ClassNotFoundException {
+            while (true) {
+                Message message = readOne();
+                if (!isPush(message)) {
+                    return message;
+                }
+            }
+        }
+
+        /**
+         * Read one message, keeping what the exam pushes carry
+         */
+        private Message readOne() throws IOException, ClassNotFoundException {
+            Message message = wireFormat.isFramed() ? wireFormat.readFrame(frameInput) : (Message) input.readObject();
+            if (Message.EXAM_PAYLOAD.equals(message.getType())) {
+                sealedQuestions = (String) message.getData();
+            } else if (Message.START_QUIZ.equals(message.getType())) {
+                examKey = (String) message.getData();
+            }
+            return message;
+        }
+
+        private static boolean isPush(Message message) {
+            switch (message.getType()) {
+                case Message.BROADCAST:
+                case Message.END_QUIZ:
+                case Message.EXAM_PAYLOAD:
+                case Message.START_QUIZ:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = "localhost";
+        int port = 8888;
+        WireFormat wireFormat = WireFormat.OBJECT_STREAM;
+        int students = 1000;
+        long thinkMillis = 1000;
+        double correctRate = 0.7;
+        long rampSeconds = 10;
+        long durationSeconds = 30;
+        Path answerKeyFile = Paths.get("data", "questions.txt");
+        boolean search = false;
+        double p99Millis = 100;
+        int maxStudents = 50000;
+        boolean async = false;
+
+        for (String arg : args) {
+            try {
+                if (arg.startsWith("--host=")) {
+                    host = arg.substring("--host=".length());
+                } else if (arg.startsWith("--port=")) {
+                    port = Integer.parseInt(arg.substring("--port=".length()));
+                } else if (arg.startsWith("--format=")) {
+                    String format = arg.substring("--format=".length()).toLowerCase();
+                    wireFormat = format.equals("binary") ? WireFormat.BINARY
+                            : format.equals("framed") ? WireFormat.SERIALIZED_FRAMES : WireFormat.OBJECT_STREAM;
+                } else if (arg.startsWith("--students=")) {
+                    students = Integer.parseInt(arg.substring("--students=".length()));
+                } else if (arg.startsWith("--think=")) {
+                    thinkMillis = Long.parseLong(arg.substring("--think=".length()));
+                } else if (arg.startsWith("--correct=")) {
+                    correctRate = Double.parseDouble(arg.substring("--correct=".length()));
+                } else if (arg.startsWith("--ramp=")) {
+                    rampSeconds = Long.parseLong(arg.substring("--ramp=".length()));
+                } else if (arg.startsWith("--duration=")) {
+                    durationSeconds = Long.parseLong(arg.substring("--duration=".length()));
+                } else if (arg.startsWith("--answer-key=")) {
+                    answerKeyFile = Paths.get(arg.substring("--answer-key=".length()));
+                } else if (arg.equals("--async")) {
+                    async = true;
+                } else if (arg.equals("--search")) {
+                    search = true;
+                } else if (arg.startsWith("--p99=")) {
+                    p99Millis = Double.parseDouble(arg.substring("--p99=".length()));
+                } else if (arg.startsWith("--max-students=")) {
+                    maxStudents = Integer.parseInt(arg.substring("--max-students=".length()));
+                } else {
+                    System.err.println("Unknown option: " + arg);
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid value, ignored: " + arg);
+            }
+        }
+
+        LoadGenerator generator = new LoadGenerator(host, port, wireFormat, thinkMillis, correctRate,
+                loadAnswerKey(answerKeyFile));
+        try {
+            generator.setAsync(async);
+        } catch (IllegalArgumentException e) {
+            System.err.println("[LoadGenerator] " + e.getMessage());
+            return;
+        }
+        System.out.printf("[LoadGenerator] %s:%d, %s%s, think %d ms, %.0f%% correct, ramp %d s, measure %d s%n",
+                host, port, wireFormat, async ? " (async)" : "", thinkMillis, correctRate * 100, rampSeconds,
+                durationSeconds);
+
+        if (search) {
+            int capacity = generator.searchCapacity(students, maxStudents, TimeUnit.SECONDS.toMillis(rampSeconds),
+                    TimeUnit.SECONDS.toMillis(durationSeconds), p99Millis);
+            System.out.printf("[LoadGenerator] Maximum sustainable students (p99 %s <= %.1f ms): %d%n",
+                    Message.SUBMIT_ANSWER, p99Millis, capacity);
+        } else {
+            System.out.println("[LoadGenerator] Starting " + students + " students...");
+            Run run = generator.run(students, TimeUnit.SECONDS.toMillis(rampSeconds),
+                    TimeUnit.SECONDS.toMillis(durationSeconds), true);
+            run.printReport();
+        }
+    }
+}
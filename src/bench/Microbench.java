@@ -0,0 +1,437 @@
+package bench;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Pattern;
+
+/**
+ * Microbench Class
+ * Minimal JMH-style harness for the hot-path benchmarks
+ * - Each benchmark runs warm-up iterations, then measurement iterations of a
+ *   fixed duration, on one or more threads that loop over the operation
+ * - Score is average time per operation (ns/op) with a 99.9% confidence
+ *   interval over the measurement iterations, as JMH's avgt mode reports it
+ * - Results are written in JMH's JSON layout and can be compared with a
+ *   baseline file from an earlier run (or from JMH itself)
+ *
+ * Operations return a value that is folded into a sink, so the JIT cannot
+ * drop the work as dead code.
+ */
+final class Microbench {
+
+    /**
+     * One invocation of the code under test
+     */
+    interface Operation {
+        long invoke() throws Exception;
+    }
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationMillis;
+    private final Pattern filter;
+    private final PrintStream console;
+    private final List<Result> results = new ArrayList<>();
+    private volatile long sink;
+
+    Microbench(int warmupIterations, int measurementIterations, long iterationMillis,
+            Pattern filter, PrintStream console) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = Math.max(1, measurementIterations);
+        this.iterationMillis = iterationMillis;
+        this.filter = filter;
+        this.console = console;
+    }
+
+    /**
+     * Run a benchmark; `setUp` is called once per thread and returns that thread's operation
+     */
+    void run(String name, Map<String, String> params, int threads, Callable<Operation> setUp) throws Exception {
+        String label = name + (params.isEmpty() ? "" : " " + params);
+        if (filter != null && !filter.matcher(label).find()) {
+            return;
+        }
+
+        Operation[] operations = new Operation[threads];
+        for (int t = 0; t < threads; t++) {
+            operations[t] = setUp.call();
+        }
+
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(operations);
+        }
+        double[] scores = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            scores[i] = iteration(operations);
+        }
+
+        Result result = new Result(name, params, threads, scores);
+        results.add(result);
+        console.printf("%-60s %3d thr %12.1f ± %8.1f ns/op%n", label, threads, result.score, result.error);
+    }
+
+    List<Result> getResults() {
+        return results;
+    }
+
+    /**
+     * One timed iteration on every thread; returns the mean per-thread ns/op
+     */
+    private double iteration(Operation[] operations) throws Exception {
+        int threads = operations.length;
+        CountDownLatch start = new CountDownLatch(1);
+        long[] ops = new long[threads];
+        long[] nanos = new long[threads];
+        Exception[] failure = new Exception[1];
+        Stop stop = new Stop();
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            workers[t] = new Thread(() -> {
+                Operation operation = operations[index];
+                long count = 0;
+                long sum = 0;
+                try {
+                    start.await();
+                    long begin = System.nanoTime();
+                    while (!stop.requested) {
+                        sum += operation.invoke();
+                        count++;
+                    }
+                    nanos[index] = System.nanoTime() - begin;
+                } catch (Exception e) {
+                    failure[0] = e;
+                }
+                ops[index] = count;
+                sink += sum;
+            }, "microbench-" + t);
+            workers[t].start();
+        }
+
+        start.countDown();
+        Thread.sleep(iterationMillis);
+        stop.requested = true;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+
+        double total = 0;
+        for (int t = 0; t < threads; t++) {
+            total += ops[t] == 0 ? nanos[t] : (double) nanos[t] / ops[t];
+        }
+        return total / threads;
+    }
+
+    private static final class Stop {
+        volatile boolean requested;
+    }
+
+    /**
+     * Write all results as a JMH-format JSON array
+     */
+    void writeJson(Path file) throws IOException {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            json.append("    {\n");
+            json.append("        \"benchmark\" : ").append(quote(result.name)).append(",\n");
+            json.append("        \"mode\" : \"avgt\",\n");
+            json.append("        \"threads\" : ").append(result.threads).append(",\n");
+            json.append("        \"forks\" : 1,\n");
+            json.append("        \"warmupIterations\" : ").append(warmupIterations).append(",\n");
+            json.append("        \"warmupTime\" : ").append(quote(iterationMillis + " ms")).append(",\n");
+            json.append("        \"measurementIterations\" : ").append(measurementIterations).append(",\n");
+            json.append("        \"measurementTime\" : ").append(quote(iterationMillis + " ms")).append(",\n");
+            json.append("        \"params\" : {");
+            int p = 0;
+            for (Map.Entry<String, String> param : result.params.entrySet()) {
+                json.append(p++ == 0 ? "\n" : ",\n");
+                json.append("            ").append(quote(param.getKey())).append(" : ").append(quote(param.getValue()));
+            }
+            json.append(p == 0 ? "},\n" : "\n        },\n");
+            json.append("        \"primaryMetric\" : {\n");
+            json.append("            \"score\" : ").append(result.score).append(",\n");
+            json.append("            \"scoreError\" : ").append(result.error).append(",\n");
+            json.append("            \"scoreConfidence\" : [ ").append(result.score - result.error)
+                    .append(", ").append(result.score + result.error).append(" ],\n");
+            json.append("            \"scoreUnit\" : \"ns/op\",\n");
+            json.append("            \"rawData\" : [ [ ");
+            for (int r = 0; r < result.raw.length; r++) {
+                json.append(r == 0 ? "" : ", ").append(result.raw[r]);
+            }
+            json.append(" ] ]\n");
+            json.append("        }\n");
+            json.append(i == results.size() - 1 ? "    }\n" : "    },\n");
+        }
+        json.append("]\n");
+        Files.write(file, json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Print each result next to the matching one (same name, params and
+     * threads) in a baseline JSON file
+     */
+    void compare(Path baselineFile) throws IOException {
+        Object parsed = new JsonReader(new String(Files.readAllBytes(baselineFile), StandardCharsets.UTF_8)).read();
+        Map<String, double[]> baseline = new LinkedHashMap<>();
+        if (parsed instanceof List) {
+            for (Object entry : (List<?>) parsed) {
+                if (!(entry instanceof Map)) {
+                    continue;
+                }
+                Map<?, ?> benchmark = (Map<?, ?>) entry;
+                Object metric = benchmark.get("primaryMetric");
+                if (!(metric instanceof Map)) {
+                    continue;
+                }
+                Map<?, ?> primary = (Map<?, ?>) metric;
+                Map<String, String> params = new LinkedHashMap<>();
+                if (benchmark.get("params") instanceof Map) {
+                    for (Map.Entry<?, ?> param : ((Map<?, ?>) benchmark.get("params")).entrySet()) {
+                        params.put(String.valueOf(param.getKey()), String.valueOf(param.getValue()));
+                    }
+                }
+                int threads = benchmark.get("threads") instanceof Number ? ((Number) benchmark.get("threads")).intValue() : 1;
+                double score = primary.get("score") instanceof Number ? ((Number) primary.get("score")).doubleValue() : Double.NaN;
+                double error = primary.get("scoreError") instanceof Number ? ((Number) primary.get("scoreError")).doubleValue() : 0;
+                baseline.put(key(String.valueOf(benchmark.get("benchmark")), params, threads), new double[] { score, error });
+            }
+        }
+
+        console.println();
+        console.println("=== Compared with " + baselineFile + " ===");
+        for (Result result : results) {
+            double[] before = baseline.get(key(result.name, result.params, result.threads));
+            String label = result.name + (result.params.isEmpty() ? "" : " " + result.params);
+            if (before == null || Double.isNaN(before[0])) {
+                console.printf("%-60s %3d thr   (no baseline)%n", label, result.threads);
+                continue;
+            }
+            double change = (result.score - before[0]) * 100.0 / before[0];
+            // Significant only if the confidence intervals do not overlap
+            boolean significant = result.score - result.error > before[0] + before[1]
+                    || result.score + result.error < before[0] - before[1];
+            console.printf("%-60s %3d thr %12.1f -> %12.1f ns/op  %+7.1f%%%s%n", label, result.threads,
+                    before[0], result.score, change,
+                    significant ? (change > 0 ? "  SLOWER" : "  faster") : "");
+        }
+    }
+
+    private static String key(String name, Map<String, String> params, int threads) {
+        return name + params + "#" + threads;
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Score of one benchmark: mean and 99.9% confidence half-width over iterations
+     */
+    static final class Result {
+        final String name;
+        final Map<String, String> params;
+        final int threads;
+        final double[] raw;
+        final double score;
+        final double error;
+
+        Result(String name, Map<String, String> params, int threads, double[] raw) {
+            this.name = name;
+            this.params = params;
+            this.threads = threads;
+            this.raw = raw;
+
+            double sum = 0;
+            for (double value : raw) {
+                sum += value;
+            }
+            this.score = sum / raw.length;
+            if (raw.length < 2) {
+                this.error = Double.NaN;
+            } else {
+                double squares = 0;
+                for (double value : raw) {
+                    squares += (value - score) * (value - score);
+                }
+                double deviation = Math.sqrt(squares / (raw.length - 1));
+                this.error = studentT999(raw.length - 1) * deviation / Math.sqrt(raw.length);
+            }
+        }
+
+        /**
+         * Two-sided 99.9% quantile of Student's t distribution
+         */
+        private static double studentT999(int degreesOfFreedom) {
+            final double[] table = { 636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587 };
+            if (degreesOfFreedom <= table.length) {
+                return table[degreesOfFreedom - 1];
+            }
+            if (degreesOfFreedom <= 20) {
+                return 3.850;
+            }
+            if (degreesOfFreedom <= 60) {
+                return 3.460;
+            }
+            return 3.291;
+        }
+    }
+
+    /**
+     * Just enough JSON to read a results file back: objects, arrays,
+     * strings, numbers, booleans and null
+     */
+    private static final class JsonReader {
+        private final String text;
+        private int position;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        Object read() throws IOException {
+            skipWhitespace();
+            if (position >= text.length()) {
+                throw new IOException("Unexpected end of JSON");
+            }
+            char c = text.charAt(position);
+            switch (c) {
+                case '{': {
+                    position++;
+                    Map<String, Object> object = new LinkedHashMap<>();
+                    skipWhitespace();
+                    if (peek() == '}') {
+                        position++;
+                        return object;
+                    }
+                    while (true) {
+                        skipWhitespace();
+                        String name = readString();
+                        skipWhitespace();
+                        expect(':');
+                        object.put(name, read());
+                        skipWhitespace();
+                        if (peek() == ',') {
+                            position++;
+                        } else {
+                            expect('}');
+                            return object;
+                        }
+                    }
+                }
+                case '[': {
+                    position++;
+                    List<Object> array = new ArrayList<>();
+                    skipWhitespace();
+                    if (peek() == ']') {
+                        position++;
+                        return array;
+                    }
+                    while (true) {
+                        array.add(read());
+                        skipWhitespace();
+                        if (peek() == ',') {
+                            position++;
+                        } else {
+                            expect(']');
+                            return array;
+                        }
+                    }
+                }
+                case '"':
+                    return readString();
+                default:
+                    return readLiteral();
+            }
+        }
+
+        private String readString() throws IOException {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c == '\\' && position < text.length()) {
+                    char escaped = text.charAt(position++);
+                    switch (escaped) {
+                        case 'n': value.append('\n'); break;
+                        case 't': value.append('\t'); break;
+                        case 'r': value.append('\r'); break;
+                        case 'b': value.append('\b'); break;
+                        case 'f': value.append('\f'); break;
+                        case 'u':
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                            position += 4;
+                            break;
+                        default: value.append(escaped);
+                    }
+                } else {
+                    value.append(c);
+                }
+            }
+            throw new IOException("Unterminated JSON string");
+        }
+
+        private Object readLiteral() throws IOException {
+            int start = position;
+            while (position < text.length() && ",}] \t\r\n".indexOf(text.charAt(position)) < 0) {
+                position++;
+            }
+            String literal = text.substring(start, position);
+            switch (literal) {
+                case "true": return Boolean.TRUE;
+                case "false": return Boolean.FALSE;
+                case "null": return null;
+                case "NaN": return Double.NaN;
+                default:
+                    try {
+                        return Double.parseDouble(literal);
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Bad JSON value at " + start + ": " + literal);
+                    }
+            }
+        }
+
+        private char peek() {
+            return position < text.length() ? text.charAt(position) : '\0';
+        }
+
+        private void expect(char c) throws IOException {
+            if (peek() != c) {
+                throw new IOException("Expected '" + c + "' at " + position);
+            }
+            position++;
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package bench;
+
+import utils.DataPersistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Points DataPersistence at a temporary copy of data/
+ * Benchmarks that drive the real QuizEvaluator install it first, so bench
+ * sessions and results never reach the production session journal or result files
+ */
+class ScratchDataDirectory {
+
+    private static final String[] SEED_FILES = { "questions.txt", "results.txt" };
+
+    private ScratchDataDirectory() {
+    }
+
+    /**
+     * Copy the question bank and results from data/ (when present) into a new
+     * temporary directory, make it the data directory and delete it on exit
+     * Must run before the first DataPersistence or QuizEvaluator getInstance()
+     */
+    static Path install() throws IOException {
+        Path dir = Files.createTempDirectory("quiz-bench");
+        for (String name : SEED_FILES) {
+            Path source = Paths.get("data", name);
+            if (Files.exists(source)) {
+                Files.copy(source, dir.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        DataPersistence.configureDataDirectory(dir.toString());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> delete(dir), "bench-cleanup"));
+        return dir;
+    }
+
+    private static void delete(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("[ScratchDataDirectory] Could not delete " + dir + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package bench;
+
+import models.Answer;
+import models.Message;
+import utils.BinaryProtocol;
+import utils.MessageFraming;
+import utils.WireFormat;
+
+import java.io.*;
+
+/**
+ * WireProtocolBenchmark Class
+ * Compares the wire formats for the SUBMIT_ANSWER exchange
+ * - Bytes on the wire per request and per response
+ * - Encode + decode CPU time per message
+ *
+ * Run: java -cp bin bench.WireProtocolBenchmark [messages]
+ */
+public class WireProtocolBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        System.out.println("=== Bytes per SUBMIT_ANSWER exchange ===");
+        printSizes("request ", submitRequest(0), submitRequest(1));
+        printSizes("response", submitResponse(0), submitResponse(1));
+
+        System.out.println();
+        System.out.println("=== Encode + decode time per message (" + messages + " messages) ===");
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            boolean report = round == WARMUP_ROUNDS;
+            long objectStream = timeObjectStream(messages);
+            long serialized = timeFramed(WireFormat.SERIALIZED_FRAMES, messages);
+            long binary = timeFramed(WireFormat.BINARY, messages);
+            if (report) {
+                System.out.printf("OBJECT_STREAM     : %6d ns/msg%n", objectStream / messages);
+                System.out.printf("SERIALIZED_FRAMES : %6d ns/msg%n", serialized / messages);
+                System.out.printf("BINARY            : %6d ns/msg%n", binary / messages);
+            }
+        }
+    }
+
+    private static Message submitRequest(int i) {
+        return new Message(Message.SUBMIT_ANSWER, new Answer(1 + (i % 10), i % 4, "IT21000000"));
+    }
+
+    private static Message submitResponse(int i) {
+        return new Message(Message.SUCCESS, (i & 1) == 0,
+                "Correct answer! Current Score: " + (i % 100) + "/100");
+    }
+
+    private static void printSizes(String label, Message message, Message next) throws IOException {
+        // Object stream: first message carries class descriptors, later ones reuse handles
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        int header = bytes.size();
+        out.writeObject(message);
+        out.flush();
+        int first = bytes.size() - header;
+        out.writeObject(next);
+        out.flush();
+        int steady = bytes.size() - header - first;
+
+        System.out.printf("%s OBJECT_STREAM first=%d steady=%d | SERIALIZED_FRAMES=%d | BINARY=%d%n",
+                label, first, steady,
+                MessageFraming.toFrame(message).length,
+                BinaryProtocol.toFrame(message).length);
+    }
+
+    private static long timeObjectStream(int messages) throws Exception {
+        long start = System.nanoTime();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        for (int i = 0; i < messages; i++) {
+            out.writeObject((i & 1) == 0 ? submitRequest(i) : submitResponse(i));
+            if ((i & 1023) == 1023) {
+                out.reset(); // keep the handle table bounded, as a long-running stream must
+            }
+        }
+        out.flush();
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (int i = 0; i < messages; i++) {
+            in.readObject();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long timeFramed(WireFormat format, int messages) throws IOException {
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < messages; i++) {
+            byte[] frame = format.encodeFrame((i & 1) == 0 ? submitRequest(i) : submitResponse(i));
+            Message decoded = format.decodePayload(frame, MessageFraming.HEADER_SIZE,
+                    frame.length - MessageFraming.HEADER_SIZE);
+            checksum += decoded.getType().length();
+        }
+        if (checksum == 0) {
+            System.out.println("unreachable");
+        }
+        return System.nanoTime() - start;
+    }
+}
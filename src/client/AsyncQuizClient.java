@@ -0,0 +1,487 @@
+package client;
+
+import models.Answer;
+import models.Message;
+import models.Question;
+import models.QuestionPage;
+import models.QuizResult;
+import models.RankInfo;
+import models.User;
+import utils.BinaryProtocol;
+import utils.ExamPayload;
+import utils.MessageFraming;
+import utils.WireFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * AsyncQuizClient Class
+ * Non-blocking student session: every request returns a CompletableFuture
+ * - Runs on a ClientReactor, which reads for many clients on one thread
+ * - Every request carries a correlation ID; replies are matched by ID, so
+ *   requests can be issued without waiting for earlier ones
+ * - Server pushes are demultiplexed from replies: START_QUIZ (exam start),
+ *   END_QUIZ (time up) and broadcasts complete futures or call listeners
+ * - A request answered with ERROR fails with an IOException carrying the
+ *   server's text; a lost connection fails everything outstanding
+ * - Framed wire formats only (SERIALIZED_FRAMES or BINARY), like the NIO server
+ *
+ * Futures complete on the reactor thread; keep callbacks short or use the
+ * *Async variants.
+ */
+public class AsyncQuizClient implements Closeable, ClientReactor.Handler {
+
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    private final ClientReactor reactor;
+    private final WireFormat wireFormat;
+    private final SocketChannel channel;
+    private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Map<Integer, CompletableFuture<Message>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger nextCorrelationId = new AtomicInteger();
+    private final CompletableFuture<AsyncQuizClient> opened = new CompletableFuture<>();
+    private final CompletableFuture<String> examStart = new CompletableFuture<>();
+    private final CompletableFuture<QuizResult> timeUp = new CompletableFuture<>();
+
+    // Reactor thread only
+    private SelectionKey selectionKey;
+    private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private boolean helloPending;
+
+    private volatile boolean closed;
+    private volatile String studentId;
+    private volatile String sessionToken;
+    private volatile String sealedQuestions; // EXAM_PAYLOAD, while waiting for a scheduled exam
+    private volatile Consumer<String> broadcastListener;
+
+    private AsyncQuizClient(ClientReactor reactor, WireFormat wireFormat, SocketChannel channel) {
+        this.reactor = reactor;
+        this.wireFormat = wireFormat;
+        this.channel = channel;
+    }
+
+    /**
+     * Open a connection on the shared reactor
+     */
+    public static CompletableFuture<AsyncQuizClient> open(String host, int port, WireFormat wireFormat) {
+        try {
+            return open(ClientReactor.shared(), host, port, wireFormat);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Open a connection on the given reactor; completes once the socket is
+     * connected (and, for BINARY, the protocol hello has been exchanged)
+     */
+    public static CompletableFuture<AsyncQuizClient> open(ClientReactor reactor, String host, int port,
+            WireFormat wireFormat) {
+        if (!wireFormat.isFramed()) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("AsyncQuizClient needs a framed wire format, not " + wireFormat));
+        }
+        try {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            AsyncQuizClient client = new AsyncQuizClient(reactor, wireFormat, channel);
+            boolean connected = channel.connect(new InetSocketAddress(host, port));
+            reactor.execute(() -> client.register(connected));
+            return client.opened;
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // ==================== Requests ====================
+
+    /**
+     * Start a session (or join a scheduled exam's waiting room);
+     * completes with the server's welcome text
+     */
+    public CompletableFuture<String> connect(String studentId, String studentName) {
+        this.studentId = studentId;
+        return call(Message.CONNECT, new User(studentId, studentName, "STUDENT"), response -> {
+            sessionToken = response.getData() instanceof String ? (String) response.getData() : null;
+            return response.getMessage();
+        });
+    }
+
+    /**
+     * The questions; in a scheduled exam's waiting room this completes at
+     * the exam start, from the payload pushed on connect (no extra request)
+     */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<List<Question>> getQuestions() {
+        String sealed = sealedQuestions;
+        if (sealed != null) {
+            return examStart.thenApply(key -> {
+                try {
+                    return ExamPayload.open(sealed, key);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            });
+        }
+        return call(Message.GET_QUESTIONS, null, response -> (List<Question>) response.getData());
+    }
+
+    /**
+     * The first window of questions (the server caps the page size)
+     */
+    public CompletableFuture<QuestionPage> getQuestionPage(int pageSize) {
+        return call(Message.GET_QUESTION_PAGE, pageSize, response -> (QuestionPage) response.getData());
+    }
+
+    /**
+     * The window after `page`, or null after the last one; call it as soon as
+     * `page` arrives to have the next page ready by the time it is needed
+     */
+    public CompletableFuture<QuestionPage> getNextQuestionPage(QuestionPage page) {
+        if (page.isLast()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return call(Message.GET_QUESTION_PAGE, page.getNextCursor(), response -> (QuestionPage) response.getData());
+    }
+
+    /**
+     * Submit one answer; completes with whether it was correct
+     */
+    public CompletableFuture<Boolean> submitAnswer(int questionId, int selectedAnswerIndex) {
+        return call(Message.SUBMIT_ANSWER, new Answer(questionId, selectedAnswerIndex, studentId),
+                response -> Boolean.TRUE.equals(response.getData()));
+    }
+
+    /**
+     * Submit several answers as one SUBMIT_ANSWERS batch; completes with the
+     * verdicts in the order given
+     */
+    public CompletableFuture<boolean[]> submitAnswers(List<Answer> answers) {
+        List<Answer> batch = new ArrayList<>(answers.size());
+        for (Answer answer : answers) {
+            batch.add(new Answer(answer.getQuestionId(), answer.getSelectedAnswerIndex(), studentId));
+        }
+        return call(Message.SUBMIT_ANSWERS, batch, response -> (boolean[]) response.getData());
+    }
+
+    /**
+     * Finish the quiz; completes with the final result once the server has saved it
+     * (or with the result pushed by END_QUIZ if the time limit already ended it)
+     */
+    public CompletableFuture<QuizResult> getResult() {
+        if (timeUp.isDone() && !timeUp.isCompletedExceptionally()) {
+            return timeUp;
+        }
+        return call(Message.GET_RESULT, null, response -> (QuizResult) response.getData());
+    }
+
+    /**
+     * Live rank, with `window` neighbours on each side
+     */
+    public CompletableFuture<RankInfo> getRank(int window) {
+        return call(Message.GET_RANK, window, response -> (RankInfo) response.getData());
+    }
+
+    /**
+     * Tell the server we are leaving, then close
+     */
+    public void disconnect() {
+        if (closed) {
+            return;
+        }
+        try {
+            writeQueue.add(ByteBuffer.wrap(wireFormat.encodeFrame(new Message(Message.DISCONNECT, null))));
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        reactor.execute(() -> {
+            flush();
+            fail(new IOException("Disconnected"));
+        });
+    }
+
+    @Override
+    public void close() {
+        reactor.execute(() -> fail(new IOException("Client closed")));
+    }
+
+    // ==================== Pushes ====================
+
+    /**
+     * Completes with the exam key when a scheduled exam starts (START_QUIZ)
+     */
+    public CompletableFuture<String> onExamStart() {
+        return examStart;
+    }
+
+    /**
+     * Completes with the saved result if the quiz time limit ends the quiz (END_QUIZ)
+     */
+    public CompletableFuture<QuizResult> onTimeUp() {
+        return timeUp;
+    }
+
+    /**
+     * Called with the text of every broadcast (on the reactor thread)
+     */
+    public void setBroadcastListener(Consumer<String> listener) {
+        this.broadcastListener = listener;
+    }
+
+    /**
+     * Whether this session joined a scheduled exam (its questions came with EXAM_PAYLOAD)
+     */
+    public boolean isScheduledExam() {
+        return sealedQuestions != null;
+    }
+
+    public boolean isWaitingForExam() {
+        return sealedQuestions != null && !examStart.isDone();
+    }
+
+    public String getSessionToken() {
+        return sessionToken;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // ==================== Transport ====================
+
+    private <T> CompletableFuture<T> call(String type, Object data, Function<Message, T> onSuccess) {
+        return request(new Message(type, data)).thenApply(response -> {
+            if (!Message.SUCCESS.equals(response.getType())) {
+                throw new CompletionException(new IOException(response.getMessage()));
+            }
+            return onSuccess.apply(response);
+        });
+    }
+
+    /**
+     * Send a request with a fresh correlation ID; completes with its reply
+     */
+    private CompletableFuture<Message> request(Message request) {
+        CompletableFuture<Message> reply = new CompletableFuture<>();
+        int id = nextCorrelationId.incrementAndGet();
+        if (id == 0) {
+            id = nextCorrelationId.incrementAndGet();
+        }
+        request.setCorrelationId(id);
+        pending.put(id, reply);
+        if (closed) {
+            pending.remove(id);
+            reply.completeExceptionally(new IOException("Connection closed"));
+            return reply;
+        }
+        try {
+            writeQueue.add(ByteBuffer.wrap(wireFormat.encodeFrame(request)));
+        } catch (IOException e) {
+            pending.remove(id);
+            reply.completeExceptionally(e);
+            return reply;
+        }
+        // One reactor hand-off covers every frame queued before it runs
+        if (flushScheduled.compareAndSet(false, true)) {
+            reactor.execute(this::flush);
+        }
+        return reply;
+    }
+
+    private void register(boolean connected) {
+        try {
+            selectionKey = reactor.register(channel, connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, this);
+            if (connected) {
+                onConnected();
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void onConnected() throws IOException {
+        selectionKey.interestOps(SelectionKey.OP_READ);
+        if (wireFormat == WireFormat.BINARY) {
+            helloPending = true;
+            writeQueue.add(ByteBuffer.wrap(BinaryProtocol.hello(BinaryProtocol.VERSION)));
+            flush();
+        } else {
+            opened.complete(this);
+        }
+    }
+
+    @Override
+    public void onReady(SelectionKey key) {
+        try {
+            if (key.isConnectable()) {
+                channel.finishConnect();
+                onConnected();
+                return;
+            }
+            if (key.isWritable()) {
+                flush();
+            }
+            if (key.isValid() && key.isReadable()) {
+                int read = channel.read(readBuffer);
+                if (read < 0) {
+                    fail(new IOException("Connection closed by server"));
+                    return;
+                }
+                processFrames();
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(e instanceof IOException ? (IOException) e : new IOException(e));
+        }
+    }
+
+    @Override
+    public void onReactorClosed() {
+        fail(new IOException("Client reactor closed"));
+    }
+
+    /**
+     * Decode every complete frame buffered so far
+     */
+    private void processFrames() throws IOException {
+        readBuffer.flip();
+        if (helloPending) {
+            if (readBuffer.remaining() < BinaryProtocol.HELLO_SIZE) {
+                readBuffer.compact();
+                return;
+            }
+            byte[] hello = new byte[BinaryProtocol.HELLO_SIZE];
+            readBuffer.get(hello);
+            BinaryProtocol.parseHello(hello);
+            helloPending = false;
+            opened.complete(this);
+        }
+        while (!closed && readBuffer.remaining() >= MessageFraming.HEADER_SIZE) {
+            int length = readBuffer.getInt(readBuffer.position());
+            MessageFraming.checkFrameLength(length);
+            if (readBuffer.remaining() < MessageFraming.HEADER_SIZE + length) {
+                ensureCapacity(MessageFraming.HEADER_SIZE + length);
+                break;
+            }
+            readBuffer.position(readBuffer.position() + MessageFraming.HEADER_SIZE);
+            Message message = wireFormat.decodePayload(readBuffer.array(),
+                    readBuffer.arrayOffset() + readBuffer.position(), length);
+            readBuffer.position(readBuffer.position() + length);
+            dispatch(message);
+        }
+        readBuffer.compact();
+    }
+
+    /**
+     * Route a reply to its request, or handle a push
+     */
+    private void dispatch(Message message) {
+        int id = message.getCorrelationId();
+        if (id != 0) {
+            CompletableFuture<Message> reply = pending.remove(id);
+            if (reply != null) {
+                reply.complete(message);
+            }
+            return;
+        }
+        switch (message.getType()) {
+            case Message.EXAM_PAYLOAD:
+                sealedQuestions = (String) message.getData();
+                break;
+            case Message.START_QUIZ:
+                examStart.complete((String) message.getData());
+                break;
+            case Message.END_QUIZ:
+                timeUp.complete((QuizResult) message.getData());
+                break;
+            case Message.BROADCAST:
+                Consumer<String> listener = broadcastListener;
+                if (listener != null) {
+                    listener.accept(message.getMessage());
+                }
+                break;
+            default:
+                System.err.println("[AsyncQuizClient] Unmatched " + message.getType() + ": " + message.getMessage());
+        }
+    }
+
+    /**
+     * Write queued frames until the socket would block (reactor thread)
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        if (closed || selectionKey == null || !channel.isConnected()) {
+            return; // onConnected() flushes once the socket is up
+        }
+        try {
+            ByteBuffer buffer;
+            while ((buffer = writeQueue.peek()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                writeQueue.poll();
+            }
+            selectionKey.interestOps(SelectionKey.OP_READ);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void ensureCapacity(int frameSize) {
+        if (readBuffer.capacity() >= frameSize) {
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(frameSize, readBuffer.capacity() * 2));
+        larger.put(readBuffer);
+        larger.flip();
+        readBuffer = larger;
+    }
+
+    /**
+     * Close the connection and fail everything still outstanding
+     */
+    private void fail(IOException cause) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (selectionKey != null) {
+            selectionKey.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already broken
+        }
+        writeQueue.clear();
+        opened.completeExceptionally(cause);
+        examStart.completeExceptionally(cause);
+        timeUp.completeExceptionally(cause);
+        for (Integer id : pending.keySet()) {
+            CompletableFuture<Message> reply = pending.remove(id);
+            if (reply != null) {
+                reply.completeExceptionally(cause);
+            }
+        }
+    }
+}
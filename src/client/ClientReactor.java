@@ -0,0 +1,129 @@
+package client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ClientReactor Class
+ * One selector thread that does the socket I/O for any number of AsyncQuizClients
+ * - Connects, reads, decodes and writes for every client registered on it,
+ *   so a JVM can run thousands of sessions without a thread per student
+ * - Other threads hand work to it with execute(); it runs the work between selects
+ * - Response futures are completed on this thread: callbacks must not block
+ *   (use the *Async CompletableFuture methods for slow work)
+ */
+public class ClientReactor implements Closeable {
+
+    private static final ReentrantLock SHARED_LOCK = new ReentrantLock();
+    private static ClientReactor shared;
+
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    public ClientReactor() throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this::loop, "quiz-client-io");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * The process-wide reactor used when a client is opened without one
+     */
+    public static ClientReactor shared() throws IOException {
+        SHARED_LOCK.lock();
+        try {
+            if (shared == null || !shared.running) {
+                shared = new ClientReactor();
+            }
+            return shared;
+        } finally {
+            SHARED_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Run a task on the reactor thread (immediately, if already on it)
+     */
+    public void execute(Runnable task) {
+        if (inReactorThread()) {
+            task.run();
+        } else {
+            tasks.add(task);
+            selector.wakeup();
+        }
+    }
+
+    boolean inReactorThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Register a channel; call on the reactor thread
+     */
+    SelectionKey register(SelectableChannel channel, int ops, Handler handler) throws ClosedChannelException {
+        return channel.register(selector, ops, handler);
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                selector.select();
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid()) {
+                        ((Handler) key.attachment()).onReady(key);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("[ClientReactor] Selector error: " + e.getMessage());
+            } catch (RuntimeException e) {
+                System.err.println("[ClientReactor] Unexpected error: " + e);
+            }
+        }
+
+        for (SelectionKey key : selector.keys()) {
+            ((Handler) key.attachment()).onReactorClosed();
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("[ClientReactor] Error closing selector: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stop the reactor; its clients are closed
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * A channel owner driven by the reactor
+     */
+    interface Handler {
+        void onReady(SelectionKey key);
+
+        void onReactorClosed();
+    }
+}
@@ -1,10 +1,18 @@
 package client;
 
 import models.*;
+import utils.BinaryProtocol;
+import utils.ExamPayload;
+import utils.WireFormat;
 
 import java.io.*;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -14,6 +22,20 @@ import java.util.Scanner;
  * - Receive and display questions
  * - Submit answers
  * - View final results
+ * - Speaks the object stream protocol, serialized frames or the binary protocol
+ *   (frames are required when the server runs in NIO mode)
+ * - Reconnects with the session's resume token if the connection drops, and
+ *   resends the request that was cut off (the server scores an answer only once)
+ * - Answers can be sent as one SUBMIT_ANSWERS batch, or pipelined with
+ *   correlation IDs, instead of one round trip each
+ * - In a scheduled exam's waiting room, keeps the sealed questions pushed on
+ *   connect and opens them with the key from START_QUIZ (no GET_QUESTIONS)
+ * - Otherwise fetches the questions a page at a time (GET_QUESTION_PAGE) and
+ *   holds at most two pages: the next page is requested as soon as one
+ *   arrives, and its reply is read while the student answers
+ *
+ * Blocks the calling thread per request; AsyncQuizClient is the
+ * CompletableFuture-based equivalent for running many sessions on one thread.
  */
 public class StudentClient {
 
@@ -22,17 +44,40 @@ public class StudentClient {
     private Socket socket;
     private ObjectOutputStream output;
     private ObjectInputStream input;
+    private WireFormat wireFormat;
+    private DataOutputStream frameOutput;
+    private DataInputStream frameInput;
 
     private String studentId;
     private String studentName;
     private boolean isConnected;
-
-    private List<Question> questions;
-    private int currentQuestionIndex;
+    private String sessionToken;
+    private volatile QuizResult timeUpResult; // pushed by the server with END_QUIZ
+    private String sealedQuestions; // pushed with EXAM_PAYLOAD in the waiting room
+    private String examKey; // pushed with START_QUIZ
+    private long examStartsAt; // announced by the waiting-room CONNECT reply, 0 if none
+    private int nextCorrelationId = 1;
+
+    private List<Question> questions; // the current page (every question, for a sealed exam)
+    private int pageOffset; // quiz position of questions.get(0)
+    private int totalQuestions;
+    private int currentQuestionIndex; // quiz position of the next question
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private String nextCursor; // null after the last page
+    private int prefetchId; // correlation ID of the next-page request in flight, 0 if none
+    private Message prefetched; // its reply, once read
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final long EXAM_START_GRACE_MILLIS = 15_000;
 
     public StudentClient(String serverAddress, int serverPort) {
+        this(serverAddress, serverPort, WireFormat.OBJECT_STREAM);
+    }
+
+    public StudentClient(String serverAddress, int serverPort, WireFormat wireFormat) {
         this.serverAddress = serverAddress;
         this.serverPort = serverPort;
+        this.wireFormat = wireFormat;
         this.isConnected = false;
         this.currentQuestionIndex = 0;
     }
@@ -46,26 +91,21 @@ public class StudentClient {
 
         try {
             System.out.println("Connecting to server at " + serverAddress + ":" + serverPort + "...");
-
-            // Create socket connection
-            socket = new Socket(serverAddress, serverPort);
-
-            // Initialize streams
-            output = new ObjectOutputStream(socket.getOutputStream());
-            output.flush();
-            input = new ObjectInputStream(socket.getInputStream());
+            openTransport();
 
             // Send connection message
             User user = new User(studentId, studentName, "STUDENT");
             Message connectMessage = new Message(Message.CONNECT, user);
-            output.writeObject(connectMessage);
-            output.flush();
+            writeMessage(connectMessage);
 
             // Wait for response
-            Message response = (Message) input.readObject();
+            Message response = readMessage();
 
             if (Message.SUCCESS.equals(response.getType())) {
                 isConnected = true;
+                sessionToken = response.getData() instanceof String ? (String) response.getData() : null;
+                long wait = ExamPayload.announcedWait(response.getMessage());
+                examStartsAt = wait >= 0 ? System.currentTimeMillis() + wait : 0;
                 System.out.println("✓ " + response.getMessage());
                 return true;
             } else {
@@ -80,9 +120,16 @@ public class StudentClient {
     }
 
     /**
-     * Request questions from server
+     * Questions per GET_QUESTION_PAGE window (the server caps it)
+     */
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Request questions from server: the first page only; later pages are
+     * prefetched and handed out by nextQuestion()
      */
-    @SuppressWarnings("unchecked")
     public boolean requestQuestions() {
         if (!isConnected) {
             System.err.println("Not connected to server!");
@@ -90,22 +137,149 @@ public class StudentClient {
         }
 
         try {
-            // Send request for questions
-            Message request = new Message(Message.GET_QUESTIONS, null);
-            output.writeObject(request);
-            output.flush();
+            if (sealedQuestions != null) {
+                return openExamQuestions();
+            }
+
+            return requestFirstPage();
+
+        } catch (Exception e) {
+            System.err.println("Error requesting questions: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Request the first page and receive it
+     */
+    private boolean requestFirstPage() throws IOException, ClassNotFoundException {
+        Message response = exchange(new Message(Message.GET_QUESTION_PAGE, pageSize));
+
+        if (Message.SUCCESS.equals(response.getType())) {
+            currentQuestionIndex = 0;
+            usePage((QuestionPage) response.getData());
+            System.out.println("✓ Received " + questions.size() + " of " + totalQuestions + " questions");
+            return true;
+        } else {
+            System.err.println("✗ Failed to get questions: " + response.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Waiting room: wait for START_QUIZ, then open the questions pushed on connect
+     * The wait ends a grace period after the announced start; without the key by
+     * then, the questions are fetched a page at a time instead
+     */
+    private boolean openExamQuestions() throws IOException, ClassNotFoundException {
+        if (examKey == null) {
+            System.out.println("⏳ Waiting for the exam to start...");
+        }
+        while (examKey == null) {
+            long remaining = examStartsAt + EXAM_START_GRACE_MILLIS - System.currentTimeMillis();
+            if (examStartsAt > 0 && remaining <= 0) {
+                System.out.println("⚠ The exam start was not received; requesting the questions instead");
+                sealedQuestions = null;
+                return requestFirstPage();
+            }
+            Message message;
+            socket.setSoTimeout(examStartsAt > 0 ? (int) remaining : 0);
+            try {
+                message = readFrameOrObject();
+            } catch (SocketTimeoutException e) {
+                continue;
+            } finally {
+                socket.setSoTimeout(0);
+            }
+            if (!handlePush(message)) {
+                System.err.println("Unexpected message while waiting: " + message.getType());
+            }
+        }
+        questions = ExamPayload.open(sealedQuestions, examKey);
+        sealedQuestions = null;
+        pageOffset = 0;
+        totalQuestions = questions.size();
+        currentQuestionIndex = 0;
+        nextCursor = null;
+        System.out.println("✓ Received " + questions.size() + " questions");
+        return true;
+    }
+
+    /**
+     * The next question of the quiz, or null after the last one
+     * (or if the next page cannot be fetched)
+     */
+    public Question nextQuestion() {
+        if (questions == null || currentQuestionIndex >= totalQuestions) {
+            return null;
+        }
+        if (currentQuestionIndex - pageOffset >= questions.size() && !advancePage()) {
+            return null;
+        }
+        return questions.get(currentQuestionIndex++ - pageOffset);
+    }
 
-            // Receive questions
-            Message response = (Message) input.readObject();
+    public int getTotalQuestions() {
+        return totalQuestions;
+    }
+
+    /**
+     * Make a page current and ask for the one after it straight away
+     */
+    private void usePage(QuestionPage page) {
+        questions = page.getQuestions();
+        pageOffset = page.getOffset();
+        totalQuestions = page.getTotalQuestions();
+        nextCursor = page.getNextCursor();
+        prefetched = null;
+        prefetchId = 0;
+        if (nextCursor == null) {
+            return;
+        }
+
+        Message request = new Message(Message.GET_QUESTION_PAGE, nextCursor);
+        request.setCorrelationId(newCorrelationId());
+        try {
+            writeMessage(request);
+            prefetchId = request.getCorrelationId();
+        } catch (IOException e) {
+            // advancePage() asks again (after resuming) when the page is needed
+        }
+    }
+
+    /**
+     * Move to the next page: the prefetched reply if it has arrived (or once it
+     * does), otherwise a fresh request
+     */
+    private boolean advancePage() {
+        if (nextCursor == null) {
+            return false;
+        }
+        try {
+            Message response = null;
+            try {
+                while (prefetched == null && prefetchId != 0) {
+                    Message message = readFrameOrObject();
+                    if (!handlePush(message) && !keepPrefetched(message)) {
+                        throw new IOException("Unexpected response: " + message.getType());
+                    }
+                }
+                response = prefetched;
+            } catch (IOException e) {
+                if (sessionToken == null || !resume()) {
+                    throw e;
+                }
+            }
+            if (response == null) {
+                response = exchange(new Message(Message.GET_QUESTION_PAGE, nextCursor));
+            }
 
             if (Message.SUCCESS.equals(response.getType())) {
-                questions = (List<Question>) response.getData();
-                System.out.println("✓ Received " + questions.size() + " questions");
+                usePage((QuestionPage) response.getData());
                 return true;
-            } else {
-                System.err.println("✗ Failed to get questions: " + response.getMessage());
-                return false;
             }
+            System.err.println("✗ Failed to get questions: " + response.getMessage());
+            return false;
 
         } catch (Exception e) {
             System.err.println("Error requesting questions: " + e.getMessage());
@@ -113,6 +287,18 @@ public class StudentClient {
         }
     }
 
+    /**
+     * Set aside the reply to the next-page request; false if the message is something else
+     */
+    private boolean keepPrefetched(Message message) {
+        if (prefetchId == 0 || message.getCorrelationId() != prefetchId) {
+            return false;
+        }
+        prefetched = message;
+        prefetchId = 0;
+        return true;
+    }
+
     /**
      * Submit an answer to the server
      */
@@ -121,18 +307,17 @@ public class StudentClient {
             System.err.println("Not connected to server!");
             return false;
         }
+        if (isTimeUp()) {
+            System.err.println("✗ Time is up; answer not submitted");
+            return false;
+        }
 
         try {
             // Create answer object
             Answer answer = new Answer(questionId, selectedAnswer, studentId);
 
-            // Send answer to server
-            Message message = new Message(Message.SUBMIT_ANSWER, answer);
-            output.writeObject(message);
-            output.flush();
-
-            // Receive evaluation result
-            Message response = (Message) input.readObject();
+            // Send answer to server and receive the evaluation result
+            Message response = exchange(new Message(Message.SUBMIT_ANSWER, answer));
 
             if (Message.SUCCESS.equals(response.getType())) {
                 Boolean isCorrect = (Boolean) response.getData();
@@ -149,10 +334,109 @@ public class StudentClient {
         }
     }
 
+    /**
+     * Submit several answers in one SUBMIT_ANSWERS request (a single round trip)
+     * Returns the verdicts in the order given, or null if the batch failed
+     */
+    public boolean[] submitAnswers(List<Answer> answers) {
+        if (!isConnected) {
+            System.err.println("Not connected to server!");
+            return null;
+        }
+        if (isTimeUp()) {
+            System.err.println("✗ Time is up; answers not submitted");
+            return null;
+        }
+
+        try {
+            for (Answer answer : answers) {
+                answer.setStudentId(studentId);
+            }
+            Message response = exchange(new Message(Message.SUBMIT_ANSWERS, new ArrayList<>(answers)));
+
+            if (Message.SUCCESS.equals(response.getType())) {
+                System.out.println(response.getMessage());
+                return (boolean[]) response.getData();
+            } else {
+                System.err.println("✗ Failed to submit answers: " + response.getMessage());
+                return null;
+            }
+
+        } catch (Exception e) {
+            System.err.println("Error submitting answers: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Submit answers one SUBMIT_ANSWER each without waiting between them:
+     * every request carries a correlation ID, all are flushed together, and
+     * the replies are matched by ID. If the connection drops, the session is
+     * resumed and the answers are resent as one batch (already scored answers
+     * are not counted twice)
+     * Returns the verdicts in the order given, or null on failure
+     */
+    public boolean[] submitAnswersPipelined(List<Answer> answers) {
+        if (!isConnected) {
+            System.err.println("Not connected to server!");
+            return null;
+        }
+        if (isTimeUp()) {
+            System.err.println("✗ Time is up; answers not submitted");
+            return null;
+        }
+
+        Map<Integer, Integer> indexById = new HashMap<>();
+        List<Message> requests = new ArrayList<>(answers.size());
+        for (int i = 0; i < answers.size(); i++) {
+            Answer answer = answers.get(i);
+            answer.setStudentId(studentId);
+            Message request = new Message(Message.SUBMIT_ANSWER, answer);
+            request.setCorrelationId(newCorrelationId());
+            indexById.put(request.getCorrelationId(), i);
+            requests.add(request);
+        }
+
+        try {
+            writeMessages(requests);
+            boolean[] verdicts = new boolean[answers.size()];
+            for (int received = 0; received < requests.size(); received++) {
+                Message response = readMessage();
+                Integer index = indexById.get(response.getCorrelationId());
+                if (index == null) {
+                    throw new IOException("Unexpected response: " + response.getType());
+                }
+                verdicts[index] = Message.SUCCESS.equals(response.getType()) && Boolean.TRUE.equals(response.getData());
+            }
+            return verdicts;
+
+        } catch (IOException e) {
+            if (sessionToken != null && resume()) {
+                return submitAnswers(answers);
+            }
+            System.err.println("Error submitting answers: " + e.getMessage());
+            return null;
+        } catch (ClassNotFoundException e) {
+            System.err.println("Error submitting answers: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private int newCorrelationId() {
+        int id = nextCorrelationId++;
+        if (nextCorrelationId <= 0) {
+            nextCorrelationId = 1;
+        }
+        return id;
+    }
+
     /**
      * Get final quiz result
      */
     public QuizResult getResult() {
+        if (timeUpResult != null) {
+            return timeUpResult;
+        }
         if (!isConnected) {
             System.err.println("Not connected to server!");
             return null;
@@ -160,12 +444,7 @@ public class StudentClient {
 
         try {
             // Request final result
-            Message request = new Message(Message.GET_RESULT, null);
-            output.writeObject(request);
-            output.flush();
-
-            // Receive result
-            Message response = (Message) input.readObject();
+            Message response = exchange(new Message(Message.GET_RESULT, null));
 
             if (Message.SUCCESS.equals(response.getType())) {
                 QuizResult result = (QuizResult) response.getData();
@@ -182,6 +461,31 @@ public class StudentClient {
         }
     }
 
+    /**
+     * Get live leaderboard rank, with up to `window` neighbours on each side
+     */
+    public RankInfo getRank(int window) {
+        if (!isConnected) {
+            System.err.println("Not connected to server!");
+            return null;
+        }
+
+        try {
+            Message response = exchange(new Message(Message.GET_RANK, window));
+
+            if (Message.SUCCESS.equals(response.getType())) {
+                return (RankInfo) response.getData();
+            } else {
+                System.err.println("✗ Failed to get rank: " + response.getMessage());
+                return null;
+            }
+
+        } catch (Exception e) {
+            System.err.println("Error getting rank: " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Disconnect from server
      */
@@ -193,16 +497,10 @@ public class StudentClient {
         try {
             // Send disconnect message
             Message message = new Message(Message.DISCONNECT, null);
-            output.writeObject(message);
-            output.flush();
+            writeMessage(message);
 
             // Close connections
-            if (output != null)
-                output.close();
-            if (input != null)
-                input.close();
-            if (socket != null)
-                socket.close();
+            closeTransport();
 
             isConnected = false;
             System.out.println("Disconnected from server.");
@@ -212,12 +510,185 @@ public class StudentClient {
         }
     }
 
+    /**
+     * Open the socket and streams (and negotiate the binary protocol)
+     */
+    private void openTransport() throws IOException {
+        // Create socket connection
+        socket = new Socket(serverAddress, serverPort);
+
+        // Initialize streams
+        if (wireFormat.isFramed()) {
+            frameOutput = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            frameInput = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            if (wireFormat == WireFormat.BINARY) {
+                negotiateBinaryProtocol();
+            }
+        } else {
+            output = new ObjectOutputStream(socket.getOutputStream());
+            output.flush();
+            input = new ObjectInputStream(socket.getInputStream());
+        }
+    }
+
+    private void closeTransport() throws IOException {
+        if (output != null)
+            output.close();
+        if (input != null)
+            input.close();
+        if (frameOutput != null)
+            frameOutput.close();
+        if (frameInput != null)
+            frameInput.close();
+        if (socket != null)
+            socket.close();
+    }
+
+    /**
+     * Send a request and read its response; if the connection drops, resume
+     * the session on a new connection and send the request once more
+     */
+    private Message exchange(Message request) throws IOException, ClassNotFoundException {
+        try {
+            writeMessage(request);
+            return readMessage();
+        } catch (IOException e) {
+            if (sessionToken == null || !resume()) {
+                throw e;
+            }
+            writeMessage(request);
+            return readMessage();
+        }
+    }
+
+    /**
+     * Reconnect and reattach to the session with the resume token
+     */
+    private boolean resume() {
+        System.out.println("Connection lost. Resuming session...");
+        try {
+            try {
+                closeTransport();
+            } catch (IOException ignored) {
+                // The old connection is already broken
+            }
+            openTransport();
+            prefetchId = 0; // a page request in flight died with the old connection
+            prefetched = null;
+            writeMessage(new Message(Message.RESUME, sessionToken));
+            Message response = readMessage();
+
+            if (Message.SUCCESS.equals(response.getType())) {
+                System.out.println("✓ " + response.getMessage());
+                return true;
+            }
+            System.err.println("✗ Could not resume: " + response.getMessage());
+            sessionToken = null;
+            return false;
+
+        } catch (Exception e) {
+            System.err.println("Error resuming session: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Exchange hellos with the server before CONNECT
+     */
+    private void negotiateBinaryProtocol() throws IOException {
+        frameOutput.write(BinaryProtocol.hello(BinaryProtocol.VERSION));
+        frameOutput.flush();
+
+        byte[] reply = new byte[BinaryProtocol.HELLO_SIZE];
+        frameInput.readFully(reply);
+        int version = BinaryProtocol.parseHello(reply);
+        System.out.println("Using binary protocol v" + version);
+    }
+
+    /**
+     * Send a message using the negotiated transport
+     */
+    private void writeMessage(Message message) throws IOException {
+        if (wireFormat.isFramed()) {
+            wireFormat.writeFrame(frameOutput, message);
+        } else {
+            output.writeObject(message);
+            output.flush();
+        }
+    }
+
+    /**
+     * Send several messages with a single flush
+     */
+    private void writeMessages(List<Message> messages) throws IOException {
+        for (Message message : messages) {
+            if (wireFormat.isFramed()) {
+                frameOutput.write(wireFormat.encodeFrame(message));
+            } else {
+                output.writeObject(message);
+            }
+        }
+        if (wireFormat.isFramed()) {
+            frameOutput.flush();
+        } else {
+            output.flush();
+        }
+    }
+
+    /**
+     * Whether the server ended the quiz because its time limit ran out
+     */
+    public boolean isTimeUp() {
+        return timeUpResult != null;
+    }
+
+    /**
+     * Read the next response, handling any server pushes (broadcasts,
+     * END_QUIZ and the exam start) and keeping a prefetched page that arrive first
+     */
+    private Message readMessage() throws IOException, ClassNotFoundException {
+        while (true) {
+            Message message = readFrameOrObject();
+            if (!handlePush(message) && !keepPrefetched(message)) {
+                return message;
+            }
+        }
+    }
+
+    private Message readFrameOrObject() throws IOException, ClassNotFoundException {
+        return wireFormat.isFramed() ? wireFormat.readFrame(frameInput) : (Message) input.readObject();
+    }
+
+    /**
+     * Handle a server push; returns false if the message is a response
+     */
+    private boolean handlePush(Message message) {
+        switch (message.getType()) {
+            case Message.END_QUIZ:
+                timeUpResult = (QuizResult) message.getData();
+                System.out.println("⏰ " + message.getMessage());
+                return true;
+            case Message.BROADCAST:
+                System.out.println("📢 " + message.getMessage());
+                return true;
+            case Message.EXAM_PAYLOAD:
+                sealedQuestions = (String) message.getData();
+                return true;
+            case Message.START_QUIZ:
+                examKey = (String) message.getData();
+                System.out.println("🔔 " + message.getMessage());
+                return true;
+            default:
+                return false;
+        }
+    }
+
     /**
      * Display a question
      */
     private void displayQuestion(Question question, int questionNumber) {
         System.out.println("\n" + "=".repeat(60));
-        System.out.println("Question " + questionNumber + " of " + questions.size());
+        System.out.println("Question " + questionNumber + " of " + totalQuestions);
         System.out.println("Category: " + question.getCategory() + " | Points: " + question.getPoints());
         System.out.println("=".repeat(60));
         System.out.println(question.getQuestionText());
@@ -267,6 +738,23 @@ public class StudentClient {
         System.out.println("\nThank you for participating in the quiz!");
     }
 
+    /**
+     * Display leaderboard standing around this student
+     */
+    private void displayRank(RankInfo rank) {
+        if (rank == null) {
+            return;
+        }
+        System.out.println(String.format("Leaderboard: rank %d of %d (%.1f percentile)",
+                rank.getRank(), rank.getTotalRanked(), rank.getPercentile()));
+        for (RankInfo entry : rank.getNearby()) {
+            String marker = entry.getStudentId().equals(rank.getStudentId()) ? "→" : " ";
+            System.out.println(String.format("  %s %3d. %-20s %d points", marker, entry.getRank(),
+                    entry.getStudentName(), entry.getScore()));
+        }
+        System.out.println("=".repeat(60));
+    }
+
     /**
      * Run the quiz in console mode
      */
@@ -283,14 +771,14 @@ public class StudentClient {
             System.out.println("\n" + "=".repeat(60));
             System.out.println("           QUIZ STARTED");
             System.out.println("=".repeat(60));
-            System.out.println("Total Questions: " + questions.size());
+            System.out.println("Total Questions: " + totalQuestions);
             System.out.println("Instructions: Enter the number (1-4) of your answer choice.");
             System.out.println("=".repeat(60));
 
-            // Go through each question
-            for (int i = 0; i < questions.size(); i++) {
-                Question question = questions.get(i);
-                displayQuestion(question, i + 1);
+            // Go through each question, a page at a time
+            Question question;
+            while ((question = nextQuestion()) != null) {
+                displayQuestion(question, currentQuestionIndex);
 
                 // Get answer from user
                 int answer = -1;
@@ -314,6 +802,9 @@ public class StudentClient {
 
                 // Submit answer
                 submitAnswer(question.getQuestionId(), answer);
+                if (isTimeUp()) {
+                    break;
+                }
 
                 // Small delay for better UX
                 try {
@@ -324,13 +815,15 @@ public class StudentClient {
             }
 
             System.out.println("\n" + "=".repeat(60));
-            System.out.println("All questions completed! Calculating final score...");
+            System.out.println(isTimeUp() ? "Time is up! Fetching your final score..."
+                    : "All questions completed! Calculating final score...");
             System.out.println("=".repeat(60));
 
             // Get and display final result
             QuizResult result = getResult();
             if (result != null) {
                 displayResult(result);
+                displayRank(getRank(2));
             }
 
         } finally {
@@ -373,8 +866,24 @@ public class StudentClient {
         System.out.print("Enter your Name: ");
         String studentName = scanner.nextLine().trim();
 
-        // Create and connect client
-        StudentClient client = new StudentClient(serverAddress, port);
+        // Create and connect client (--framed or --binary for servers running in NIO mode)
+        List<String> options = Arrays.asList(args);
+        WireFormat wireFormat = WireFormat.OBJECT_STREAM;
+        if (options.contains("--binary")) {
+            wireFormat = WireFormat.BINARY;
+        } else if (options.contains("--framed")) {
+            wireFormat = WireFormat.SERIALIZED_FRAMES;
+        }
+        StudentClient client = new StudentClient(serverAddress, port, wireFormat);
+        for (String option : options) {
+            if (option.startsWith("--page-size=")) {
+                try {
+                    client.setPageSize(Integer.parseInt(option.substring("--page-size=".length())));
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid page size. Using default: " + DEFAULT_PAGE_SIZE);
+                }
+            }
+        }
 
         if (client.connect(studentId, studentName)) {
             System.out.println("\nConnection successful! Starting quiz...\n");
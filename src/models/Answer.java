@@ -14,6 +14,7 @@ public class Answer implements Serializable {
     private int selectedAnswerIndex;
     private String studentId;
     private long timestamp;
+    private boolean correct; // set by the server when the answer is evaluated
 
     public Answer() {
         this.timestamp = System.currentTimeMillis();
@@ -59,6 +60,14 @@ public class Answer implements Serializable {
         this.timestamp = timestamp;
     }
 
+    public boolean isCorrect() {
+        return correct;
+    }
+
+    public void setCorrect(boolean correct) {
+        this.correct = correct;
+    }
+
     @Override
     public String toString() {
         return "Answer{" +
@@ -14,11 +14,17 @@ public class Message implements Serializable {
     public static final String CONNECT = "CONNECT";
     public static final String DISCONNECT = "DISCONNECT";
     public static final String GET_QUESTIONS = "GET_QUESTIONS";
+    public static final String GET_QUESTION_PAGE = "GET_QUESTION_PAGE";
     public static final String SUBMIT_ANSWER = "SUBMIT_ANSWER";
+    public static final String SUBMIT_ANSWERS = "SUBMIT_ANSWERS";
     public static final String GET_RESULT = "GET_RESULT";
     public static final String GET_ALL_RESULTS = "GET_ALL_RESULTS";
     public static final String START_QUIZ = "START_QUIZ";
     public static final String END_QUIZ = "END_QUIZ";
+    public static final String BROADCAST = "BROADCAST";
+    public static final String GET_RANK = "GET_RANK";
+    public static final String RESUME = "RESUME";
+    public static final String EXAM_PAYLOAD = "EXAM_PAYLOAD";
     public static final String SUCCESS = "SUCCESS";
     public static final String ERROR = "ERROR";
 
@@ -26,6 +32,7 @@ public class Message implements Serializable {
     private Object data;
     private String message;
     private long timestamp;
+    private int correlationId; // echoed in the response; 0 = none
 
     public Message() {
         this.timestamp = System.currentTimeMillis();
@@ -77,6 +84,18 @@ public class Message implements Serializable {
         this.timestamp = timestamp;
     }
 
+    /**
+     * Request ID chosen by the client; the server copies it into the response,
+     * so a client can pipeline requests and match replies that arrive out of order
+     */
+    public int getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(int correlationId) {
+        this.correlationId = correlationId;
+    }
+
     @Override
     public String toString() {
         return "Message{" +
@@ -0,0 +1,80 @@
+package models;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * QuestionPage Model Class
+ * One window of the quiz, answering GET_QUESTION_PAGE
+ * - offset is the position of the first question in the whole quiz
+ * - nextCursor requests the following window (null after the last one);
+ *   clients pass it back unchanged
+ * Implements Serializable for network transmission
+ */
+public class QuestionPage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private List<Question> questions;
+    private int offset;
+    private int totalQuestions;
+    private String nextCursor;
+
+    public QuestionPage() {
+        this.questions = new ArrayList<>();
+    }
+
+    public QuestionPage(List<Question> questions, int offset, int totalQuestions, String nextCursor) {
+        this.questions = questions;
+        this.offset = offset;
+        this.totalQuestions = totalQuestions;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<Question> getQuestions() {
+        return questions;
+    }
+
+    public void setQuestions(List<Question> questions) {
+        this.questions = questions;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    public int getTotalQuestions() {
+        return totalQuestions;
+    }
+
+    public void setTotalQuestions(int totalQuestions) {
+        this.totalQuestions = totalQuestions;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+
+    @Override
+    public String toString() {
+        return "QuestionPage{" +
+                "offset=" + offset +
+                ", questions=" + questions.size() +
+                ", totalQuestions=" + totalQuestions +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
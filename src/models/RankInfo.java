@@ -0,0 +1,104 @@
+package models;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RankInfo Model Class
+ * A student's live position on the leaderboard
+ * Implements Serializable for network transmission
+ */
+public class RankInfo implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String studentId;
+    private String studentName;
+    private int score;
+    private int rank; // 1 = top; tied scores share a rank
+    private int totalRanked;
+    private double percentile; // share of other ranked students with a lower score
+    private List<RankInfo> nearby; // leaderboard rows around this student, best first
+
+    public RankInfo() {
+        this.nearby = new ArrayList<>();
+    }
+
+    public RankInfo(String studentId, String studentName, int score, int rank, int totalRanked,
+            double percentile) {
+        this.studentId = studentId;
+        this.studentName = studentName;
+        this.score = score;
+        this.rank = rank;
+        this.totalRanked = totalRanked;
+        this.percentile = percentile;
+        this.nearby = new ArrayList<>();
+    }
+
+    // Getters and Setters
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getStudentName() {
+        return studentName;
+    }
+
+    public void setStudentName(String studentName) {
+        this.studentName = studentName;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+
+    public int getTotalRanked() {
+        return totalRanked;
+    }
+
+    public void setTotalRanked(int totalRanked) {
+        this.totalRanked = totalRanked;
+    }
+
+    public List<RankInfo> getNearby() {
+        return nearby;
+    }
+
+    public void setNearby(List<RankInfo> nearby) {
+        this.nearby = nearby;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    @Override
+    public String toString() {
+        return "RankInfo{" +
+                "studentId='" + studentId + '\'' +
+                ", studentName='" + studentName + '\'' +
+                ", score=" + score +
+                ", rank=" + rank + "/" + totalRanked +
+                '}';
+    }
+}
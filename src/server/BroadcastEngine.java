@@ -0,0 +1,369 @@
+package server;
+
+import models.Message;
+import utils.Logger;
+import utils.WireFormat;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BroadcastEngine Class
+ * Asynchronous fan-out of server pushes to all connected clients
+ * - Each broadcast is encoded at most once per wire format
+ * - Every client has a bounded outbound queue
+ * - A small pool of writer threads drains the queues, so one slow socket
+ *   never stalls the broadcast for the rest of the room
+ * - Blocking socket writes have a deadline: a watchdog aborts a connection whose
+ *   write has been stuck longer than the write timeout, freeing its writer thread
+ * - Full queues are handled by a configurable SlowConsumerPolicy; it only applies
+ *   to BROADCAST text, control pushes (START_QUIZ, END_QUIZ, ...) are never dropped
+ * - Single-client pushes (send) share the same queues, so they never block the caller
+ * - Tracks queue depth and fan-out latency (broadcast call to socket write)
+ */
+public class BroadcastEngine {
+
+    private static final Logger LOG = Logger.get("BroadcastEngine");
+
+    // How many messages a writer sends for one client before yielding to others
+    private static final int DRAIN_BATCH = 64;
+
+    // Longest a blocking socket write may take before the connection is aborted
+    public static final long DEFAULT_WRITE_TIMEOUT_MILLIS = 5000;
+
+    private final int queueCapacity;
+    private final SlowConsumerPolicy policy;
+    private final ExecutorService writers;
+    private final ScheduledExecutorService watchdog;
+    private final long writeTimeoutNanos;
+    private final Map<ClientHandler, ClientOutbox> outboxes;
+
+    // Metrics
+    private final LongAdder broadcasts = new LongAdder();
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+    private final LongAdder stalled = new LongAdder();
+    private final LongAdder latencyTotalNanos = new LongAdder();
+    private final AtomicLong latencyMaxNanos = new AtomicLong();
+
+    public BroadcastEngine(int queueCapacity, SlowConsumerPolicy policy, int writerThreads) {
+        this(queueCapacity, policy, writerThreads, DEFAULT_WRITE_TIMEOUT_MILLIS);
+    }
+
+    public BroadcastEngine(int queueCapacity, SlowConsumerPolicy policy, int writerThreads, long writeTimeoutMillis) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.policy = policy;
+        this.outboxes = new ConcurrentHashMap<>();
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, writeTimeoutMillis));
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(Math.max(1, writerThreads), runnable -> {
+            Thread thread = new Thread(runnable, "broadcast-writer-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "broadcast-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkMillis = Math.max(10, TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos) / 4);
+        watchdog.scheduleWithFixedDelay(this::abortStalledWrites, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Start delivering broadcasts to a client
+     */
+    public void register(ClientHandler client) {
+        outboxes.put(client, new ClientOutbox(client));
+    }
+
+    /**
+     * Stop delivering broadcasts to a client and drop anything still queued
+     */
+    public void unregister(ClientHandler client) {
+        ClientOutbox outbox = outboxes.remove(client);
+        if (outbox != null) {
+            outbox.queue.clear();
+            outbox.control.clear();
+        }
+    }
+
+    /**
+     * Queue a message for every registered client; returns immediately
+     */
+    public void broadcast(Message message) {
+        broadcasts.increment();
+        OutboundMessage outbound = new OutboundMessage(message);
+        for (ClientOutbox outbox : outboxes.values()) {
+            outbox.offer(outbound);
+        }
+    }
+
+    /**
+     * Queue a message for one registered client; returns immediately,
+     * or false if the client is not registered
+     */
+    public boolean send(ClientHandler client, Message message) {
+        ClientOutbox outbox = outboxes.get(client);
+        if (outbox == null) {
+            return false;
+        }
+        outbox.offer(new OutboundMessage(message));
+        return true;
+    }
+
+    /**
+     * Stop the writer threads
+     */
+    public void shutdown() {
+        watchdog.shutdownNow();
+        writers.shutdownNow();
+        outboxes.clear();
+    }
+
+    /**
+     * Abort every connection whose socket write has outlasted the write timeout;
+     * closing the socket fails the blocked write, so its writer thread moves on
+     */
+    private void abortStalledWrites() {
+        long now = System.nanoTime();
+        for (ClientHandler client : outboxes.keySet()) {
+            if (client.isWriteStalled(now, writeTimeoutNanos)) {
+                stalled.increment();
+                LOG.warn("Aborting client stalled in a socket write: %s", client.getStudentId());
+                unregister(client);
+                client.abort();
+            }
+        }
+    }
+
+    // ==================== Metrics ====================
+
+    /**
+     * Total messages currently waiting in all client queues
+     */
+    public int getTotalQueueDepth() {
+        int total = 0;
+        for (ClientOutbox outbox : outboxes.values()) {
+            total += outbox.queue.size() + outbox.control.size();
+        }
+        return total;
+    }
+
+    /**
+     * Deepest single client queue
+     */
+    public int getMaxQueueDepth() {
+        int max = 0;
+        for (ClientOutbox outbox : outboxes.values()) {
+            max = Math.max(max, outbox.queue.size() + outbox.control.size());
+        }
+        return max;
+    }
+
+    /**
+     * Average time from broadcast() to the write for one client, in microseconds
+     */
+    public double getAverageLatencyMicros() {
+        long count = delivered.sum();
+        return count == 0 ? 0.0 : latencyTotalNanos.sum() / 1000.0 / count;
+    }
+
+    public double getMaxLatencyMicros() {
+        return latencyMaxNanos.get() / 1000.0;
+    }
+
+    public long getBroadcastCount() {
+        return broadcasts.sum();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getConflatedCount() {
+        return conflated.sum();
+    }
+
+    public long getDisconnectedCount() {
+        return disconnected.sum();
+    }
+
+    public long getStalledCount() {
+        return stalled.sum();
+    }
+
+    /**
+     * Human readable summary for the server console
+     */
+    public String getStats() {
+        StringBuilder stats = new StringBuilder();
+        stats.append("Broadcast Policy: ").append(policy)
+                .append(" (queue capacity ").append(queueCapacity).append(")\n");
+        stats.append("Broadcasts: ").append(broadcasts.sum())
+                .append(", Enqueued: ").append(enqueued.sum())
+                .append(", Delivered: ").append(delivered.sum()).append("\n");
+        stats.append("Dropped: ").append(dropped.sum())
+                .append(", Conflated: ").append(conflated.sum())
+                .append(", Slow clients disconnected: ").append(disconnected.sum())
+                .append(", Stalled writes aborted: ").append(stalled.sum()).append("\n");
+        stats.append(String.format("Queue Depth: total %d, max %d%n", getTotalQueueDepth(), getMaxQueueDepth()));
+        stats.append(String.format("Fan-out Latency: avg %.1f us, max %.1f us%n",
+                getAverageLatencyMicros(), getMaxLatencyMicros()));
+        return stats.toString();
+    }
+
+    private void recordLatency(long nanos) {
+        delivered.increment();
+        latencyTotalNanos.add(nanos);
+        long max;
+        while (nanos > (max = latencyMaxNanos.get())) {
+            if (latencyMaxNanos.compareAndSet(max, nanos)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * A broadcast message plus its encodings, shared by every client queue
+     */
+    private static final class OutboundMessage {
+
+        private final Message message;
+        private final boolean droppable; // only BROADCAST text is subject to the slow consumer policy
+        private final long createdNanos;
+
+        // Benign races: a frame may be encoded twice, but always to the same bytes
+        private volatile byte[] serializedFrame;
+        private volatile byte[] binaryFrame;
+
+        OutboundMessage(Message message) {
+            this.message = message;
+            this.droppable = Message.BROADCAST.equals(message.getType());
+            this.createdNanos = System.nanoTime();
+        }
+
+        byte[] frame(WireFormat format) throws IOException {
+            if (format == WireFormat.BINARY) {
+                byte[] frame = binaryFrame;
+                if (frame == null) {
+                    frame = format.encodeFrame(message);
+                    binaryFrame = frame;
+                }
+                return frame;
+            }
+            byte[] frame = serializedFrame;
+            if (frame == null) {
+                frame = format.encodeFrame(message);
+                serializedFrame = frame;
+            }
+            return frame;
+        }
+    }
+
+    /**
+     * Bounded per-client queue for broadcast text plus an unbounded one for the
+     * (few) control pushes, drained control first by at most one writer at a time
+     */
+    private final class ClientOutbox {
+
+        private final ClientHandler client;
+        private final BlockingQueue<OutboundMessage> queue;
+        private final Queue<OutboundMessage> control = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        ClientOutbox(ClientHandler client) {
+            this.client = client;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        void offer(OutboundMessage outbound) {
+            if (!outbound.droppable) {
+                control.add(outbound);
+            } else if (!queue.offer(outbound)) {
+                switch (policy) {
+                    case DROP:
+                        dropped.increment();
+                        return;
+
+                    case CONFLATE:
+                        while (!queue.offer(outbound)) {
+                            if (queue.poll() != null) {
+                                conflated.increment();
+                            }
+                        }
+                        break;
+
+                    case DISCONNECT:
+                        disconnected.increment();
+                        LOG.warn("Disconnecting slow client: %s", client.getStudentId());
+                        unregister(client);
+                        writers.execute(client::abort);
+                        return;
+                }
+            }
+            enqueued.increment();
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    writers.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                OutboundMessage outbound;
+                int sent = 0;
+                while (sent++ < DRAIN_BATCH && client.isConnected() && (outbound = next()) != null) {
+                    deliver(outbound);
+                }
+            } finally {
+                scheduled.set(false);
+                if ((!control.isEmpty() || !queue.isEmpty()) && client.isConnected()) {
+                    schedule();
+                }
+            }
+        }
+
+        private OutboundMessage next() {
+            OutboundMessage outbound = control.poll();
+            return outbound != null ? outbound : queue.poll();
+        }
+
+        private void deliver(OutboundMessage outbound) {
+            WireFormat format = client.getWireFormat();
+            if (format.isFramed()) {
+                try {
+                    client.sendFrame(outbound.frame(format), false);
+                } catch (IOException e) {
+                    LOG.error("Error encoding broadcast: %s", e.getMessage());
+                    return;
+                }
+            } else {
+                // A long-lived object stream has per-connection state, so it serializes itself
+                client.sendMessage(outbound.message);
+            }
+            recordLatency(System.nanoTime() - outbound.createdNanos);
+        }
+    }
+}
@@ -1,12 +1,26 @@
 package server;
 
 import models.*;
+import utils.AnswerOutcome;
+import utils.BinaryProtocol;
+import utils.ExamPayload;
+import utils.Logger;
+import utils.MetricsRegistry;
 import utils.QuizEvaluator;
-import utils.DataPersistence;
+import utils.WireFormat;
 
 import java.io.*;
 import java.net.Socket;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 
 /**
  * MEMBER 2: MULTITHREADING FOR MULTIPLE STUDENTS
@@ -15,20 +29,56 @@ import java.util.List;
  * Handles individual client connections in separate threads
  * - Each client gets its own thread for concurrent processing
  * - Uses ObjectInputStream and ObjectOutputStream for communication
+ * - Also accepts framed clients (serialized or binary), detected from the first byte
  * - Processes client requests independently
  * - Thread-safe operations with server resources
+ * - Uses ReentrantLock rather than monitors so handlers can run on virtual threads
  */
 public class ClientHandler implements Runnable {
 
+    // First byte of the Java serialization stream header (0xACED)
+    static final int OBJECT_STREAM_MAGIC_FIRST_BYTE = 0xAC;
+
+    // Longest a blocking handler waits for a deferred reply (e.g. the result becoming durable)
+    private static final long REPLY_WAIT_SECONDS = 30;
+
+    // Message types get their own metric labels; anything else is counted as OTHER
+    private static final Set<String> REQUEST_TYPES = new HashSet<>(Arrays.asList(
+            Message.CONNECT, Message.RESUME, Message.GET_QUESTIONS, Message.GET_QUESTION_PAGE,
+            Message.SUBMIT_ANSWER,
+            Message.SUBMIT_ANSWERS, Message.GET_RESULT, Message.GET_RANK, Message.DISCONNECT));
+    private static final Logger LOG = Logger.get("ClientHandler");
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+    static final MetricsRegistry.Counter BYTES_RECEIVED = METRICS.counter(
+            "quiz_bytes_received_total", "Bytes read from client connections");
+    static final MetricsRegistry.Counter BYTES_SENT = METRICS.counter(
+            "quiz_bytes_sent_total", "Bytes written to client connections");
+
     private Socket clientSocket;
     private QuizServer server;
     private ObjectOutputStream output;
     private ObjectInputStream input;
+    private volatile WireFormat wireFormat = WireFormat.OBJECT_STREAM;
+    private DataOutputStream frameOutput;
+    private DataInputStream frameInput;
 
     private String studentId;
     private String studentName;
-    private boolean isConnected;
-    private long quizStartTime;
+    private volatile boolean isConnected;
+    private volatile long quizStartTime; // set by the exam start thread for waiting-room students
+    private int correlationId; // of the request being handled, copied into its response
+
+    // Serialize message handling and socket writes without pinning virtual threads
+    private final ReentrantLock messageLock = new ReentrantLock();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // When the socket write in progress started (System.nanoTime()), 0 if none;
+    // the broadcast watchdog aborts the connection if it takes too long
+    private volatile long writeStartedNanos;
+
+    // Request being timed, from read until its response is flushed
+    private volatile String timedType;
+    private volatile long timedStartNanos;
 
     public ClientHandler(Socket socket, QuizServer server) {
         this.clientSocket = socket;
@@ -36,6 +86,15 @@ public class ClientHandler implements Runnable {
         this.isConnected = true;
     }
 
+    /**
+     * Constructor for handlers whose transport is managed elsewhere
+     * (e.g. the NIO event loops), which override sendMessage and closeTransport
+     */
+    protected ClientHandler(QuizServer server) {
+        this.server = server;
+        this.isConnected = true;
+    }
+
     /**
      * Main thread execution method
      * Each client runs in its own thread for concurrent processing
@@ -43,19 +102,47 @@ public class ClientHandler implements Runnable {
     @Override
     public void run() {
         try {
-            // Initialize streams - ObjectInputStream/ObjectOutputStream for object transfer
-            output = new ObjectOutputStream(clientSocket.getOutputStream());
-            output.flush();
-            input = new ObjectInputStream(clientSocket.getInputStream());
+            // Peek at the first byte to pick the protocol: object stream clients start
+            // with the serialization header, binary clients with a hello, anything else
+            // is a length-prefixed serialized frame
+            BufferedInputStream rawInput = new BufferedInputStream(
+                    new CountingInputStream(clientSocket.getInputStream()));
+            OutputStream rawOutput = new CountingOutputStream(clientSocket.getOutputStream());
+            rawInput.mark(1);
+            int firstByte = rawInput.read();
+            rawInput.reset();
+            if (firstByte < 0) {
+                return;
+            }
 
-            System.out.println("[ClientHandler] Thread started for client: " +
-                    clientSocket.getInetAddress().getHostAddress());
+            if (firstByte == OBJECT_STREAM_MAGIC_FIRST_BYTE) {
+                // Initialize streams - ObjectInputStream/ObjectOutputStream for object transfer
+                output = new ObjectOutputStream(rawOutput);
+                output.flush();
+                input = new ObjectInputStream(rawInput);
+            } else {
+                frameInput = new DataInputStream(rawInput);
+                frameOutput = new DataOutputStream(new BufferedOutputStream(rawOutput));
+
+                if (BinaryProtocol.isHelloStart(firstByte)) {
+                    byte[] hello = new byte[BinaryProtocol.HELLO_SIZE];
+                    frameInput.readFully(hello);
+                    int version = BinaryProtocol.negotiate(BinaryProtocol.parseHello(hello));
+                    frameOutput.write(BinaryProtocol.hello(version));
+                    frameOutput.flush();
+                    wireFormat = WireFormat.BINARY;
+                } else {
+                    wireFormat = WireFormat.SERIALIZED_FRAMES;
+                }
+            }
+
+            LOG.info("Thread started for client: %s (%s)", clientSocket.getInetAddress().getHostAddress(), wireFormat);
 
             // Handle client messages in a loop
             while (isConnected) {
                 try {
                     // Read message from client
-                    Object obj = input.readObject();
+                    Object obj = wireFormat.isFramed() ? wireFormat.readFrame(frameInput) : input.readObject();
 
                     if (obj instanceof Message) {
                         Message message = (Message) obj;
@@ -67,7 +154,7 @@ public class ClientHandler implements Runnable {
                 } catch (ClassNotFoundException e) {
                     System.err.println("[ClientHandler] Unknown object received: " + e.getMessage());
                 } catch (EOFException e) {
-                    System.out.println("[ClientHandler] Client disconnected: " + studentId);
+                    LOG.info("Client disconnected: %s", studentId);
                     break;
                 } catch (IOException e) {
                     if (isConnected) {
@@ -88,90 +175,185 @@ public class ClientHandler implements Runnable {
      * Handle different types of messages from client
      * Thread-safe message processing
      */
-    private synchronized void handleMessage(Message message) {
-        System.out.println("[ClientHandler] Processing message: " + message.getType() +
-                " from " + (studentId != null ? studentId : "unknown"));
+    void handleMessage(Message message) {
+        String type = REQUEST_TYPES.contains(message.getType()) ? message.getType() : "OTHER";
+        METRICS.counter("quiz_messages_total", "Requests received, by message type", "type", type).increment();
+        timedStartNanos = System.nanoTime();
+        timedType = type;
 
-        switch (message.getType()) {
-            case Message.CONNECT:
-                handleConnect(message);
-                break;
+        messageLock.lock();
+        try {
+            LOG.debug("Processing message: %s from %s", message.getType(), studentId != null ? studentId : "unknown");
+            correlationId = message.getCorrelationId();
 
-            case Message.GET_QUESTIONS:
-                handleGetQuestions();
-                break;
+            switch (message.getType()) {
+                case Message.CONNECT:
+                    handleConnect(message);
+                    break;
 
-            case Message.SUBMIT_ANSWER:
-                handleSubmitAnswer(message);
-                break;
+                case Message.RESUME:
+                    handleResume(message);
+                    break;
 
-            case Message.GET_RESULT:
-                handleGetResult();
-                break;
+                case Message.GET_QUESTIONS:
+                    handleGetQuestions();
+                    break;
 
-            case Message.DISCONNECT:
-                handleDisconnect();
-                break;
+                case Message.GET_QUESTION_PAGE:
+                    handleGetQuestionPage(message);
+                    break;
 
-            default:
-                sendErrorMessage("Unknown message type: " + message.getType());
+                case Message.SUBMIT_ANSWER:
+                    handleSubmitAnswer(message);
+                    break;
+
+                case Message.SUBMIT_ANSWERS:
+                    handleSubmitAnswers(message);
+                    break;
+
+                case Message.GET_RESULT:
+                    handleGetResult();
+                    break;
+
+                case Message.GET_RANK:
+                    handleGetRank(message);
+                    break;
+
+                case Message.DISCONNECT:
+                    handleDisconnect();
+                    break;
+
+                default:
+                    sendErrorMessage("Unknown message type: " + message.getType());
+            }
+        } finally {
+            messageLock.unlock();
         }
     }
 
     /**
      * Handle client connection
+     * Starts a new session; the response data is the token that resumes it
+     * While an exam is scheduled the student waits in the ExamRoom instead: the
+     * sealed questions are pushed first, and the session starts with START_QUIZ
      */
     private void handleConnect(Message message) {
         try {
             User user = (User) message.getData();
             this.studentId = user.getUserId();
             this.studentName = user.getUsername();
-            this.quizStartTime = System.currentTimeMillis();
 
             // Register with server (thread-safe)
             server.registerClient(studentId, this);
 
+            QuizEvaluator evaluator = server.getQuizEvaluator();
+            ExamRoom examRoom = server.getExamRoom();
+            if (examRoom.isOpen()) {
+                String token = evaluator.newSessionToken();
+                if (examRoom.join(this, studentId, studentName, token)) {
+                    sendMessage(examRoom.payloadMessage());
+                    long wait = Math.max(0, examRoom.getStartAt() - System.currentTimeMillis());
+                    sendMessage(new Message(Message.SUCCESS, token,
+                            "Connected successfully! Welcome " + studentName + ExamPayload.waitingNotice(wait)));
+                    LOG.info("Student waiting for the exam: %s (ID: %s)", studentName, studentId);
+                    return;
+                }
+            }
+
             // Initialize quiz session
-            server.getQuizEvaluator().initializeQuizSession(studentId, studentName);
+            String token = evaluator.initializeQuizSession(studentId, studentName);
+            this.quizStartTime = evaluator.getSessionStartTime(studentId);
 
             // Send success response
-            Message response = new Message(Message.SUCCESS, null,
-                    "Connected successfully! Welcome " + studentName);
+            long limit = QuizEvaluator.getQuizTimeLimit();
+            Message response = new Message(Message.SUCCESS, token,
+                    "Connected successfully! Welcome " + studentName +
+                            (limit > 0 ? String.format(" (time limit: %d seconds)",
+                                    TimeUnit.MILLISECONDS.toSeconds(limit)) : ""));
             sendMessage(response);
 
-            System.out.println("[ClientHandler] Student connected: " + studentName + " (ID: " + studentId + ")");
+            LOG.info("Student connected: %s (ID: %s)", studentName, studentId);
 
         } catch (Exception e) {
             sendErrorMessage("Connection failed: " + e.getMessage());
         }
     }
 
+    /**
+     * Handle reconnect with a resume token (String data)
+     * Reattaches to the active session, keeping its score, answers and start
+     * time; the response data is the session's current result
+     */
+    private void handleResume(Message message) {
+        try {
+            String token = message.getData() instanceof String ? (String) message.getData() : null;
+            QuizEvaluator evaluator = server.getQuizEvaluator();
+            QuizResult current = evaluator.resumeSession(token);
+            if (current == null) {
+                sendErrorMessage("Session expired or unknown; please connect again");
+                return;
+            }
+
+            this.studentId = current.getStudentId();
+            this.studentName = current.getStudentName();
+            this.quizStartTime = evaluator.getSessionStartTime(studentId);
+            server.registerClient(studentId, this);
+
+            sendMessage(new Message(Message.SUCCESS, current,
+                    String.format("Session resumed! Welcome back %s (%d answered, score %d/%d)",
+                            studentName, current.getAnswers().size(),
+                            current.getTotalScore(), current.getMaxScore())));
+
+            LOG.info("Student resumed: %s (ID: %s)", studentName, studentId);
+
+        } catch (Exception e) {
+            sendErrorMessage("Resume failed: " + e.getMessage());
+        }
+    }
+
     /**
      * Handle get questions request
+     * The redacted payload is built once per question bank version and shared
      */
     private void handleGetQuestions() {
+        if (server.getExamRoom().isWaiting(studentId)) {
+            sendErrorMessage("The exam has not started yet");
+            return;
+        }
         try {
-            DataPersistence dataPersistence = server.getDataPersistence();
-            List<Question> questions = dataPersistence.getQuestions();
-
-            // Create a copy of questions without correct answers (for security)
-            List<Question> clientQuestions = new java.util.ArrayList<>();
-            for (Question q : questions) {
-                Question clientQ = new Question(
-                        q.getQuestionId(),
-                        q.getQuestionText(),
-                        q.getOptions(),
-                        -1, // Hide correct answer from client
-                        q.getCategory(),
-                        q.getPoints());
-                clientQuestions.add(clientQ);
+            QuestionPayloadCache.Payload payload = server.getQuestionPayloadCache().get();
+
+            if (wireFormat.isFramed() && correlationId == 0) {
+                // Write the pre-encoded bytes straight to the socket
+                sendFrame(payload.getFrame(wireFormat), true);
+            } else {
+                Message response = new Message(Message.SUCCESS, payload.getQuestions(),
+                        QuestionPayloadCache.RESPONSE_TEXT);
+                sendMessage(response);
             }
 
-            Message response = new Message(Message.SUCCESS, clientQuestions,
-                    "Questions retrieved successfully");
-            sendMessage(response);
+            LOG.info("Sent %d questions to %s", payload.size(), studentId);
+
+        } catch (Exception e) {
+            sendErrorMessage("Failed to retrieve questions: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Handle a paged question request (data: page size to start, or the previous page's cursor)
+     * Only the requested window is redacted and encoded, from the shared bank snapshot
+     */
+    private void handleGetQuestionPage(Message message) {
+        if (server.getExamRoom().isWaiting(studentId)) {
+            sendErrorMessage("The exam has not started yet");
+            return;
+        }
+        try {
+            QuestionPage page = server.getQuestionPayloadCache().get().page(message.getData());
+            sendMessage(new Message(Message.SUCCESS, page, QuestionPayloadCache.RESPONSE_TEXT));
 
-            System.out.println("[ClientHandler] Sent " + questions.size() + " questions to " + studentId);
+            LOG.debug("Sent questions %d-%d of %d to %s", page.getOffset() + 1,
+                    page.getOffset() + page.getQuestions().size(), page.getTotalQuestions(), studentId);
 
         } catch (Exception e) {
             sendErrorMessage("Failed to retrieve questions: " + e.getMessage());
@@ -188,7 +370,16 @@ public class ClientHandler implements Runnable {
 
             // Evaluate answer (thread-safe)
             QuizEvaluator evaluator = server.getQuizEvaluator();
-            boolean isCorrect = evaluator.evaluateAnswer(answer);
+            if (System.currentTimeMillis() >= evaluator.getQuizDeadline(studentId)) {
+                sendErrorMessage("Time is up; answer not accepted");
+                return;
+            }
+            AnswerOutcome outcome = evaluator.evaluate(answer);
+            if (!outcome.isAccepted()) {
+                sendErrorMessage(notAcceptedReason(outcome) + "; answer not accepted");
+                return;
+            }
+            boolean isCorrect = outcome == AnswerOutcome.CORRECT;
 
             // Get current result
             QuizResult currentResult = evaluator.getCurrentResult(studentId);
@@ -205,6 +396,12 @@ public class ClientHandler implements Runnable {
                         currentResult.getMaxScore()));
             }
 
+            RankInfo rank = evaluator.getRank(studentId, 0);
+            if (rank != null) {
+                response.setMessage(String.format("%s Rank: %d/%d",
+                        response.getMessage(), rank.getRank(), rank.getTotalRanked()));
+            }
+
             sendMessage(response);
 
         } catch (Exception e) {
@@ -212,29 +409,138 @@ public class ClientHandler implements Runnable {
         }
     }
 
+    /**
+     * Handle a batch of answers (List<Answer> data)
+     * Evaluates them in order and answers once; the response data is a
+     * boolean[] of verdicts, in the order the answers were sent
+     */
+    @SuppressWarnings("unchecked")
+    private void handleSubmitAnswers(Message message) {
+        try {
+            if (!(message.getData() instanceof List)) {
+                sendErrorMessage("Expected a list of answers");
+                return;
+            }
+            List<Answer> answers = (List<Answer>) message.getData();
+
+            QuizEvaluator evaluator = server.getQuizEvaluator();
+            if (System.currentTimeMillis() >= evaluator.getQuizDeadline(studentId)) {
+                sendErrorMessage("Time is up; answers not accepted");
+                return;
+            }
+
+            boolean[] verdicts = new boolean[answers.size()];
+            int correct = 0;
+            for (int i = 0; i < verdicts.length; i++) {
+                Answer answer = answers.get(i);
+                answer.setStudentId(studentId);
+                AnswerOutcome outcome = evaluator.evaluate(answer);
+                if (!outcome.isAccepted()) {
+                    // Stop at the first answer not scored; the ones before it stay scored
+                    sendErrorMessage(String.format("%s; %d of %d answers accepted",
+                            notAcceptedReason(outcome), i, verdicts.length));
+                    return;
+                }
+                verdicts[i] = outcome == AnswerOutcome.CORRECT;
+                if (verdicts[i]) {
+                    correct++;
+                }
+            }
+
+            QuizResult currentResult = evaluator.getCurrentResult(studentId);
+            String text = correct + "/" + verdicts.length + " correct.";
+            if (currentResult != null) {
+                text += String.format(" Current Score: %d/%d",
+                        currentResult.getTotalScore(), currentResult.getMaxScore());
+            }
+            sendMessage(new Message(Message.SUCCESS, verdicts, text));
+
+        } catch (Exception e) {
+            sendErrorMessage("Failed to submit answers: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Why an answer was not scored, for the ERROR reply
+     */
+    private static String notAcceptedReason(AnswerOutcome outcome) {
+        return outcome == AnswerOutcome.LATE ? "Time is up" : "No active quiz session";
+    }
+
     /**
      * Handle get result request
+     * The final score is sent only after the result is durable
      */
     private void handleGetResult() {
         try {
             QuizEvaluator evaluator = server.getQuizEvaluator();
 
             // Finalize quiz result
-            QuizResult result = evaluator.finalizeQuizResult(studentId, quizStartTime);
+            CompletableFuture<QuizResult> saved = evaluator.finalizeQuizResultAsync(studentId, quizStartTime);
+
+            int requestId = correlationId;
+            whenComplete(saved, (result, error) -> {
+                // Under NIO this runs after later requests; reply with this request's ID
+                correlationId = requestId;
+                if (error != null) {
+                    sendErrorMessage("Failed to get result: " + error.getMessage());
+                } else if (result != null) {
+                    Message response = new Message(Message.SUCCESS, result,
+                            "Quiz completed! Your final score: " + result.getTotalScore() +
+                                    "/" + result.getMaxScore());
+                    sendMessage(response);
+
+                    LOG.info("Sent final result to %s", studentId);
+                } else {
+                    sendErrorMessage("Failed to retrieve result");
+                }
+            });
 
-            if (result != null) {
-                Message response = new Message(Message.SUCCESS, result,
-                        "Quiz completed! Your final score: " + result.getTotalScore() +
-                                "/" + result.getMaxScore());
-                sendMessage(response);
+        } catch (Exception e) {
+            sendErrorMessage("Failed to get result: " + e.getMessage());
+        }
+    }
 
-                System.out.println("[ClientHandler] Sent final result to " + studentId);
+    /**
+     * Run a response callback once a future completes
+     * A blocking handler owns its thread, so it waits (at most REPLY_WAIT_SECONDS);
+     * the NIO handler overrides this to resume on its event loop instead
+     */
+    protected <T> void whenComplete(CompletableFuture<T> future, BiConsumer<T, Throwable> callback) {
+        T value = null;
+        Throwable error = null;
+        try {
+            value = future.get(REPLY_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            error = e.getCause();
+        } catch (TimeoutException e) {
+            error = new TimeoutException("no reply within " + REPLY_WAIT_SECONDS + " seconds");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = e;
+        }
+        callback.accept(value, error);
+    }
+
+    /**
+     * Handle leaderboard rank request
+     * Optional Integer data: how many neighbours to include on each side
+     */
+    private void handleGetRank(Message message) {
+        try {
+            int window = message.getData() instanceof Integer ? (Integer) message.getData() : 0;
+            RankInfo rank = server.getQuizEvaluator().getRank(studentId, Math.max(0, Math.min(window, 50)));
+
+            if (rank != null) {
+                sendMessage(new Message(Message.SUCCESS, rank,
+                        String.format("Rank %d of %d (%.1f percentile)",
+                                rank.getRank(), rank.getTotalRanked(), rank.getPercentile())));
             } else {
-                sendErrorMessage("Failed to retrieve result");
+                sendErrorMessage("Not on the leaderboard");
             }
 
         } catch (Exception e) {
-            sendErrorMessage("Failed to get result: " + e.getMessage());
+            sendErrorMessage("Failed to get rank: " + e.getMessage());
         }
     }
 
@@ -242,7 +548,7 @@ public class ClientHandler implements Runnable {
      * Handle client disconnect
      */
     private void handleDisconnect() {
-        System.out.println("[ClientHandler] Disconnect request from: " + studentId);
+        LOG.info("Disconnect request from: %s", studentId);
         disconnect();
     }
 
@@ -250,25 +556,131 @@ public class ClientHandler implements Runnable {
      * Send message to client
      * Thread-safe method
      */
-    public synchronized void sendMessage(Message message) {
+    public void sendMessage(Message message) {
+        tagResponse(message);
+        writeLock.lock();
+        writeStartedNanos = System.nanoTime();
         try {
-            if (output != null) {
+            if (frameOutput != null) {
+                wireFormat.writeFrame(frameOutput, message);
+            } else if (output != null) {
                 output.writeObject(message);
                 output.flush();
             }
+            if (!isPush(message)) {
+                responseFlushed();
+            }
         } catch (IOException e) {
             System.err.println("[ClientHandler] Error sending message to " + studentId + ": " + e.getMessage());
+        } finally {
+            writeStartedNanos = 0;
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Send an already encoded frame to a framed client
+     * response: true if it answers a request (ends its timing), false for a push
+     */
+    protected void sendFrame(byte[] frame, boolean response) {
+        writeLock.lock();
+        writeStartedNanos = System.nanoTime();
+        try {
+            if (frameOutput != null) {
+                frameOutput.write(frame);
+                frameOutput.flush();
+            }
+            if (response) {
+                responseFlushed();
+            }
+        } catch (IOException e) {
+            System.err.println("[ClientHandler] Error sending message to " + studentId + ": " + e.getMessage());
+        } finally {
+            writeStartedNanos = 0;
+            writeLock.unlock();
         }
     }
 
+    /**
+     * True if a socket write has been blocked for longer than timeoutNanos
+     */
+    boolean isWriteStalled(long nowNanos, long timeoutNanos) {
+        long started = writeStartedNanos;
+        return started != 0 && nowNanos - started > timeoutNanos;
+    }
+
+    /**
+     * Drop the connection without flushing: the socket is closed first, so a
+     * write blocked on it fails instead of the stream close waiting behind it
+     */
+    void abort() {
+        if (clientSocket != null) {
+            try {
+                clientSocket.close();
+            } catch (IOException e) {
+                // Disconnecting anyway
+            }
+        }
+        disconnect();
+    }
+
     /**
      * Send error message to client
      */
     private void sendErrorMessage(String errorMsg) {
+        String type = timedType;
+        if (type != null) {
+            METRICS.counter("quiz_message_errors_total", "Requests answered with ERROR, by message type",
+                    "type", type).increment();
+        }
         Message errorMessage = new Message(Message.ERROR, null, errorMsg);
         sendMessage(errorMessage);
     }
 
+    /**
+     * Server-initiated messages, sent outside any request/response exchange
+     */
+    protected static boolean isPush(Message message) {
+        switch (message.getType()) {
+            case Message.BROADCAST:
+            case Message.END_QUIZ:
+            case Message.START_QUIZ:
+            case Message.EXAM_PAYLOAD:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Copy the current request's correlation ID into its response
+     */
+    protected void tagResponse(Message message) {
+        if (correlationId != 0 && !isPush(message)) {
+            message.setCorrelationId(correlationId);
+        }
+    }
+
+    /**
+     * The scheduled exam started this waiting student's session
+     */
+    void examStarted(long startTime) {
+        this.quizStartTime = startTime;
+    }
+
+    /**
+     * The response to the request being timed has been written out
+     */
+    protected void responseFlushed() {
+        String type = timedType;
+        if (type != null) {
+            timedType = null;
+            METRICS.histogram("quiz_request_duration_seconds",
+                    "Time from reading a request to flushing its response, by message type",
+                    "type", type).observeSince(timedStartNanos);
+        }
+    }
+
     /**
      * Disconnect and cleanup resources
      */
@@ -282,30 +694,53 @@ public class ClientHandler implements Runnable {
         try {
             // Unregister from server
             if (studentId != null) {
-                server.unregisterClient(studentId);
-            }
-
-            // Close streams
-            if (output != null) {
-                output.close();
-            }
-            if (input != null) {
-                input.close();
+                server.unregisterClient(studentId, this);
             }
 
-            // Close socket
-            if (clientSocket != null && !clientSocket.isClosed()) {
-                clientSocket.close();
-            }
+            closeTransport();
 
-            System.out.println("[ClientHandler] Client disconnected and cleaned up: " +
-                    (studentId != null ? studentId : "unknown"));
+            LOG.info("Client disconnected and cleaned up: %s", studentId != null ? studentId : "unknown");
 
         } catch (IOException e) {
             System.err.println("[ClientHandler] Error during disconnect: " + e.getMessage());
         }
     }
 
+    /**
+     * Close the underlying streams and socket
+     */
+    protected void closeTransport() throws IOException {
+        // Close streams
+        if (output != null) {
+            output.close();
+        }
+        if (input != null) {
+            input.close();
+        }
+        if (frameOutput != null) {
+            frameOutput.close();
+        }
+        if (frameInput != null) {
+            frameInput.close();
+        }
+
+        // Close socket
+        if (clientSocket != null && !clientSocket.isClosed()) {
+            clientSocket.close();
+        }
+    }
+
+    /**
+     * Get the wire format negotiated for this connection
+     */
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    protected void setWireFormat(WireFormat wireFormat) {
+        this.wireFormat = wireFormat;
+    }
+
     /**
      * Get student ID
      */
@@ -319,4 +754,54 @@ public class ClientHandler implements Runnable {
     public boolean isConnected() {
         return isConnected;
     }
+
+    /**
+     * Counts bytes read from a blocking client socket
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                BYTES_RECEIVED.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                BYTES_RECEIVED.add(read);
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Counts bytes written to a blocking client socket
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            BYTES_SENT.increment();
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            BYTES_SENT.add(length);
+        }
+    }
 }
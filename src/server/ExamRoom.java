@@ -0,0 +1,193 @@
+package server;
+
+import models.Message;
+import utils.ExamPayload;
+import utils.Logger;
+import utils.QuizEvaluator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ExamRoom Class
+ * Scheduled exam start: a waiting room that releases every student at once
+ * - While an exam is scheduled, CONNECT authenticates the student and issues
+ *   the resume token, but does not start the session (or its time limit)
+ * - The redacted questions are pushed encrypted (EXAM_PAYLOAD) right away,
+ *   so the payload is spread over the warm-up period instead of the start second
+ * - At the start time every waiting session is started with one shared start
+ *   timestamp (so one deadline), and one START_QUIZ broadcast carries the key
+ *   that opens the payload; clients begin without a GET_QUESTIONS round trip
+ * - Joins take a shared lock, the start takes it exclusively, so a student
+ *   is either released by the start or connects normally after it
+ */
+public class ExamRoom {
+
+    private static final Logger LOG = Logger.get("ExamRoom");
+
+    private final QuizServer server;
+    private final ReentrantReadWriteLock joinLock = new ReentrantReadWriteLock();
+    private final ReentrantLock scheduleLock = new ReentrantLock();
+    private final Map<String, Waiting> waiting = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService starter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "exam-start");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean open; // an exam is scheduled and has not started
+    private volatile long startAt;
+    private volatile String key;
+    private volatile String sealedPayload;
+    private ScheduledFuture<?> startTask;
+
+    public ExamRoom(QuizServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Open the waiting room and start the exam after the delay
+     * Rescheduling an exam that has not started keeps the students already waiting
+     */
+    public void schedule(long delayMillis) throws IOException {
+        scheduleLock.lock();
+        try {
+            if (startTask != null) {
+                startTask.cancel(false);
+            }
+            if (!open) {
+                String newKey = ExamPayload.newKey();
+                sealedPayload = ExamPayload.seal(server.getQuestionPayloadCache().get().getQuestions(), newKey);
+                key = newKey;
+            }
+            startAt = System.currentTimeMillis() + delayMillis;
+            open = true;
+            startTask = starter.schedule(this::start, delayMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            scheduleLock.unlock();
+        }
+        LOG.info("Exam scheduled to start in %d seconds", TimeUnit.MILLISECONDS.toSeconds(delayMillis));
+    }
+
+    /**
+     * Start the scheduled exam now
+     */
+    public void startNow() {
+        scheduleLock.lock();
+        try {
+            if (startTask != null) {
+                startTask.cancel(false);
+            }
+        } finally {
+            scheduleLock.unlock();
+        }
+        start();
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public long getStartAt() {
+        return startAt;
+    }
+
+    public int getWaitingCount() {
+        return waiting.size();
+    }
+
+    /**
+     * Whether this student is in the waiting room
+     */
+    public boolean isWaiting(String studentId) {
+        return open && waiting.containsKey(studentId);
+    }
+
+    /**
+     * Put a connecting student in the waiting room
+     * Returns false if no exam is waiting to start (connect normally)
+     */
+    public boolean join(ClientHandler handler, String studentId, String studentName, String token) {
+        joinLock.readLock().lock();
+        try {
+            if (!open) {
+                return false;
+            }
+            waiting.put(studentId, new Waiting(handler, studentName, token));
+            return true;
+        } finally {
+            joinLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a disconnected student, unless a newer connection has taken its place
+     */
+    public void leave(String studentId, ClientHandler handler) {
+        Waiting entry = waiting.get(studentId);
+        if (entry != null && entry.handler == handler) {
+            waiting.remove(studentId, entry);
+        }
+    }
+
+    /**
+     * The sealed question payload pushed to waiting students
+     */
+    public Message payloadMessage() {
+        return new Message(Message.EXAM_PAYLOAD, sealedPayload, "Exam questions (sealed until the start)");
+    }
+
+    private void start() {
+        List<Map.Entry<String, Waiting>> released;
+        String examKey;
+        joinLock.writeLock().lock();
+        try {
+            if (!open) {
+                return;
+            }
+            open = false;
+            examKey = key;
+            released = new ArrayList<>(waiting.entrySet());
+            waiting.clear();
+        } finally {
+            joinLock.writeLock().unlock();
+        }
+
+        // Start every session before the broadcast, so no answer can beat its session;
+        // all of them get the same start time however long the loop takes
+        QuizEvaluator evaluator = server.getQuizEvaluator();
+        long startTime = System.currentTimeMillis();
+        for (Map.Entry<String, Waiting> entry : released) {
+            Waiting student = entry.getValue();
+            evaluator.initializeQuizSession(entry.getKey(), student.studentName, student.token, startTime);
+            student.handler.examStarted(startTime);
+        }
+        server.broadcastMessage(new Message(Message.START_QUIZ, examKey, "The exam has started!"));
+        LOG.info("Exam started for %d waiting students", released.size());
+    }
+
+    public void shutdown() {
+        starter.shutdownNow();
+    }
+
+    private static final class Waiting {
+        final ClientHandler handler;
+        final String studentName;
+        final String token;
+
+        Waiting(ClientHandler handler, String studentName, String token) {
+            this.handler = handler;
+            this.studentName = studentName;
+            this.token = token;
+        }
+    }
+}
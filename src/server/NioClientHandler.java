@@ -0,0 +1,253 @@
+package server;
+
+import models.Message;
+import utils.BinaryProtocol;
+import utils.Logger;
+import utils.MessageFraming;
+import utils.WireFormat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * NioClientHandler Class
+ * ClientHandler variant driven by a NioServer event loop instead of its own thread
+ * - Detects serialized or binary framing from the first bytes of the connection
+ * - Accumulates bytes from the channel and splits them into frames
+ * - Dispatches each decoded Message to the shared message handling
+ * - Queues outgoing frames and writes them when the channel is writable
+ */
+public class NioClientHandler extends ClientHandler {
+
+    private static final Logger LOG = Logger.get("NioClientHandler");
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    private final SocketChannel channel;
+    private final NioServer.EventLoop eventLoop;
+    private final Queue<ByteBuffer> writeQueue;
+
+    private SelectionKey selectionKey;
+    private ByteBuffer readBuffer;
+    private boolean wireFormatDetected;
+    private volatile ByteBuffer timedResponse; // response to the request being timed
+
+    public NioClientHandler(SocketChannel channel, QuizServer server, NioServer.EventLoop eventLoop) {
+        super(server);
+        this.channel = channel;
+        this.eventLoop = eventLoop;
+        this.writeQueue = new ConcurrentLinkedQueue<>();
+        this.readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    void setSelectionKey(SelectionKey selectionKey) {
+        this.selectionKey = selectionKey;
+    }
+
+    /**
+     * Called by the event loop when the channel has data to read
+     */
+    void onReadable() {
+        try {
+            int read = channel.read(readBuffer);
+            if (read < 0) {
+                LOG.info("Client disconnected: %s", getStudentId());
+                disconnect();
+                return;
+            }
+            BYTES_RECEIVED.add(read);
+            processFrames();
+        } catch (IOException e) {
+            if (isConnected()) {
+                System.err.println("[NioClientHandler] Error reading from client: " + e.getMessage());
+            }
+            disconnect();
+        }
+    }
+
+    /**
+     * Decode every complete frame currently buffered
+     */
+    private void processFrames() throws IOException {
+        readBuffer.flip();
+        if (!wireFormatDetected && !detectWireFormat()) {
+            readBuffer.compact();
+            return;
+        }
+        int partialFrameSize = 0;
+        while (isConnected() && readBuffer.remaining() >= MessageFraming.HEADER_SIZE) {
+            int length = readBuffer.getInt(readBuffer.position());
+            MessageFraming.checkFrameLength(length);
+
+            if (readBuffer.remaining() < MessageFraming.HEADER_SIZE + length) {
+                partialFrameSize = MessageFraming.HEADER_SIZE + length;
+                break;
+            }
+
+            readBuffer.position(readBuffer.position() + MessageFraming.HEADER_SIZE);
+            Message message = getWireFormat().decodePayload(readBuffer.array(),
+                    readBuffer.arrayOffset() + readBuffer.position(), length);
+            readBuffer.position(readBuffer.position() + length);
+
+            handleMessage(message);
+        }
+        readBuffer.compact();
+        resizeReadBuffer(partialFrameSize);
+    }
+
+    /**
+     * Inspect the first bytes of the connection and answer a binary hello.
+     * Returns false while more bytes are needed.
+     */
+    private boolean detectWireFormat() throws IOException {
+        if (!readBuffer.hasRemaining()) {
+            return false;
+        }
+        int firstByte = readBuffer.get(readBuffer.position()) & 0xFF;
+
+        if (BinaryProtocol.isHelloStart(firstByte)) {
+            if (readBuffer.remaining() < BinaryProtocol.HELLO_SIZE) {
+                return false;
+            }
+            byte[] hello = new byte[BinaryProtocol.HELLO_SIZE];
+            readBuffer.get(hello);
+            int version = BinaryProtocol.negotiate(BinaryProtocol.parseHello(hello));
+            setWireFormat(WireFormat.BINARY);
+            writeQueue.add(ByteBuffer.wrap(BinaryProtocol.hello(version)));
+            flush();
+        } else if (firstByte == OBJECT_STREAM_MAGIC_FIRST_BYTE) {
+            throw new IOException("Object stream clients are not supported in NIO mode");
+        } else {
+            setWireFormat(WireFormat.SERIALIZED_FRAMES);
+        }
+
+        wireFormatDetected = true;
+        return true;
+    }
+
+    /**
+     * Size the read buffer (in write mode) for the frame being received.
+     * It doubles only once the buffered bytes fill it, so a header alone never
+     * allocates the claimed length, and drops back to the default size once the
+     * large frame has been dispatched and what is left fits again.
+     */
+    private void resizeReadBuffer(int partialFrameSize) {
+        int capacity = readBuffer.capacity();
+        if (partialFrameSize > capacity && !readBuffer.hasRemaining()) {
+            replaceReadBuffer((int) Math.min(partialFrameSize, capacity * 2L));
+        } else if (capacity > INITIAL_BUFFER_SIZE && partialFrameSize <= INITIAL_BUFFER_SIZE
+                && readBuffer.position() <= INITIAL_BUFFER_SIZE) {
+            replaceReadBuffer(INITIAL_BUFFER_SIZE);
+        }
+    }
+
+    private void replaceReadBuffer(int capacity) {
+        ByteBuffer replacement = ByteBuffer.allocate(capacity);
+        readBuffer.flip();
+        replacement.put(readBuffer);
+        readBuffer = replacement;
+    }
+
+    /**
+     * Called by the event loop when the channel can accept more bytes
+     */
+    void onWritable() {
+        flush();
+    }
+
+    /**
+     * Queue a message for this client; safe to call from any thread
+     */
+    @Override
+    public void sendMessage(Message message) {
+        tagResponse(message);
+        try {
+            queueFrame(getWireFormat().encodeFrame(message), !isPush(message));
+        } catch (IOException e) {
+            System.err.println("[NioClientHandler] Error encoding message for " + getStudentId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queue an already encoded frame; the array is shared, never modified
+     */
+    @Override
+    protected void sendFrame(byte[] frame, boolean response) {
+        queueFrame(frame, response);
+    }
+
+    private void queueFrame(byte[] frame, boolean response) {
+        if (!isConnected()) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(frame).asReadOnlyBuffer();
+        if (response) {
+            timedResponse = buffer;
+        }
+        writeQueue.add(buffer);
+        if (eventLoop.inEventLoop()) {
+            flush();
+        } else {
+            eventLoop.execute(this::flush);
+        }
+    }
+
+    /**
+     * Write as much of the queue as the socket accepts, then wait for OP_WRITE
+     */
+    private void flush() {
+        if (selectionKey == null || !selectionKey.isValid()) {
+            return;
+        }
+        try {
+            ByteBuffer buffer;
+            while ((buffer = writeQueue.peek()) != null) {
+                BYTES_SENT.add(channel.write(buffer));
+                if (buffer.hasRemaining()) {
+                    selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+                writeQueue.poll();
+                if (buffer == timedResponse) {
+                    timedResponse = null;
+                    responseFlushed();
+                }
+            }
+            selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            System.err.println("[NioClientHandler] Error sending message to " + getStudentId() + ": " + e.getMessage());
+            disconnect();
+        }
+    }
+
+    /**
+     * Never block the event loop: resume the callback on it when the future completes
+     */
+    @Override
+    protected <T> void whenComplete(CompletableFuture<T> future, BiConsumer<T, Throwable> callback) {
+        future.whenComplete((value, error) -> eventLoop.execute(() -> callback.accept(value,
+                error instanceof CompletionException && error.getCause() != null ? error.getCause() : error)));
+    }
+
+    /**
+     * Close the channel and drop any unsent frames
+     */
+    @Override
+    protected void closeTransport() throws IOException {
+        writeQueue.clear();
+        if (selectionKey != null) {
+            selectionKey.cancel();
+        }
+        channel.close();
+    }
+}
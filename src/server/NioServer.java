@@ -0,0 +1,228 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * NioServer Class
+ * Non-blocking alternative to the thread-per-client accept loop
+ * - Accepts connections on a ServerSocketChannel with its own Selector
+ * - Hands each connection to one of a small, fixed set of event loops
+ * - Each event loop owns a Selector and reads/writes frames for its clients
+ * - Decoded messages are dispatched to the regular ClientHandler logic
+ */
+public class NioServer {
+
+    private final QuizServer server;
+    private final int port;
+    private final int acceptBacklog;
+    private final EventLoop[] eventLoops;
+
+    private ServerSocketChannel serverChannel;
+    private Selector acceptSelector;
+    private int nextLoop;
+    private volatile boolean running;
+
+    public NioServer(QuizServer server, int port, int eventLoopCount, int acceptBacklog) {
+        this.server = server;
+        this.port = port;
+        this.acceptBacklog = acceptBacklog;
+        this.eventLoops = new EventLoop[Math.max(1, eventLoopCount)];
+    }
+
+    /**
+     * Open the listening channel and start the event loop threads
+     */
+    public void bind() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(new InetSocketAddress(port), acceptBacklog);
+
+        acceptSelector = Selector.open();
+        serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+        for (int i = 0; i < eventLoops.length; i++) {
+            eventLoops[i] = new EventLoop(i);
+            eventLoops[i].start();
+        }
+        System.out.println("[NioServer] Started " + eventLoops.length + " event loop thread(s)");
+    }
+
+    /**
+     * Accept loop - runs on the caller's thread until close() is called
+     */
+    public void run() {
+        while (running) {
+            try {
+                acceptSelector.select();
+
+                Iterator<SelectionKey> keys = acceptSelector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (key.isValid() && key.isAcceptable()) {
+                        accept();
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("[NioServer] Error accepting connection: " + e.getMessage());
+                }
+            }
+        }
+        System.out.println("[NioServer] Stopped accepting connections.");
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+
+            InetSocketAddress remote = (InetSocketAddress) channel.getRemoteAddress();
+            server.onConnectionAccepted(remote.getAddress().getHostAddress(), remote.getPort());
+
+            // Round-robin connections across the event loops
+            EventLoop loop = eventLoops[nextLoop];
+            nextLoop = (nextLoop + 1) % eventLoops.length;
+            loop.register(new NioClientHandler(channel, server, loop));
+        }
+    }
+
+    /**
+     * Stop the acceptor and all event loops
+     */
+    public void close() {
+        running = false;
+        try {
+            if (acceptSelector != null) {
+                acceptSelector.close();
+            }
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("[NioServer] Error closing server channel: " + e.getMessage());
+        }
+        for (EventLoop loop : eventLoops) {
+            if (loop != null) {
+                loop.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Event loop thread - owns one Selector and all I/O for its connections
+     */
+    static final class EventLoop implements Runnable {
+
+        private final Selector selector;
+        private final Queue<Runnable> tasks;
+        private final Thread thread;
+        private volatile boolean active;
+
+        EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.tasks = new ConcurrentLinkedQueue<>();
+            this.thread = new Thread(this, "nio-event-loop-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            active = true;
+            thread.start();
+        }
+
+        void shutdown() {
+            active = false;
+            selector.wakeup();
+        }
+
+        boolean inEventLoop() {
+            return Thread.currentThread() == thread;
+        }
+
+        /**
+         * Run a task on this loop's thread
+         */
+        void execute(Runnable task) {
+            tasks.add(task);
+            if (!inEventLoop()) {
+                selector.wakeup();
+            }
+        }
+
+        void register(NioClientHandler handler) {
+            execute(() -> {
+                try {
+                    SelectionKey key = handler.getChannel().register(selector, SelectionKey.OP_READ, handler);
+                    handler.setSelectionKey(key);
+                } catch (IOException e) {
+                    System.err.println("[NioServer] Error registering channel: " + e.getMessage());
+                    handler.disconnect();
+                }
+            });
+        }
+
+        @Override
+        public void run() {
+            while (active) {
+                try {
+                    selector.select();
+                    runTasks();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+
+                        NioClientHandler handler = (NioClientHandler) key.attachment();
+                        if (key.isValid() && key.isReadable()) {
+                            handler.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            handler.onWritable();
+                        }
+                    }
+
+                    // Tasks queued from this thread while handling keys did not wake the selector
+                    runTasks();
+                } catch (ClosedSelectorException e) {
+                    break;
+                } catch (IOException e) {
+                    System.err.println("[NioServer] Event loop error: " + e.getMessage());
+                } catch (RuntimeException e) {
+                    System.err.println("[NioServer] Unexpected error in event loop: " + e);
+                }
+            }
+
+            // Close whatever is still registered with this loop
+            for (SelectionKey key : selector.keys()) {
+                Object attachment = key.attachment();
+                if (attachment instanceof NioClientHandler) {
+                    ((NioClientHandler) attachment).disconnect();
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("[NioServer] Error closing selector: " + e.getMessage());
+            }
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
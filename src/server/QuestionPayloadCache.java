@@ -0,0 +1,201 @@
+package server;
+
+import models.Message;
+import models.Question;
+import models.QuestionPage;
+import utils.DataPersistence;
+import utils.QuestionBank;
+import utils.WireFormat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * QuestionPayloadCache Class
+ * Shares the redacted question payload per question bank version
+ * - Snapshots the bank when DataPersistence reports a new question bank version
+ *   (every saveQuestions() and every load, including QuizEvaluator.reloadQuestions())
+ * - Redacts the full list and encodes the GET_QUESTIONS frames only on first use,
+ *   then once per version instead of per request
+ * - Serves GET_QUESTION_PAGE windows straight from the bank snapshot: a page redacts
+ *   and encodes only its own questions, so paging never builds the full list
+ */
+public class QuestionPayloadCache {
+
+    static final String RESPONSE_TEXT = "Questions retrieved successfully";
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 200;
+
+    private final DataPersistence dataPersistence;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Payload current;
+
+    public QuestionPayloadCache(DataPersistence dataPersistence) {
+        this.dataPersistence = dataPersistence;
+    }
+
+    /**
+     * Get the payload for the current question bank, replacing it if stale
+     */
+    public Payload get() {
+        Payload payload = current;
+        QuestionBank bank = dataPersistence.getQuestionBank();
+        if (payload != null && payload.version >= bank.getVersion()) {
+            return payload;
+        }
+
+        rebuildLock.lock();
+        try {
+            payload = current;
+            if (payload == null || payload.version < bank.getVersion()) {
+                payload = new Payload(bank.getVersion(), bank.getQuestions());
+                current = payload;
+            }
+            return payload;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * One question bank version; the redacted list and its encoded frames are
+     * built on first use and then shared
+     */
+    public static final class Payload {
+
+        private final long version;
+        private final List<Question> source;
+        private final ReentrantLock buildLock = new ReentrantLock();
+        private volatile List<Question> questions;
+        private volatile byte[] serializedFrame;
+        private volatile byte[] binaryFrame;
+
+        private Payload(long version, List<Question> source) {
+            this.version = version;
+            this.source = source;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Number of questions in this version
+         */
+        public int size() {
+            return source.size();
+        }
+
+        /**
+         * Redacted questions, shared by every request for this version
+         */
+        public List<Question> getQuestions() {
+            List<Question> redacted = questions;
+            if (redacted == null) {
+                buildLock.lock();
+                try {
+                    redacted = questions;
+                    if (redacted == null) {
+                        redacted = Collections.unmodifiableList(redact(source));
+                        questions = redacted;
+                        System.out.println("[QuestionPayloadCache] Built question payload for version " + version +
+                                " (" + redacted.size() + " questions)");
+                    }
+                } finally {
+                    buildLock.unlock();
+                }
+            }
+            return redacted;
+        }
+
+        /**
+         * The window a GET_QUESTION_PAGE request asks for: Integer data (the page
+         * size) or null starts at the first question, a cursor from an earlier
+         * page continues after it
+         * Cursors are "version:offset:size"; one from an older question bank is refused
+         */
+        public QuestionPage page(Object request) throws IOException {
+            int offset = 0;
+            int size = DEFAULT_PAGE_SIZE;
+            if (request instanceof Integer) {
+                size = (Integer) request;
+            } else if (request instanceof String) {
+                String[] parts = ((String) request).split(":");
+                try {
+                    if (parts.length != 3) {
+                        throw new NumberFormatException();
+                    }
+                    if (Long.parseLong(parts[0]) != version) {
+                        throw new IOException("The question bank has changed; start again from the first page");
+                    }
+                    offset = Integer.parseInt(parts[1]);
+                    size = Integer.parseInt(parts[2]);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid page cursor: " + request);
+                }
+            } else if (request != null) {
+                throw new IOException("Invalid page request");
+            }
+            if (size <= 0) {
+                size = DEFAULT_PAGE_SIZE;
+            }
+            size = Math.min(size, MAX_PAGE_SIZE);
+            offset = Math.max(0, Math.min(offset, source.size()));
+
+            int end = Math.min(offset + size, source.size());
+            String nextCursor = end < source.size() ? version + ":" + end + ":" + size : null;
+            return new QuestionPage(redact(source.subList(offset, end)), offset, source.size(), nextCursor);
+        }
+
+        /**
+         * Pre-encoded SUCCESS frame for a framed wire format, encoded on first use
+         */
+        public byte[] getFrame(WireFormat format) throws IOException {
+            if (!format.isFramed()) {
+                throw new IllegalArgumentException(format + " has no pre-encoded frame");
+            }
+            byte[] frame = format == WireFormat.BINARY ? binaryFrame : serializedFrame;
+            if (frame != null) {
+                return frame;
+            }
+            buildLock.lock();
+            try {
+                frame = format == WireFormat.BINARY ? binaryFrame : serializedFrame;
+                if (frame == null) {
+                    // Frames carry a mutable ArrayList so decoded lists behave like before
+                    Message response = new Message(Message.SUCCESS, new ArrayList<>(getQuestions()), RESPONSE_TEXT);
+                    frame = format.encodeFrame(response);
+                    if (format == WireFormat.BINARY) {
+                        binaryFrame = frame;
+                    } else {
+                        serializedFrame = frame;
+                    }
+                }
+                return frame;
+            } finally {
+                buildLock.unlock();
+            }
+        }
+
+        /**
+         * Copy questions without their correct answers (for security), into a
+         * mutable list like the ones clients decode
+         */
+        private static List<Question> redact(List<Question> source) {
+            List<Question> clientQuestions = new ArrayList<>(source.size());
+            for (Question q : source) {
+                clientQuestions.add(new Question(
+                        q.getQuestionId(),
+                        q.getQuestionText(),
+                        q.getOptions(),
+                        -1, // Hide correct answer from client
+                        q.getCategory(),
+                        q.getPoints()));
+            }
+            return clientQuestions;
+        }
+    }
+}
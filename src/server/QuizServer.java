@@ -1,13 +1,21 @@
 package server;
 
 import models.*;
+import utils.AttemptHistory;
 import utils.DataPersistence;
+import utils.ExpiryAction;
+import utils.Logger;
+import utils.MessageFraming;
+import utils.MetricsRegistry;
 import utils.QuizEvaluator;
 
 import java.io.*;
 import java.net.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -19,29 +27,58 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * - Accepts incoming connections and creates ClientHandler threads
  * - Manages connected clients
  * - Provides server control (start/stop)
+ * - Runs in BLOCKING (thread per client), VIRTUAL (virtual thread per client)
+ *   or NIO (event loop) mode
  */
 public class QuizServer {
 
     private static final int DEFAULT_PORT = 8888;
+    private static final int DEFAULT_ACCEPT_BACKLOG = 1024; // ServerSocket's default of 50 overflows when an exam starts
+    private static final Logger LOG = Logger.get("QuizServer");
     private int port;
+    private ServerMode mode;
+    private int eventLoopCount;
     private ServerSocket serverSocket;
+    private NioServer nioServer;
+    private ExecutorService clientExecutor;
+    private BroadcastEngine broadcastEngine;
     private AtomicBoolean isRunning;
 
     // Thread-safe data structures
     private Map<String, ClientHandler> connectedClients;
     private DataPersistence dataPersistence;
     private QuizEvaluator quizEvaluator;
+    private QuestionPayloadCache questionPayloadCache;
+    private final ExamRoom examRoom;
+    private int acceptBacklog = DEFAULT_ACCEPT_BACKLOG;
 
     // Server statistics
-    private int totalConnections;
+    private final MetricsRegistry.Counter totalConnections = MetricsRegistry.getInstance().counter(
+            "quiz_connections_total", "Client connections accepted");
+    private MetricsEndpoint metricsEndpoint;
 
     public QuizServer(int port) {
+        this(port, ServerMode.BLOCKING, Runtime.getRuntime().availableProcessors());
+    }
+
+    public QuizServer(int port, ServerMode mode, int eventLoopCount) {
+        this(port, mode, eventLoopCount, new BroadcastEngine(256, SlowConsumerPolicy.DROP, 2));
+    }
+
+    public QuizServer(int port, ServerMode mode, int eventLoopCount, BroadcastEngine broadcastEngine) {
         this.port = port;
+        this.mode = mode;
+        this.eventLoopCount = eventLoopCount;
+        this.broadcastEngine = broadcastEngine;
         this.isRunning = new AtomicBoolean(false);
         this.connectedClients = new ConcurrentHashMap<>();
         this.dataPersistence = DataPersistence.getInstance();
         this.quizEvaluator = QuizEvaluator.getInstance();
-        this.totalConnections = 0;
+        this.questionPayloadCache = new QuestionPayloadCache(dataPersistence);
+        this.examRoom = new ExamRoom(this);
+        MetricsRegistry.getInstance().gauge("quiz_connected_clients", "Students currently connected",
+                connectedClients::size);
+        this.quizEvaluator.setTimeUpListener(this::onQuizTimeUp);
     }
 
     /**
@@ -53,17 +90,20 @@ public class QuizServer {
             return;
         }
 
+        if (mode == ServerMode.NIO) {
+            startNio();
+            return;
+        }
+
         try {
             // Create ServerSocket - Core of Member 1's implementation
-            serverSocket = new ServerSocket(port);
+            serverSocket = new ServerSocket(port, acceptBacklog);
+            if (mode == ServerMode.VIRTUAL) {
+                clientExecutor = newVirtualThreadExecutor();
+            }
             isRunning.set(true);
 
-            System.out.println("╔════════════════════════════════════════════════╗");
-            System.out.println("║     QuizMaster Connect Server Started          ║");
-            System.out.println("╚════════════════════════════════════════════════╝");
-            System.out.println("Server is listening on port: " + port);
-            System.out.println("Server IP: " + InetAddress.getLocalHost().getHostAddress());
-            System.out.println("Waiting for student connections...\n");
+            printStartupBanner();
 
             // Load questions
             dataPersistence.loadQuestions();
@@ -73,19 +113,16 @@ public class QuizServer {
                 try {
                     // Accept incoming connection - Blocking call
                     Socket clientSocket = serverSocket.accept();
-                    totalConnections++;
-
-                    // Log connection details
-                    String clientIP = clientSocket.getInetAddress().getHostAddress();
-                    int clientPort = clientSocket.getPort();
-
-                    System.out.println(String.format("[QuizServer] New connection #%d from %s:%d",
-                            totalConnections, clientIP, clientPort));
+                    onConnectionAccepted(clientSocket.getInetAddress().getHostAddress(), clientSocket.getPort());
 
                     // Create ClientHandler thread for this client (Member 2)
                     ClientHandler clientHandler = new ClientHandler(clientSocket, this);
-                    Thread clientThread = new Thread(clientHandler);
-                    clientThread.start();
+                    if (clientExecutor != null) {
+                        clientExecutor.execute(clientHandler);
+                    } else {
+                        Thread clientThread = new Thread(clientHandler);
+                        clientThread.start();
+                    }
 
                 } catch (SocketException e) {
                     if (!isRunning.get()) {
@@ -106,6 +143,76 @@ public class QuizServer {
         }
     }
 
+    /**
+     * Start the server in NIO mode - event loops instead of a thread per client
+     */
+    private void startNio() {
+        try {
+            nioServer = new NioServer(this, port, eventLoopCount, acceptBacklog);
+            nioServer.bind();
+            isRunning.set(true);
+
+            printStartupBanner();
+
+            // Load questions
+            dataPersistence.loadQuestions();
+
+            // Accept loop runs until stop() closes the channel
+            nioServer.run();
+
+        } catch (IOException e) {
+            System.err.println("[QuizServer] Error starting NIO server: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Create a virtual-thread-per-task executor.
+     * Looked up reflectively so the sources still compile on JDKs older than 21;
+     * on those runtimes the server falls back to a cached platform thread pool.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.err.println("[QuizServer] Virtual threads require JDK 21+; using platform threads instead.");
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void printStartupBanner() throws UnknownHostException {
+        System.out.println("╔════════════════════════════════════════════════╗");
+        System.out.println("║     QuizMaster Connect Server Started          ║");
+        System.out.println("╚════════════════════════════════════════════════╝");
+        System.out.println("Server is listening on port: " + port);
+        System.out.println("Server mode: " + mode);
+        System.out.println("Server IP: " + InetAddress.getLocalHost().getHostAddress());
+        System.out.println("Waiting for student connections...\n");
+    }
+
+    /**
+     * Record and log a newly accepted connection
+     */
+    void onConnectionAccepted(String clientIP, int clientPort) {
+        totalConnections.increment();
+
+        LOG.info("New connection #%d from %s:%d", totalConnections.get(), clientIP, clientPort);
+    }
+
+    /**
+     * Serve Prometheus metrics on a loopback port
+     */
+    public void startMetricsEndpoint(int metricsPort) {
+        try {
+            metricsEndpoint = new MetricsEndpoint(metricsPort);
+            metricsEndpoint.start();
+        } catch (IOException e) {
+            metricsEndpoint = null;
+            System.err.println("[QuizServer] Could not start metrics endpoint on port " + metricsPort +
+                    ": " + e.getMessage());
+        }
+    }
+
     /**
      * Stop the quiz server
      */
@@ -124,7 +231,24 @@ public class QuizServer {
         }
         connectedClients.clear();
 
+        if (clientExecutor != null) {
+            clientExecutor.shutdownNow();
+        }
+        broadcastEngine.shutdown();
+        examRoom.shutdown();
+        if (metricsEndpoint != null) {
+            metricsEndpoint.stop();
+        }
+
+        // Write out results still waiting for the disk; snapshot sessions for a fast restart
+        quizEvaluator.shutdown();
+        dataPersistence.closeResultWriter();
+        quizEvaluator.snapshotSessions();
+
         // Close server socket
+        if (nioServer != null) {
+            nioServer.close();
+        }
         try {
             if (serverSocket != null && !serverSocket.isClosed()) {
                 serverSocket.close();
@@ -133,30 +257,50 @@ public class QuizServer {
         } catch (IOException e) {
             System.err.println("[QuizServer] Error closing server socket: " + e.getMessage());
         }
+        Logger.flush(1000);
     }
 
     /**
      * Register a connected client
      */
-    public synchronized void registerClient(String studentId, ClientHandler handler) {
-        connectedClients.put(studentId, handler);
-        System.out.println(String.format("[QuizServer] Client registered: %s (Total clients: %d)",
-                studentId, connectedClients.size()));
+    public void registerClient(String studentId, ClientHandler handler) {
+        ClientHandler previous = connectedClients.put(studentId, handler);
+        if (previous != null && previous != handler) {
+            broadcastEngine.unregister(previous);
+        }
+        broadcastEngine.register(handler);
+        LOG.info("Client registered: %s (Total clients: %d)", studentId, connectedClients.size());
     }
 
     /**
      * Unregister a disconnected client
      */
-    public synchronized void unregisterClient(String studentId) {
-        connectedClients.remove(studentId);
-        System.out.println(String.format("[QuizServer] Client unregistered: %s (Total clients: %d)",
-                studentId, connectedClients.size()));
+    public void unregisterClient(String studentId, ClientHandler handler) {
+        // A resumed session may already be registered under a newer handler
+        if (connectedClients.remove(studentId, handler)) {
+            broadcastEngine.unregister(handler);
+        }
+        examRoom.leave(studentId, handler);
+        LOG.info("Client unregistered: %s (Total clients: %d)", studentId, connectedClients.size());
+    }
+
+    /**
+     * A timed quiz ran out: push the saved result to the student, if connected
+     * Runs on the result writer thread, so the push goes through the client's
+     * broadcast queue instead of writing to the socket here
+     */
+    private void onQuizTimeUp(QuizResult result) {
+        ClientHandler handler = connectedClients.get(result.getStudentId());
+        if (handler != null) {
+            broadcastEngine.send(handler, new Message(Message.END_QUIZ, result,
+                    "Time is up! Your final score: " + result.getTotalScore() + "/" + result.getMaxScore()));
+        }
     }
 
     /**
      * Get list of connected clients
      */
-    public synchronized List<String> getConnectedClients() {
+    public List<String> getConnectedClients() {
         return new ArrayList<>(connectedClients.keySet());
     }
 
@@ -168,8 +312,13 @@ public class QuizServer {
         status.append("\n========== SERVER STATUS ==========\n");
         status.append("Status: ").append(isRunning.get() ? "RUNNING" : "STOPPED").append("\n");
         status.append("Port: ").append(port).append("\n");
-        status.append("Total Connections: ").append(totalConnections).append("\n");
+        status.append("Mode: ").append(mode).append("\n");
+        status.append("Total Connections: ").append(totalConnections.get()).append("\n");
         status.append("Active Clients: ").append(connectedClients.size()).append("\n");
+        status.append(broadcastEngine.getStats());
+        status.append(dataPersistence.getResultWriterStats());
+        status.append(quizEvaluator.getSessionExpiryStats());
+        status.append(getExamStatus()).append("\n");
 
         if (!connectedClients.isEmpty()) {
             status.append("\nConnected Students:\n");
@@ -182,14 +331,31 @@ public class QuizServer {
         return status.toString();
     }
 
+    /**
+     * One line on the scheduled exam, if any
+     */
+    public String getExamStatus() {
+        if (!examRoom.isOpen()) {
+            return "Exam: no exam scheduled";
+        }
+        long wait = Math.max(0, examRoom.getStartAt() - System.currentTimeMillis());
+        return String.format("Exam: starts in %d seconds, %d students waiting",
+                TimeUnit.MILLISECONDS.toSeconds(wait), examRoom.getWaitingCount());
+    }
+
     /**
      * Broadcast message to all connected clients
      */
-    public synchronized void broadcastMessage(Message message) {
+    public void broadcastMessage(Message message) {
         System.out.println("[QuizServer] Broadcasting message to " + connectedClients.size() + " clients");
-        for (ClientHandler client : connectedClients.values()) {
-            client.sendMessage(message);
-        }
+        broadcastEngine.broadcast(message);
+    }
+
+    /**
+     * Get the broadcast fan-out engine
+     */
+    public BroadcastEngine getBroadcastEngine() {
+        return broadcastEngine;
     }
 
     /**
@@ -206,6 +372,38 @@ public class QuizServer {
         return quizEvaluator;
     }
 
+    /**
+     * Get the shared GET_QUESTIONS payload cache
+     */
+    public QuestionPayloadCache getQuestionPayloadCache() {
+        return questionPayloadCache;
+    }
+
+    /**
+     * Open the waiting room; the exam starts the given number of seconds from now
+     */
+    public void scheduleExam(long delaySeconds) {
+        try {
+            examRoom.schedule(TimeUnit.SECONDS.toMillis(delaySeconds));
+        } catch (IOException e) {
+            System.err.println("[QuizServer] Could not schedule exam: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the waiting room for scheduled exams
+     */
+    public ExamRoom getExamRoom() {
+        return examRoom;
+    }
+
+    /**
+     * Pending-connection queue length for the listening socket (set before start)
+     */
+    public void setAcceptBacklog(int acceptBacklog) {
+        this.acceptBacklog = acceptBacklog;
+    }
+
     /**
      * Get data persistence instance
      */
@@ -218,17 +416,177 @@ public class QuizServer {
      */
     public static void main(String[] args) {
         int port = DEFAULT_PORT;
-
-        // Check if custom port is provided
-        if (args.length > 0) {
-            try {
-                port = Integer.parseInt(args[0]);
-            } catch (NumberFormatException e) {
-                System.err.println("Invalid port number. Using default port: " + DEFAULT_PORT);
+        ServerMode mode = ServerMode.BLOCKING;
+        int eventLoops = Runtime.getRuntime().availableProcessors();
+        int broadcastQueue = 256;
+        int broadcastWriters = 2;
+        long broadcastWriteTimeoutMillis = BroadcastEngine.DEFAULT_WRITE_TIMEOUT_MILLIS;
+        SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DROP;
+        int resultQueue = 1024;
+        long resultFsyncMillis = 0;
+        long sessionSnapshotSeconds = 30;
+        long sessionIdleSeconds = 30 * 60;
+        long sessionMaxSeconds = 4 * 60 * 60;
+        ExpiryAction expiryAction = ExpiryAction.FINALIZE;
+        long quizTimeLimitSeconds = 0;
+        int metricsPort = 0;
+        Logger.Level logLevel = Logger.Level.INFO;
+        int acceptBacklog = DEFAULT_ACCEPT_BACKLOG;
+        int maxFrameSize = MessageFraming.DEFAULT_MAX_FRAME_SIZE;
+        long examStartSeconds = 0;
+        boolean logAsync = true;
+
+        // Usage: QuizServer [port] [--mode=blocking|virtual|nio] [--loops=N]
+        //                   [--broadcast-queue=N] [--broadcast-writers=N] [--write-timeout=MS]
+        //                   [--slow-consumer=drop|conflate|disconnect]
+        //                   [--result-queue=N] [--result-fsync=MS] [--session-snapshot=SEC]
+        //                   [--session-idle=SEC] [--session-max=SEC] [--session-expiry=finalize|discard]
+        //                   [--quiz-time-limit=SEC] [--metrics-port=N]
+        //                   [--log-level=debug|info|warn|error|off] [--log-mode=async|sync]
+        //                   [--accept-backlog=N] [--exam-start=SEC] [--max-frame=BYTES]
+        for (String arg : args) {
+            if (arg.startsWith("--mode=")) {
+                try {
+                    mode = ServerMode.fromString(arg.substring("--mode=".length()));
+                } catch (IllegalArgumentException e) {
+                    System.err.println(e.getMessage() + ". Using mode: " + mode);
+                }
+            } else if (arg.startsWith("--loops=")) {
+                try {
+                    eventLoops = Integer.parseInt(arg.substring("--loops=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid event loop count. Using: " + eventLoops);
+                }
+            } else if (arg.startsWith("--broadcast-queue=")) {
+                try {
+                    broadcastQueue = Integer.parseInt(arg.substring("--broadcast-queue=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid broadcast queue size. Using: " + broadcastQueue);
+                }
+            } else if (arg.startsWith("--broadcast-writers=")) {
+                try {
+                    broadcastWriters = Integer.parseInt(arg.substring("--broadcast-writers=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid broadcast writer count. Using: " + broadcastWriters);
+                }
+            } else if (arg.startsWith("--write-timeout=")) {
+                try {
+                    broadcastWriteTimeoutMillis = Long.parseLong(arg.substring("--write-timeout=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid write timeout. Using: " + broadcastWriteTimeoutMillis);
+                }
+            } else if (arg.startsWith("--slow-consumer=")) {
+                try {
+                    slowConsumerPolicy = SlowConsumerPolicy.fromString(arg.substring("--slow-consumer=".length()));
+                } catch (IllegalArgumentException e) {
+                    System.err.println(e.getMessage() + ". Using policy: " + slowConsumerPolicy);
+                }
+            } else if (arg.startsWith("--result-queue=")) {
+                try {
+                    resultQueue = Integer.parseInt(arg.substring("--result-queue=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid result queue size. Using: " + resultQueue);
+                }
+            } else if (arg.startsWith("--result-fsync=")) {
+                try {
+                    resultFsyncMillis = Long.parseLong(arg.substring("--result-fsync=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid result fsync interval. Using: " + resultFsyncMillis);
+                }
+            } else if (arg.startsWith("--session-snapshot=")) {
+                try {
+                    sessionSnapshotSeconds = Long.parseLong(arg.substring("--session-snapshot=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid session snapshot interval. Using: " + sessionSnapshotSeconds);
+                }
+            } else if (arg.startsWith("--session-idle=")) {
+                try {
+                    sessionIdleSeconds = Long.parseLong(arg.substring("--session-idle=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid session idle timeout. Using: " + sessionIdleSeconds);
+                }
+            } else if (arg.startsWith("--session-max=")) {
+                try {
+                    sessionMaxSeconds = Long.parseLong(arg.substring("--session-max=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid session time limit. Using: " + sessionMaxSeconds);
+                }
+            } else if (arg.startsWith("--session-expiry=")) {
+                try {
+                    expiryAction = ExpiryAction.fromString(arg.substring("--session-expiry=".length()));
+                } catch (IllegalArgumentException e) {
+                    System.err.println(e.getMessage() + ". Using action: " + expiryAction);
+                }
+            } else if (arg.startsWith("--quiz-time-limit=")) {
+                try {
+                    quizTimeLimitSeconds = Long.parseLong(arg.substring("--quiz-time-limit=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid quiz time limit. Using: " + quizTimeLimitSeconds);
+                }
+            } else if (arg.startsWith("--metrics-port=")) {
+                try {
+                    metricsPort = Integer.parseInt(arg.substring("--metrics-port=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid metrics port. Metrics endpoint disabled.");
+                }
+            } else if (arg.startsWith("--accept-backlog=")) {
+                try {
+                    acceptBacklog = Integer.parseInt(arg.substring("--accept-backlog=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid accept backlog. Using: " + acceptBacklog);
+                }
+            } else if (arg.startsWith("--max-frame=")) {
+                try {
+                    maxFrameSize = Integer.parseInt(arg.substring("--max-frame=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid max frame size. Using: " + maxFrameSize);
+                }
+            } else if (arg.startsWith("--exam-start=")) {
+                try {
+                    examStartSeconds = Long.parseLong(arg.substring("--exam-start=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid exam start delay. No exam scheduled.");
+                }
+            } else if (arg.startsWith("--log-level=")) {
+                try {
+                    logLevel = Logger.Level.fromString(arg.substring("--log-level=".length()));
+                } catch (IllegalArgumentException e) {
+                    System.err.println(e.getMessage() + ". Using level: " + logLevel);
+                }
+            } else if (arg.startsWith("--log-mode=")) {
+                String logMode = arg.substring("--log-mode=".length());
+                if (logMode.equalsIgnoreCase("sync") || logMode.equalsIgnoreCase("async")) {
+                    logAsync = logMode.equalsIgnoreCase("async");
+                } else {
+                    System.err.println("Unknown log mode: " + logMode + ". Using: async");
+                }
+            } else {
+                // Check if custom port is provided
+                try {
+                    port = Integer.parseInt(arg);
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid port number. Using default port: " + DEFAULT_PORT);
+                }
             }
         }
 
-        final QuizServer server = new QuizServer(port);
+        Logger.configure(logLevel, logAsync);
+        DataPersistence.getInstance().configureResultWriter(resultQueue, resultFsyncMillis);
+        QuizEvaluator.configureSessionSnapshots(sessionSnapshotSeconds);
+        QuizEvaluator.configureSessionExpiry(TimeUnit.SECONDS.toMillis(sessionIdleSeconds),
+                TimeUnit.SECONDS.toMillis(sessionMaxSeconds), expiryAction);
+        QuizEvaluator.configureQuizTimeLimit(TimeUnit.SECONDS.toMillis(quizTimeLimitSeconds));
+        MessageFraming.configureMaxFrameSize(maxFrameSize);
+        final QuizServer server = new QuizServer(port, mode, eventLoops,
+                new BroadcastEngine(broadcastQueue, slowConsumerPolicy, broadcastWriters,
+                        broadcastWriteTimeoutMillis));
+        server.setAcceptBacklog(acceptBacklog);
+        if (metricsPort > 0) {
+            server.startMetricsEndpoint(metricsPort);
+        }
+        if (examStartSeconds > 0) {
+            server.scheduleExam(examStartSeconds);
+        }
 
         // Add shutdown hook
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -246,12 +604,20 @@ public class QuizServer {
             System.out.println("status  - Show server status");
             System.out.println("clients - List connected clients");
             System.out.println("stats   - Show quiz statistics");
+            System.out.println("metrics - Request latencies, bytes, lock waits and write latencies");
+            System.out.println("loglevel [level] - Show or set the log level (debug, info, warn, error, off)");
+            System.out.println("leaderboard [k] - Show the top k students (default 10)");
+            System.out.println("history [id] - Attempts and score trend of a student, or per-question results");
+            System.out.println("broadcast <text> - Send a message to all students");
+            System.out.println("exam [SEC|start] - Show the scheduled exam, schedule one SEC from now, or start it");
             System.out.println("stop    - Stop the server");
             System.out.println("=======================\n");
 
             while (server.isRunning()) {
                 System.out.print("Server> ");
-                String command = scanner.nextLine().trim().toLowerCase();
+                String[] input = scanner.nextLine().trim().split("\\s+", 2);
+                String command = input[0].toLowerCase();
+                String argument = input.length > 1 ? input[1] : "";
 
                 switch (command) {
                     case "status":
@@ -271,6 +637,69 @@ public class QuizServer {
                         System.out.println(server.getQuizEvaluator().getStatistics());
                         break;
 
+                    case "metrics":
+                        System.out.println(MetricsRegistry.getInstance().getSummary());
+                        break;
+
+                    case "loglevel":
+                        if (!argument.isEmpty()) {
+                            try {
+                                Logger.setLevel(Logger.Level.fromString(argument));
+                            } catch (IllegalArgumentException e) {
+                                System.out.println(e.getMessage());
+                            }
+                        }
+                        System.out.println("Log level: " + Logger.getLevel());
+                        break;
+
+                    case "leaderboard":
+                        int k = 10;
+                        try {
+                            if (!argument.isEmpty()) {
+                                k = Integer.parseInt(argument.trim());
+                            }
+                        } catch (NumberFormatException e) {
+                            System.out.println("Usage: leaderboard [k]");
+                            break;
+                        }
+                        System.out.println("\n=== Leaderboard ===");
+                        for (RankInfo entry : server.getQuizEvaluator().getTopStudents(k)) {
+                            System.out.println(String.format("%3d. %-20s %d points", entry.getRank(),
+                                    entry.getStudentName(), entry.getScore()));
+                        }
+                        System.out.println();
+                        break;
+
+                    case "history":
+                        printAttemptHistory(argument.trim());
+                        break;
+
+                    case "exam":
+                        if (argument.isEmpty()) {
+                            System.out.println(server.getExamStatus());
+                        } else if (argument.trim().equalsIgnoreCase("start")) {
+                            if (server.getExamRoom().isOpen()) {
+                                server.getExamRoom().startNow();
+                            } else {
+                                System.out.println("No exam scheduled.");
+                            }
+                        } else {
+                            try {
+                                server.scheduleExam(Long.parseLong(argument.trim()));
+                            } catch (NumberFormatException e) {
+                                System.out.println("Usage: exam [SEC|start]");
+                            }
+                        }
+                        break;
+
+                    case "broadcast":
+                        if (argument.isEmpty()) {
+                            System.out.println("Usage: broadcast <text>");
+                        } else {
+                            server.broadcastMessage(new Message(Message.BROADCAST, null, argument));
+                        }
+                        break;
+
                     case "stop":
                         server.stop();
                         System.exit(0);
@@ -281,6 +710,12 @@ public class QuizServer {
                         System.out.println("status  - Show server status");
                         System.out.println("clients - List connected clients");
                         System.out.println("stats   - Show quiz statistics");
+                        System.out.println("metrics - Request latencies, bytes, lock waits and write latencies");
+                        System.out.println("loglevel [level] - Show or set the log level (debug, info, warn, error, off)");
+                        System.out.println("leaderboard [k] - Show the top k students (default 10)");
+                        System.out.println("history [id] - Attempts and score trend of a student, or per-question results");
+                        System.out.println("broadcast <text> - Send a message to all students");
+                        System.out.println("exam [SEC|start] - Show the scheduled exam, schedule one SEC from now, or start it");
                         System.out.println("stop    - Stop the server");
                         System.out.println("=======================\n");
                         break;
@@ -293,4 +728,45 @@ public class QuizServer {
             }
         }
     }
+
+    /**
+     * Console view of the attempt history: one student's attempts and trend,
+     * or per-question correct rates and daily averages when no ID is given
+     */
+    private static void printAttemptHistory(String studentId) {
+        AttemptHistory history = DataPersistence.getInstance().getAttemptHistory();
+        if (history == null) {
+            System.out.println("Attempt history is unavailable.");
+            return;
+        }
+
+        if (!studentId.isEmpty()) {
+            List<QuizResult> attempts = history.getAttempts(studentId);
+            System.out.println("\n=== Attempts by " + studentId + " ===");
+            for (QuizResult attempt : attempts) {
+                System.out.println(String.format("  %tF %<tR  %d/%d (%.1f%%), %d answers",
+                        attempt.getCompletionDate(), attempt.getTotalScore(), attempt.getMaxScore(),
+                        attempt.getPercentage(), attempt.getAnswers().size()));
+            }
+            double[] trend = history.getScoreTrend(studentId);
+            if (trend.length > 1) {
+                System.out.println(String.format("Trend: %+.1f points since the first attempt",
+                        trend[trend.length - 1] - trend[0]));
+            }
+            System.out.println();
+            return;
+        }
+
+        System.out.println("\n=== Attempt History: " + history.getAttemptCount() + " attempts, " +
+                history.getAnswerCount() + " answers ===");
+        System.out.println("Question   Answered   Correct");
+        for (AttemptHistory.QuestionStats question : history.getQuestionStats().values()) {
+            System.out.println(String.format("%8d %10d %8.1f%%", question.getQuestionId(),
+                    question.getAnswered(), question.getCorrectRate()));
+        }
+        System.out.println("Daily average:");
+        history.getDailyAverages().forEach((day, average) ->
+                System.out.println(String.format("  %s %6.1f%%", day, average)));
+        System.out.println();
+    }
 }
@@ -0,0 +1,29 @@
+package server;
+
+/**
+ * ServerMode Enum
+ * Selects how QuizServer accepts and services client connections
+ */
+public enum ServerMode {
+
+    /** One platform thread per client, blocking ObjectInputStream reads */
+    BLOCKING,
+
+    /** Fixed set of Selector event loops, length-prefixed frames */
+    NIO,
+
+    /** Same protocol as BLOCKING, but each client runs on a virtual thread (JDK 21+) */
+    VIRTUAL;
+
+    /**
+     * Parse a mode name from the command line (case-insensitive)
+     */
+    public static ServerMode fromString(String value) {
+        for (ServerMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown server mode: " + value);
+    }
+}
@@ -0,0 +1,29 @@
+package server;
+
+/**
+ * SlowConsumerPolicy Enum
+ * What the BroadcastEngine does when a client's outbound queue is full
+ */
+public enum SlowConsumerPolicy {
+
+    /** Discard the new broadcast for that client */
+    DROP,
+
+    /** Keep the newest: discard the oldest pending broadcast to make room */
+    CONFLATE,
+
+    /** Disconnect the client */
+    DISCONNECT;
+
+    /**
+     * Parse a policy name from the command line (case-insensitive)
+     */
+    public static SlowConsumerPolicy fromString(String value) {
+        for (SlowConsumerPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(value)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown slow consumer policy: " + value);
+    }
+}
@@ -0,0 +1,24 @@
+package utils;
+
+/**
+ * AnswerOutcome Enum
+ * What the QuizEvaluator did with a submitted answer
+ */
+public enum AnswerOutcome {
+
+    /** Scored as correct (or a retransmission of a correct answer) */
+    CORRECT,
+
+    /** Scored as incorrect (or for a question the bank does not have) */
+    INCORRECT,
+
+    /** Not scored: the session's time limit had passed */
+    LATE,
+
+    /** Not scored: the student has no active session (finished or timed out) */
+    NO_SESSION;
+
+    public boolean isAccepted() {
+        return this == CORRECT || this == INCORRECT;
+    }
+}
@@ -0,0 +1,529 @@
+package utils;
+
+import models.Answer;
+import models.QuizResult;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * AttemptHistory Class
+ * Every quiz attempt with its answers, held column-wise for analytics
+ * - Attempt columns: student, scores and counts (int[]), completion time and time taken (long[])
+ * - Answer columns: question, selected option and correctness (int[]/byte[]), answer time (long[]);
+ *   attempt i owns answers answerStart[i] .. answerStart[i + 1] - 1
+ * - Students and questions are interned to dense slots, so per-question and
+ *   per-student aggregates are plain array loops with no boxing
+ * - attempts.dat: 8-byte header, then length-prefixed records in append order;
+ *   a torn record at the end is ignored and overwritten by the next append
+ *
+ * Readers share a read lock; appends take the write lock. Only one process appends.
+ */
+public class AttemptHistory {
+
+    private static final byte[] MAGIC = { 'Q', 'Z', 'A', 'H' };
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int INITIAL_ATTEMPTS = 1024;
+    private static final int INITIAL_ANSWERS = 8192;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final Path path;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private FileChannel channel; // opened by the first append
+    private long validLength; // end of the last complete record
+
+    // Dictionaries: dense slot -> id
+    private final Map<String, Integer> studentSlots = new HashMap<>();
+    private final List<String> studentIds = new ArrayList<>();
+    private final List<String> studentNames = new ArrayList<>();
+    private final Map<Integer, Integer> questionSlots = new HashMap<>();
+    private int[] questionIds = new int[64];
+
+    // Attempt columns
+    private int attemptCount;
+    private int[] attemptStudent = new int[INITIAL_ATTEMPTS];
+    private int[] totalScore = new int[INITIAL_ATTEMPTS];
+    private int[] maxScore = new int[INITIAL_ATTEMPTS];
+    private int[] correctAnswers = new int[INITIAL_ATTEMPTS];
+    private int[] totalQuestions = new int[INITIAL_ATTEMPTS];
+    private long[] completionTime = new long[INITIAL_ATTEMPTS];
+    private long[] timeTaken = new long[INITIAL_ATTEMPTS];
+    private int[] answerStart = new int[INITIAL_ATTEMPTS + 1];
+
+    // Answer columns
+    private int answerCount;
+    private int[] answerQuestion = new int[INITIAL_ANSWERS]; // question slot
+    private byte[] answerSelected = new byte[INITIAL_ANSWERS];
+    private byte[] answerCorrect = new byte[INITIAL_ANSWERS];
+    private long[] answerTime = new long[INITIAL_ANSWERS];
+
+    public AttemptHistory(Path path) throws IOException {
+        this.path = path;
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.put(MAGIC).putInt(VERSION).flip();
+                out.write(header);
+            }
+        }
+        validLength = HEADER_SIZE;
+        refresh();
+    }
+
+    // ==================== Writing ====================
+
+    /**
+     * Append attempts to attempts.dat and the columns (not fsynced; see force())
+     */
+    public void append(List<QuizResult> results) throws IOException {
+        if (results.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(results.size() * 256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        DataOutputStream recordOut = new DataOutputStream(record);
+        for (QuizResult result : results) {
+            record.reset();
+            encode(recordOut, result);
+            out.writeInt(record.size());
+            record.writeTo(out);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+
+        lock.writeLock().lock();
+        try {
+            if (channel == null || !channel.isOpen()) {
+                channel = FileChannel.open(path, StandardOpenOption.WRITE);
+                channel.truncate(validLength); // drop a torn record left by a crash
+            }
+            long position = validLength;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            validLength = position;
+            for (QuizResult result : results) {
+                add(result);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * fsync appended attempts
+     */
+    public void force() throws IOException {
+        FileChannel out = channel;
+        if (out != null && out.isOpen()) {
+            out.force(false);
+        }
+    }
+
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } catch (IOException e) {
+            System.err.println("[AttemptHistory] Error closing attempts file: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== Reading ====================
+
+    /**
+     * Load attempts appended since the last read (by this or another process)
+     */
+    public void refresh() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (Files.size(path) <= validLength) {
+                return;
+            }
+            try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+                if (validLength == HEADER_SIZE) {
+                    checkHeader(in);
+                }
+                in.position(validLength);
+                DataInputStream data = new DataInputStream(
+                        new BufferedInputStream(Channels.newInputStream(in), 64 * 1024));
+                byte[] payload = new byte[256];
+                while (true) {
+                    int length;
+                    try {
+                        length = data.readInt();
+                        if (length < 0) {
+                            break;
+                        }
+                        if (length > payload.length) {
+                            payload = new byte[Math.max(length, payload.length * 2)];
+                        }
+                        data.readFully(payload, 0, length);
+                    } catch (EOFException e) {
+                        break; // torn or still being written
+                    }
+                    add(decode(new DataInputStream(new ByteArrayInputStream(payload, 0, length))));
+                    validLength += 4 + length;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getAttemptCount() {
+        lock.readLock().lock();
+        try {
+            return attemptCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getAnswerCount() {
+        lock.readLock().lock();
+        try {
+            return answerCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Every attempt by a student with its answers, oldest first
+     */
+    public List<QuizResult> getAttempts(String studentId) {
+        lock.readLock().lock();
+        try {
+            List<QuizResult> attempts = new ArrayList<>();
+            Integer slot = studentSlots.get(studentId);
+            if (slot == null) {
+                return attempts;
+            }
+            int student = slot;
+            for (int i = 0; i < attemptCount; i++) {
+                if (attemptStudent[i] == student) {
+                    attempts.add(toResult(i));
+                }
+            }
+            return attempts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Answer totals for every question that has been answered, by question ID
+     */
+    public Map<Integer, QuestionStats> getQuestionStats() {
+        lock.readLock().lock();
+        try {
+            int questions = questionSlots.size();
+            int[] answered = new int[questions];
+            int[] correct = new int[questions];
+            int[][] options = new int[questions][];
+            for (int a = 0; a < answerCount; a++) {
+                int q = answerQuestion[a];
+                answered[q]++;
+                correct[q] += answerCorrect[a];
+                int selected = answerSelected[a];
+                if (selected >= 0) {
+                    int[] counts = options[q];
+                    if (counts == null || selected >= counts.length) {
+                        counts = options[q] = counts == null ? new int[Math.max(4, selected + 1)]
+                                : Arrays.copyOf(counts, selected + 1);
+                    }
+                    counts[selected]++;
+                }
+            }
+            Map<Integer, QuestionStats> stats = new TreeMap<>();
+            for (int q = 0; q < questions; q++) {
+                stats.put(questionIds[q], new QuestionStats(questionIds[q], answered[q], correct[q],
+                        options[q] != null ? options[q] : new int[0]));
+            }
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Percentage scored on each attempt by a student, oldest first
+     */
+    public double[] getScoreTrend(String studentId) {
+        lock.readLock().lock();
+        try {
+            Integer slot = studentSlots.get(studentId);
+            if (slot == null) {
+                return new double[0];
+            }
+            int student = slot;
+            double[] trend = new double[16];
+            int n = 0;
+            for (int i = 0; i < attemptCount; i++) {
+                if (attemptStudent[i] == student) {
+                    if (n == trend.length) {
+                        trend = Arrays.copyOf(trend, n * 2);
+                    }
+                    trend[n++] = percentage(i);
+                }
+            }
+            return Arrays.copyOf(trend, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Average percentage of the attempts completed on each day (system time zone)
+     */
+    public SortedMap<LocalDate, Double> getDailyAverages() {
+        lock.readLock().lock();
+        try {
+            SortedMap<LocalDate, Double> averages = new TreeMap<>();
+            if (attemptCount == 0) {
+                return averages;
+            }
+            ZoneRules rules = ZoneId.systemDefault().getRules();
+            long[] day = new long[attemptCount];
+            long first = Long.MAX_VALUE;
+            long last = Long.MIN_VALUE;
+            for (int i = 0; i < attemptCount; i++) {
+                long local = completionTime[i]
+                        + rules.getOffset(Instant.ofEpochMilli(completionTime[i])).getTotalSeconds() * 1000L;
+                day[i] = Math.floorDiv(local, DAY_MILLIS);
+                first = Math.min(first, day[i]);
+                last = Math.max(last, day[i]);
+            }
+            if (last - first >= Integer.MAX_VALUE) {
+                return averages;
+            }
+            int span = (int) (last - first + 1);
+            double[] sum = new double[span];
+            int[] count = new int[span];
+            for (int i = 0; i < attemptCount; i++) {
+                int d = (int) (day[i] - first);
+                sum[d] += percentage(i);
+                count[d]++;
+            }
+            for (int d = 0; d < span; d++) {
+                if (count[d] > 0) {
+                    averages.put(LocalDate.ofEpochDay(first + d), sum[d] / count[d]);
+                }
+            }
+            return averages;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Internals ====================
+
+    private void checkHeader(FileChannel in) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        in.read(header, 0);
+        header.flip();
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC) || header.getInt() != VERSION) {
+            throw new IOException("Not a version " + VERSION + " attempts file: " + path);
+        }
+    }
+
+    private static void encode(DataOutputStream out, QuizResult result) throws IOException {
+        out.writeUTF(result.getStudentId());
+        out.writeUTF(result.getStudentName() != null ? result.getStudentName() : "");
+        out.writeInt(result.getTotalScore());
+        out.writeInt(result.getMaxScore());
+        out.writeInt(result.getCorrectAnswers());
+        out.writeInt(result.getTotalQuestions());
+        out.writeLong(result.getCompletionDate().getTime());
+        out.writeLong(result.getTimeTaken());
+        List<Answer> answers = result.getAnswers();
+        out.writeInt(answers.size());
+        for (Answer answer : answers) {
+            out.writeInt(answer.getQuestionId());
+            out.writeByte(answer.getSelectedAnswerIndex());
+            out.writeBoolean(answer.isCorrect());
+            out.writeLong(answer.getTimestamp());
+        }
+    }
+
+    private static QuizResult decode(DataInputStream in) throws IOException {
+        QuizResult result = new QuizResult(in.readUTF(), in.readUTF());
+        result.setTotalScore(in.readInt());
+        result.setMaxScore(in.readInt());
+        result.setCorrectAnswers(in.readInt());
+        result.setTotalQuestions(in.readInt());
+        result.setCompletionDate(new Date(in.readLong()));
+        result.setTimeTaken(in.readLong());
+        int answers = in.readInt();
+        for (int i = 0; i < answers; i++) {
+            Answer answer = new Answer(in.readInt(), in.readByte(), result.getStudentId());
+            answer.setCorrect(in.readBoolean());
+            answer.setTimestamp(in.readLong());
+            result.addAnswer(answer);
+        }
+        return result;
+    }
+
+    /**
+     * Add one attempt to the columns (caller holds the write lock)
+     */
+    private void add(QuizResult result) {
+        if (attemptCount == attemptStudent.length) {
+            int capacity = attemptCount * 2;
+            attemptStudent = Arrays.copyOf(attemptStudent, capacity);
+            totalScore = Arrays.copyOf(totalScore, capacity);
+            maxScore = Arrays.copyOf(maxScore, capacity);
+            correctAnswers = Arrays.copyOf(correctAnswers, capacity);
+            totalQuestions = Arrays.copyOf(totalQuestions, capacity);
+            completionTime = Arrays.copyOf(completionTime, capacity);
+            timeTaken = Arrays.copyOf(timeTaken, capacity);
+            answerStart = Arrays.copyOf(answerStart, capacity + 1);
+        }
+        List<Answer> answers = result.getAnswers();
+        if (answerCount + answers.size() > answerQuestion.length) {
+            int capacity = Math.max(answerQuestion.length * 2, answerCount + answers.size());
+            answerQuestion = Arrays.copyOf(answerQuestion, capacity);
+            answerSelected = Arrays.copyOf(answerSelected, capacity);
+            answerCorrect = Arrays.copyOf(answerCorrect, capacity);
+            answerTime = Arrays.copyOf(answerTime, capacity);
+        }
+
+        int i = attemptCount++;
+        attemptStudent[i] = studentSlot(result.getStudentId(), result.getStudentName());
+        totalScore[i] = result.getTotalScore();
+        maxScore[i] = result.getMaxScore();
+        correctAnswers[i] = result.getCorrectAnswers();
+        totalQuestions[i] = result.getTotalQuestions();
+        completionTime[i] = result.getCompletionDate().getTime();
+        timeTaken[i] = result.getTimeTaken();
+        for (Answer answer : answers) {
+            int a = answerCount++;
+            answerQuestion[a] = questionSlot(answer.getQuestionId());
+            answerSelected[a] = (byte) answer.getSelectedAnswerIndex();
+            answerCorrect[a] = (byte) (answer.isCorrect() ? 1 : 0);
+            answerTime[a] = answer.getTimestamp();
+        }
+        answerStart[i + 1] = answerCount;
+    }
+
+    private int studentSlot(String studentId, String studentName) {
+        Integer slot = studentSlots.get(studentId);
+        if (slot == null) {
+            slot = studentIds.size();
+            studentSlots.put(studentId, slot);
+            studentIds.add(studentId);
+            studentNames.add(studentName);
+        } else {
+            studentNames.set(slot, studentName);
+        }
+        return slot;
+    }
+
+    private int questionSlot(int questionId) {
+        Integer slot = questionSlots.get(questionId);
+        if (slot == null) {
+            slot = questionSlots.size();
+            questionSlots.put(questionId, slot);
+            if (slot == questionIds.length) {
+                questionIds = Arrays.copyOf(questionIds, slot * 2);
+            }
+            questionIds[slot] = questionId;
+        }
+        return slot;
+    }
+
+    private double percentage(int attempt) {
+        return maxScore[attempt] == 0 ? 0.0 : totalScore[attempt] * 100.0 / maxScore[attempt];
+    }
+
+    private QuizResult toResult(int attempt) {
+        String studentId = studentIds.get(attemptStudent[attempt]);
+        QuizResult result = new QuizResult(studentId, studentNames.get(attemptStudent[attempt]));
+        result.setTotalScore(totalScore[attempt]);
+        result.setMaxScore(maxScore[attempt]);
+        result.setCorrectAnswers(correctAnswers[attempt]);
+        result.setTotalQuestions(totalQuestions[attempt]);
+        result.setCompletionDate(new Date(completionTime[attempt]));
+        result.setTimeTaken(timeTaken[attempt]);
+        for (int a = answerStart[attempt]; a < answerStart[attempt + 1]; a++) {
+            Answer answer = new Answer(questionIds[answerQuestion[a]], answerSelected[a], studentId);
+            answer.setCorrect(answerCorrect[a] != 0);
+            answer.setTimestamp(answerTime[a]);
+            result.addAnswer(answer);
+        }
+        return result;
+    }
+
+    /**
+     * Totals for one question across every recorded attempt
+     */
+    public static final class QuestionStats {
+        private final int questionId;
+        private final int answered;
+        private final int correct;
+        private final int[] optionCounts;
+
+        QuestionStats(int questionId, int answered, int correct, int[] optionCounts) {
+            this.questionId = questionId;
+            this.answered = answered;
+            this.correct = correct;
+            this.optionCounts = optionCounts;
+        }
+
+        public int getQuestionId() {
+            return questionId;
+        }
+
+        public int getAnswered() {
+            return answered;
+        }
+
+        public int getCorrect() {
+            return correct;
+        }
+
+        public double getCorrectRate() {
+            return answered == 0 ? 0.0 : correct * 100.0 / answered;
+        }
+
+        /**
+         * How often each option was picked (index = option)
+         */
+        public int[] getOptionCounts() {
+            return optionCounts.clone();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package utils;
+
+import models.Question;
+import models.QuizResult;
+
+import java.text.SimpleDateFormat;
+import java.util.function.Function;
+
+/**
+ * BenchHooks Class
+ * The per-line codecs of questions.txt and results.txt, for bench.HotPathBenchmarks only
+ * - Everything else goes through the file-level DataPersistence API; these
+ *   stay package-private there so they can change with the file formats
+ */
+public final class BenchHooks {
+
+    private BenchHooks() {
+    }
+
+    public static String formatQuestionLine(Question question) {
+        return DataPersistence.formatQuestionLine(question);
+    }
+
+    /**
+     * One results.txt line, including its newline
+     */
+    public static String formatResultLine(QuizResult result) {
+        return DataPersistence.formatResultLine(result, new SimpleDateFormat(DataPersistence.RESULT_DATE_FORMAT));
+    }
+
+    /**
+     * A results.txt line parser with its own date format (not thread-safe: one per thread)
+     */
+    public static Function<String, QuizResult> resultLineParser() {
+        SimpleDateFormat sdf = new SimpleDateFormat(DataPersistence.RESULT_DATE_FORMAT);
+        return line -> {
+            try {
+                return DataPersistence.parseResultLine(line, sdf);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Unparseable result line: " + line, e);
+            }
+        };
+    }
+}
@@ -0,0 +1,556 @@
+package utils;
+
+import models.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * BinaryProtocol Class
+ * Compact, versioned alternative to Java serialization of Message
+ * - Connection starts with a 4-byte hello: 'Q' 'Z' 'B' + protocol version
+ *   (client sends its highest version, server answers with the one it accepts)
+ * - Every message is a frame: 4-byte length, 1-byte opcode, 1-byte flags, body
+ * - Body: optional correlation ID, optional message text, then a tagged data value
+ *   (the correlation flag is only set when a client used IDs, so version 1
+ *   peers that never send one never receive one)
+ * - Hand-written codecs for Question, Answer, User, QuizResult, RankInfo and QuestionPage
+ * - Integers use unsigned/zig-zag varints, strings are length-prefixed UTF-8
+ *
+ * The Message timestamp is not transmitted; decoded messages carry the
+ * time they were decoded.
+ */
+public class BinaryProtocol {
+
+    public static final int VERSION = 1;
+    public static final byte[] MAGIC = { 'Q', 'Z', 'B' };
+    public static final int HELLO_SIZE = MAGIC.length + 1;
+
+    // Opcodes - one per Message type
+    public static final int OP_CONNECT = 1;
+    public static final int OP_DISCONNECT = 2;
+    public static final int OP_GET_QUESTIONS = 3;
+    public static final int OP_SUBMIT_ANSWER = 4;
+    public static final int OP_GET_RESULT = 5;
+    public static final int OP_GET_ALL_RESULTS = 6;
+    public static final int OP_START_QUIZ = 7;
+    public static final int OP_END_QUIZ = 8;
+    public static final int OP_SUCCESS = 9;
+    public static final int OP_ERROR = 10;
+    public static final int OP_BROADCAST = 11;
+    public static final int OP_GET_RANK = 12;
+    public static final int OP_RESUME = 13;
+    public static final int OP_EXAM_PAYLOAD = 14;
+    public static final int OP_SUBMIT_ANSWERS = 15;
+    public static final int OP_GET_QUESTION_PAGE = 16;
+
+    private static final String[] TYPES_BY_OPCODE = {
+            null,
+            Message.CONNECT,
+            Message.DISCONNECT,
+            Message.GET_QUESTIONS,
+            Message.SUBMIT_ANSWER,
+            Message.GET_RESULT,
+            Message.GET_ALL_RESULTS,
+            Message.START_QUIZ,
+            Message.END_QUIZ,
+            Message.SUCCESS,
+            Message.ERROR,
+            Message.BROADCAST,
+            Message.GET_RANK,
+            Message.RESUME,
+            Message.EXAM_PAYLOAD,
+            Message.SUBMIT_ANSWERS,
+            Message.GET_QUESTION_PAGE
+    };
+
+    // Flags
+    private static final int FLAG_HAS_TEXT = 0x01;
+    private static final int FLAG_HAS_CORRELATION = 0x02;
+
+    // Data tags
+    private static final int TAG_NULL = 0;
+    private static final int TAG_FALSE = 1;
+    private static final int TAG_TRUE = 2;
+    private static final int TAG_INT = 3;
+    private static final int TAG_STRING = 4;
+    private static final int TAG_USER = 5;
+    private static final int TAG_ANSWER = 6;
+    private static final int TAG_QUESTION = 7;
+    private static final int TAG_QUESTION_LIST = 8;
+    private static final int TAG_RESULT = 9;
+    private static final int TAG_RANK = 10;
+    private static final int TAG_ANSWER_LIST = 11;
+    private static final int TAG_VERDICTS = 12;
+    private static final int TAG_QUESTION_PAGE = 13;
+
+    private BinaryProtocol() {
+    }
+
+    // ==================== Handshake ====================
+
+    /**
+     * Build the 4-byte hello announcing a protocol version
+     */
+    public static byte[] hello(int version) {
+        return new byte[] { MAGIC[0], MAGIC[1], MAGIC[2], (byte) version };
+    }
+
+    /**
+     * Check whether the first byte of a connection starts a binary hello
+     */
+    public static boolean isHelloStart(int firstByte) {
+        return firstByte == MAGIC[0];
+    }
+
+    /**
+     * Validate a hello and return the version it announces
+     */
+    public static int parseHello(byte[] hello) throws IOException {
+        if (hello.length < HELLO_SIZE || hello[0] != MAGIC[0] || hello[1] != MAGIC[1] || hello[2] != MAGIC[2]) {
+            throw new IOException("Invalid binary protocol hello");
+        }
+        int version = hello[3] & 0xFF;
+        if (version < 1) {
+            throw new IOException("Unsupported binary protocol version: " + version);
+        }
+        return version;
+    }
+
+    /**
+     * Pick the version both sides support
+     */
+    public static int negotiate(int clientVersion) {
+        return Math.min(clientVersion, VERSION);
+    }
+
+    // ==================== Framing ====================
+
+    /**
+     * Encode a message as a complete frame (length header + opcode + body)
+     */
+    public static byte[] toFrame(Message message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // placeholder for the length header
+        writeMessage(out, message);
+        out.flush();
+
+        byte[] frame = bytes.toByteArray();
+        int payloadLength = frame.length - MessageFraming.HEADER_SIZE;
+        frame[0] = (byte) (payloadLength >>> 24);
+        frame[1] = (byte) (payloadLength >>> 16);
+        frame[2] = (byte) (payloadLength >>> 8);
+        frame[3] = (byte) payloadLength;
+        return frame;
+    }
+
+    /**
+     * Decode the payload of a single frame back into a Message
+     */
+    public static Message fromPayload(byte[] buffer, int offset, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer, offset, length));
+        return readMessage(in);
+    }
+
+    // ==================== Message ====================
+
+    private static void writeMessage(DataOutputStream out, Message message) throws IOException {
+        out.writeByte(opcodeOf(message.getType()));
+
+        String text = message.getMessage();
+        int correlationId = message.getCorrelationId();
+        out.writeByte((text != null ? FLAG_HAS_TEXT : 0) | (correlationId != 0 ? FLAG_HAS_CORRELATION : 0));
+        if (correlationId != 0) {
+            writeVarInt(out, correlationId);
+        }
+        if (text != null) {
+            writeString(out, text);
+        }
+
+        writeData(out, message.getData());
+    }
+
+    private static Message readMessage(DataInputStream in) throws IOException {
+        int opcode = in.readUnsignedByte();
+        if (opcode <= 0 || opcode >= TYPES_BY_OPCODE.length) {
+            throw new IOException("Unknown opcode: " + opcode);
+        }
+
+        int flags = in.readUnsignedByte();
+        int correlationId = (flags & FLAG_HAS_CORRELATION) != 0 ? readVarInt(in) : 0;
+        String text = (flags & FLAG_HAS_TEXT) != 0 ? readString(in) : null;
+        Object data = readData(in);
+
+        Message message = new Message(TYPES_BY_OPCODE[opcode], data, text);
+        message.setCorrelationId(correlationId);
+        return message;
+    }
+
+    private static int opcodeOf(String type) throws IOException {
+        for (int i = 1; i < TYPES_BY_OPCODE.length; i++) {
+            if (TYPES_BY_OPCODE[i].equals(type)) {
+                return i;
+            }
+        }
+        throw new IOException("No opcode for message type: " + type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeData(DataOutputStream out, Object data) throws IOException {
+        if (data == null) {
+            out.writeByte(TAG_NULL);
+        } else if (data instanceof Boolean) {
+            out.writeByte((Boolean) data ? TAG_TRUE : TAG_FALSE);
+        } else if (data instanceof Integer) {
+            out.writeByte(TAG_INT);
+            writeSignedVarInt(out, (Integer) data);
+        } else if (data instanceof String) {
+            out.writeByte(TAG_STRING);
+            writeString(out, (String) data);
+        } else if (data instanceof User) {
+            out.writeByte(TAG_USER);
+            writeUser(out, (User) data);
+        } else if (data instanceof Answer) {
+            out.writeByte(TAG_ANSWER);
+            writeAnswer(out, (Answer) data);
+        } else if (data instanceof Question) {
+            out.writeByte(TAG_QUESTION);
+            writeQuestion(out, (Question) data);
+        } else if (data instanceof QuizResult) {
+            out.writeByte(TAG_RESULT);
+            writeQuizResult(out, (QuizResult) data);
+        } else if (data instanceof RankInfo) {
+            out.writeByte(TAG_RANK);
+            writeRankInfo(out, (RankInfo) data);
+        } else if (data instanceof QuestionPage) {
+            out.writeByte(TAG_QUESTION_PAGE);
+            writeQuestionPage(out, (QuestionPage) data);
+        } else if (data instanceof boolean[]) {
+            out.writeByte(TAG_VERDICTS);
+            writeVerdicts(out, (boolean[]) data);
+        } else if (data instanceof List && !((List<?>) data).isEmpty() && ((List<?>) data).get(0) instanceof Answer) {
+            out.writeByte(TAG_ANSWER_LIST);
+            List<Answer> answers = (List<Answer>) data;
+            writeVarInt(out, answers.size());
+            for (Answer answer : answers) {
+                writeAnswer(out, answer);
+            }
+        } else if (data instanceof List) {
+            out.writeByte(TAG_QUESTION_LIST);
+            List<Question> questions = (List<Question>) data;
+            writeVarInt(out, questions.size());
+            for (Question question : questions) {
+                writeQuestion(out, question);
+            }
+        } else {
+            throw new IOException("No binary codec for " + data.getClass().getName());
+        }
+    }
+
+    private static Object readData(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_INT:
+                return readSignedVarInt(in);
+            case TAG_STRING:
+                return readString(in);
+            case TAG_USER:
+                return readUser(in);
+            case TAG_ANSWER:
+                return readAnswer(in);
+            case TAG_QUESTION:
+                return readQuestion(in);
+            case TAG_RESULT:
+                return readQuizResult(in);
+            case TAG_RANK:
+                return readRankInfo(in);
+            case TAG_QUESTION_LIST:
+                int count = readVarInt(in);
+                if (count < 0 || count > in.available()) {
+                    throw new IOException("Question count exceeds frame: " + count);
+                }
+                List<Question> questions = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    questions.add(readQuestion(in));
+                }
+                return questions;
+            case TAG_ANSWER_LIST:
+                int answerCount = readVarInt(in);
+                if (answerCount < 0 || answerCount > in.available()) {
+                    throw new IOException("Answer count exceeds frame: " + answerCount);
+                }
+                List<Answer> answers = new ArrayList<>(answerCount);
+                for (int i = 0; i < answerCount; i++) {
+                    answers.add(readAnswer(in));
+                }
+                return answers;
+            case TAG_VERDICTS:
+                return readVerdicts(in);
+            case TAG_QUESTION_PAGE:
+                return readQuestionPage(in);
+            default:
+                throw new IOException("Unknown data tag: " + tag);
+        }
+    }
+
+    // ==================== Model codecs ====================
+
+    public static void writeUser(DataOutputStream out, User user) throws IOException {
+        writeString(out, user.getUserId());
+        writeString(out, user.getUsername());
+        writeString(out, user.getRole());
+        out.writeBoolean(user.isConnected());
+        writeString(out, user.getIpAddress());
+    }
+
+    public static User readUser(DataInputStream in) throws IOException {
+        User user = new User(readString(in), readString(in), readString(in));
+        user.setConnected(in.readBoolean());
+        user.setIpAddress(readString(in));
+        return user;
+    }
+
+    /**
+     * Batch verdicts: count, then one bit per answer (LSB first)
+     */
+    public static void writeVerdicts(DataOutputStream out, boolean[] verdicts) throws IOException {
+        writeVarInt(out, verdicts.length);
+        for (int i = 0; i < verdicts.length; i += 8) {
+            int bits = 0;
+            for (int b = 0; b < 8 && i + b < verdicts.length; b++) {
+                if (verdicts[i + b]) {
+                    bits |= 1 << b;
+                }
+            }
+            out.writeByte(bits);
+        }
+    }
+
+    public static boolean[] readVerdicts(DataInputStream in) throws IOException {
+        int count = readVarInt(in);
+        if (count < 0 || (count + 7) / 8 > in.available()) {
+            throw new IOException("Verdict count exceeds frame: " + count);
+        }
+        boolean[] verdicts = new boolean[count];
+        for (int i = 0; i < verdicts.length; i += 8) {
+            int bits = in.readUnsignedByte();
+            for (int b = 0; b < 8 && i + b < verdicts.length; b++) {
+                verdicts[i + b] = (bits & (1 << b)) != 0;
+            }
+        }
+        return verdicts;
+    }
+
+    public static void writeAnswer(DataOutputStream out, Answer answer) throws IOException {
+        writeSignedVarInt(out, answer.getQuestionId());
+        writeSignedVarInt(out, answer.getSelectedAnswerIndex());
+        writeString(out, answer.getStudentId());
+        out.writeLong(answer.getTimestamp());
+    }
+
+    public static Answer readAnswer(DataInputStream in) throws IOException {
+        Answer answer = new Answer(readSignedVarInt(in), readSignedVarInt(in), readString(in));
+        answer.setTimestamp(in.readLong());
+        return answer;
+    }
+
+    public static void writeQuestion(DataOutputStream out, Question question) throws IOException {
+        writeSignedVarInt(out, question.getQuestionId());
+        writeString(out, question.getQuestionText());
+        List<String> options = question.getOptions();
+        if (options == null) {
+            writeVarInt(out, 0);
+        } else {
+            writeVarInt(out, options.size() + 1);
+            for (String option : options) {
+                writeString(out, option);
+            }
+        }
+        writeSignedVarInt(out, question.getCorrectAnswerIndex());
+        writeString(out, question.getCategory());
+        writeSignedVarInt(out, question.getPoints());
+    }
+
+    public static Question readQuestion(DataInputStream in) throws IOException {
+        int questionId = readSignedVarInt(in);
+        String questionText = readString(in);
+        int optionCount = readVarInt(in) - 1;
+        if (optionCount < -1 || optionCount > in.available()) {
+            throw new IOException("Option count exceeds frame: " + optionCount);
+        }
+        List<String> options = null;
+        if (optionCount >= 0) {
+            options = new ArrayList<>(optionCount);
+            for (int i = 0; i < optionCount; i++) {
+                options.add(readString(in));
+            }
+        }
+        int correctIndex = readSignedVarInt(in);
+        String category = readString(in);
+        int points = readSignedVarInt(in);
+        return new Question(questionId, questionText, options, correctIndex, category, points);
+    }
+
+    /**
+     * Page header (offset, total, next cursor), then its questions
+     */
+    public static void writeQuestionPage(DataOutputStream out, QuestionPage page) throws IOException {
+        writeVarInt(out, page.getOffset());
+        writeVarInt(out, page.getTotalQuestions());
+        writeString(out, page.getNextCursor());
+        List<Question> questions = page.getQuestions();
+        writeVarInt(out, questions.size());
+        for (Question question : questions) {
+            writeQuestion(out, question);
+        }
+    }
+
+    public static QuestionPage readQuestionPage(DataInputStream in) throws IOException {
+        int offset = readVarInt(in);
+        int totalQuestions = readVarInt(in);
+        String nextCursor = readString(in);
+        int count = readVarInt(in);
+        if (count < 0 || count > in.available()) {
+            throw new IOException("Question count exceeds frame: " + count);
+        }
+        List<Question> questions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            questions.add(readQuestion(in));
+        }
+        return new QuestionPage(questions, offset, totalQuestions, nextCursor);
+    }
+
+    public static void writeQuizResult(DataOutputStream out, QuizResult result) throws IOException {
+        writeString(out, result.getStudentId());
+        writeString(out, result.getStudentName());
+        writeSignedVarInt(out, result.getTotalScore());
+        writeSignedVarInt(out, result.getMaxScore());
+        writeSignedVarInt(out, result.getCorrectAnswers());
+        writeSignedVarInt(out, result.getTotalQuestions());
+        Date completionDate = result.getCompletionDate();
+        out.writeLong(completionDate != null ? completionDate.getTime() : Long.MIN_VALUE);
+        out.writeLong(result.getTimeTaken());
+
+        List<Answer> answers = result.getAnswers();
+        int answerCount = answers != null ? answers.size() : 0;
+        writeVarInt(out, answerCount);
+        for (int i = 0; i < answerCount; i++) {
+            writeAnswer(out, answers.get(i));
+        }
+    }
+
+    public static QuizResult readQuizResult(DataInputStream in) throws IOException {
+        QuizResult result = new QuizResult(readString(in), readString(in));
+        result.setTotalScore(readSignedVarInt(in));
+        result.setMaxScore(readSignedVarInt(in));
+        result.setCorrectAnswers(readSignedVarInt(in));
+        result.setTotalQuestions(readSignedVarInt(in));
+        long completionTime = in.readLong();
+        result.setCompletionDate(completionTime != Long.MIN_VALUE ? new Date(completionTime) : null);
+        result.setTimeTaken(in.readLong());
+
+        int answerCount = readVarInt(in);
+        if (answerCount < 0 || answerCount > in.available()) {
+            throw new IOException("Answer count exceeds frame: " + answerCount);
+        }
+        for (int i = 0; i < answerCount; i++) {
+            result.addAnswer(readAnswer(in));
+        }
+        return result;
+    }
+
+    public static void writeRankInfo(DataOutputStream out, RankInfo rank) throws IOException {
+        writeString(out, rank.getStudentId());
+        writeString(out, rank.getStudentName());
+        writeSignedVarInt(out, rank.getScore());
+        writeVarInt(out, rank.getRank());
+        writeVarInt(out, rank.getTotalRanked());
+        out.writeDouble(rank.getPercentile());
+
+        List<RankInfo> nearby = rank.getNearby();
+        int nearbyCount = nearby != null ? nearby.size() : 0;
+        writeVarInt(out, nearbyCount);
+        for (int i = 0; i < nearbyCount; i++) {
+            writeRankInfo(out, nearby.get(i));
+        }
+    }
+
+    public static RankInfo readRankInfo(DataInputStream in) throws IOException {
+        RankInfo rank = new RankInfo(readString(in), readString(in), readSignedVarInt(in),
+                readVarInt(in), readVarInt(in), in.readDouble());
+
+        int nearbyCount = readVarInt(in);
+        if (nearbyCount < 0 || nearbyCount > in.available()) {
+            throw new IOException("Rank count exceeds frame: " + nearbyCount);
+        }
+        for (int i = 0; i < nearbyCount; i++) {
+            rank.getNearby().add(readRankInfo(in));
+        }
+        return rank;
+    }
+
+    // ==================== Primitives ====================
+
+    /**
+     * Nullable string: varint (byte length + 1, 0 for null) followed by UTF-8 bytes
+     */
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        MessageFraming.checkFrameLength(length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public static void writeSignedVarInt(DataOutputStream out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    public static int readSignedVarInt(DataInputStream in) throws IOException {
+        int raw = readVarInt(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+}
@@ -5,10 +5,19 @@ import models.QuizResult;
 import models.User;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * MEMBER 5: DATA PERSISTENCE
@@ -16,27 +25,82 @@ import java.util.*;
  * DataPersistence Class
  * Handles all file I/O operations for the quiz system
  * - Load questions from JSON/text files
+ * - Journal question edits and compact them into questions.txt in the background
  * - Save quiz results to files
- * - Load quiz results from files
+ * - Load quiz results from files (memory-mapped binary store with a sidecar index)
+ * - Keep every attempt with its answers in a columnar history for analytics
  * - Manage data synchronization
  */
 public class DataPersistence {
 
-    private static final String DATA_DIR = "data";
-    private static final String QUESTIONS_FILE = DATA_DIR + "/questions.txt";
-    private static final String RESULTS_FILE = DATA_DIR + "/results.txt";
-    private static final String USERS_FILE = DATA_DIR + "/users.txt";
+    private static final Logger LOG = Logger.get("DataPersistence");
+
+    private static final String DEFAULT_DATA_DIR = "data";
+    private static final String QUESTIONS_FILE = "questions.txt";
+    private static final String RESULTS_FILE = "results.txt";
+    private static final String USERS_FILE = "users.txt";
+    private static final String QUESTIONS_JOURNAL = "questions.journal";
+    private static final String RESULTS_SEGMENT = "results.seg";
+    private static final String RESULTS_INDEX = "results.idx";
+    private static final String ATTEMPTS_FILE = "attempts.dat";
+    static final String SESSIONS_LOG = "sessions.log";
+    static final String SESSIONS_SNAPSHOT = "sessions.snapshot";
+    static final String RESULT_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+    // Write-behind defaults: queue capacity and group-commit fsync interval (ms)
+    private static final int DEFAULT_RESULT_QUEUE = 1024;
+    private static final long DEFAULT_RESULT_FSYNC_MILLIS = 0;
+
+    // Compact once the journal holds this many records and outnumbers the questions
+    private static final int COMPACT_MIN_RECORDS = 1000;
+
+    // Results per append when importing results.txt into the result store
+    private static final int IMPORT_CHUNK = 65536;
 
     // Singleton instance
     private static DataPersistence instance;
+    private static String dataDirectory = DEFAULT_DATA_DIR;
+
+    // Every data file lives here; fixed when the instance is created
+    private final String dataDir = dataDirectory;
 
     // Thread-safe data structures
-    private List<Question> questions;
+    private Map<Integer, Question> questions; // questionId -> Question, in file order
     private Map<String, QuizResult> results;
     private Map<String, User> users;
 
+    // Guards the collections and data files
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Bumped on every load or save of the question bank so caches can detect changes
+    private volatile long questionsVersion;
+    private volatile QuestionBank questionBank;
+
+    // Question edits are journaled; the compactor folds the journal into questions.txt.
+    // Lock order: compactionLock before lock
+    private final QuestionJournal questionJournal = new QuestionJournal(dataFile(QUESTIONS_JOURNAL));
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "question-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Every attempt in binary form, indexed by student and completion time;
+    // opened by openResultStores() at startup, otherwise on first use
+    private ResultStore resultStore;
+
+    // Every attempt with its answers, column-wise for analytics; opened with the result store
+    private AttemptHistory attemptHistory;
+
+    // Appends results.txt, the result store and the attempt history on its own thread; created on first use
+    private ResultWriter resultWriter;
+    private int resultQueueCapacity = DEFAULT_RESULT_QUEUE;
+    private long resultFsyncMillis = DEFAULT_RESULT_FSYNC_MILLIS;
+
     private DataPersistence() {
-        questions = Collections.synchronizedList(new ArrayList<>());
+        questions = new LinkedHashMap<>();
         results = Collections.synchronizedMap(new HashMap<>());
         users = Collections.synchronizedMap(new HashMap<>());
         initializeDataDirectory();
@@ -49,13 +113,28 @@ public class DataPersistence {
         return instance;
     }
 
+    /**
+     * Directory holding questions, results and the session journal (default "data");
+     * takes effect if called before the first getInstance()
+     */
+    public static synchronized void configureDataDirectory(String dir) {
+        dataDirectory = dir;
+    }
+
+    /**
+     * Path of a file in the data directory
+     */
+    Path dataFile(String name) {
+        return Paths.get(dataDir, name);
+    }
+
     /**
      * Initialize data directory if it doesn't exist
      */
     private void initializeDataDirectory() {
         try {
-            Files.createDirectories(Paths.get(DATA_DIR));
-            System.out.println("[DataPersistence] Data directory initialized: " + DATA_DIR);
+            Files.createDirectories(Paths.get(dataDir));
+            System.out.println("[DataPersistence] Data directory initialized: " + dataDir);
         } catch (IOException e) {
             System.err.println("[DataPersistence] Error creating data directory: " + e.getMessage());
         }
@@ -66,53 +145,120 @@ public class DataPersistence {
      * File format:
      * questionId|questionText|option1,option2,option3,option4|correctIndex|category|points
      */
-    public synchronized List<Question> loadQuestions() {
-        questions.clear();
-        File file = new File(QUESTIONS_FILE);
+    public List<Question> loadQuestions() {
+        compactionLock.lock();
+        lock.lock();
+        try {
+            questionsVersion++;
+            questions.clear();
+            File file = dataFile(QUESTIONS_FILE).toFile();
+
+            if (file.exists()) {
+                try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.trim().isEmpty() || line.startsWith("#")) {
+                            continue; // Skip empty lines and comments
+                        }
 
-        if (!file.exists()) {
-            System.out.println("[DataPersistence] Questions file not found. Creating sample questions...");
-            createSampleQuestions();
-            return new ArrayList<>(questions);
+                        try {
+                            Question question = parseQuestionLine(line);
+                            if (question != null) {
+                                putQuestion(question);
+                            }
+                        } catch (Exception e) {
+                            System.err.println("[DataPersistence] Error parsing question: " + line);
+                        }
+                    }
+                } catch (IOException e) {
+                    System.err.println("[DataPersistence] Error loading questions: " + e.getMessage());
+                    createSampleQuestions();
+                    return new ArrayList<>(questions.values());
+                }
+            }
+
+            // Apply edits made since the last compaction
+            try {
+                questionJournal.replay(this::applyJournalRecord);
+            } catch (IOException e) {
+                System.err.println("[DataPersistence] Error replaying question journal: " + e.getMessage());
+            }
+
+            if (!file.exists() && questions.isEmpty()) {
+                System.out.println("[DataPersistence] Questions file not found. Creating sample questions...");
+                createSampleQuestions();
+                return new ArrayList<>(questions.values());
+            }
+
+            System.out.println("[DataPersistence] Loaded " + questions.size() + " questions from file" +
+                    (questionJournal.getRecordCount() > 0
+                            ? " (" + questionJournal.getRecordCount() + " journal records)." : "."));
+            return new ArrayList<>(questions.values());
+        } finally {
+            lock.unlock();
+            compactionLock.unlock();
         }
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty() || line.startsWith("#")) {
-                    continue; // Skip empty lines and comments
-                }
+    /**
+     * Parse one questions.txt line
+     * Format: questionId|questionText|option1,option2,option3,option4|correctIndex|category|points
+     * Returns null if the line does not have all fields
+     */
+    public static Question parseQuestionLine(String line) {
+        String[] parts = line.split("\\|");
+        if (parts.length != 6) {
+            return null;
+        }
+        int questionId = Integer.parseInt(parts[0].trim());
+        String questionText = parts[1].trim();
+        // Trim options
+        List<String> options = new ArrayList<>(Arrays.asList(parts[2].split(",")));
+        for (int i = 0; i < options.size(); i++) {
+            options.set(i, options.get(i).trim());
+        }
+        int correctIndex = Integer.parseInt(parts[3].trim());
+        String category = parts[4].trim();
+        int points = Integer.parseInt(parts[5].trim());
+        return new Question(questionId, questionText, options, correctIndex, category, points);
+    }
 
-                try {
-                    String[] parts = line.split("\\|");
-                    if (parts.length == 6) {
-                        int questionId = Integer.parseInt(parts[0].trim());
-                        String questionText = parts[1].trim();
-                        List<String> options = Arrays.asList(parts[2].split(","));
-                        // Trim options
-                        options = new ArrayList<>(options);
-                        for (int i = 0; i < options.size(); i++) {
-                            options.set(i, options.get(i).trim());
-                        }
-                        int correctIndex = Integer.parseInt(parts[3].trim());
-                        String category = parts[4].trim();
-                        int points = Integer.parseInt(parts[5].trim());
+    /**
+     * Format one questions.txt line (without the newline)
+     */
+    static String formatQuestionLine(Question q) {
+        return String.format("%d|%s|%s|%d|%s|%d",
+                q.getQuestionId(),
+                q.getQuestionText(),
+                String.join(",", q.getOptions()),
+                q.getCorrectAnswerIndex(),
+                q.getCategory(),
+                q.getPoints());
+    }
 
-                        Question question = new Question(questionId, questionText, options,
-                                correctIndex, category, points);
-                        questions.add(question);
+    /**
+     * Apply one replayed journal record (caller holds the lock)
+     */
+    private void applyJournalRecord(String record) {
+        try {
+            int separator = record.indexOf('|');
+            String type = separator < 0 ? record : record.substring(0, separator);
+            String body = separator < 0 ? "" : record.substring(separator + 1);
+            switch (QuestionMutation.Type.valueOf(type)) {
+                case ADD:
+                case UPDATE:
+                    Question question = parseQuestionLine(body);
+                    if (question != null) {
+                        putQuestion(question);
                     }
-                } catch (Exception e) {
-                    System.err.println("[DataPersistence] Error parsing question: " + line);
-                }
+                    break;
+                case DELETE:
+                    questions.remove(Integer.parseInt(body.trim()));
+                    break;
             }
-            System.out.println("[DataPersistence] Loaded " + questions.size() + " questions from file.");
-        } catch (IOException e) {
-            System.err.println("[DataPersistence] Error loading questions: " + e.getMessage());
-            createSampleQuestions();
+        } catch (Exception e) {
+            System.err.println("[DataPersistence] Error parsing journal record: " + record);
         }
-
-        return new ArrayList<>(questions);
     }
 
     /**
@@ -121,39 +267,39 @@ public class DataPersistence {
     private void createSampleQuestions() {
         questions.clear();
 
-        questions.add(new Question(1, "What is the default port for HTTP?",
+        putQuestion(new Question(1, "What is the default port for HTTP?",
                 Arrays.asList("80", "443", "8080", "3306"), 0, "Networking", 10));
 
-        questions.add(new Question(2, "Which Java class is used for server-side socket programming?",
+        putQuestion(new Question(2, "Which Java class is used for server-side socket programming?",
                 Arrays.asList("Socket", "ServerSocket", "DatagramSocket", "MulticastSocket"), 1, "Java", 10));
 
-        questions.add(new Question(3, "What does TCP stand for?",
+        putQuestion(new Question(3, "What does TCP stand for?",
                 Arrays.asList("Transfer Control Protocol", "Transmission Control Protocol",
                         "Transport Communication Protocol", "Technical Control Protocol"),
                 1, "Networking", 10));
 
-        questions.add(new Question(4, "Which layer of OSI model handles routing?",
+        putQuestion(new Question(4, "Which layer of OSI model handles routing?",
                 Arrays.asList("Physical", "Data Link", "Network", "Transport"), 2, "Networking", 10));
 
-        questions.add(new Question(5, "What is the purpose of ObjectInputStream in Java?",
+        putQuestion(new Question(5, "What is the purpose of ObjectInputStream in Java?",
                 Arrays.asList("Read text data", "Serialize objects", "Deserialize objects", "Write binary data"),
                 2, "Java", 10));
 
-        questions.add(new Question(6, "Which method is used to accept client connections?",
+        putQuestion(new Question(6, "Which method is used to accept client connections?",
                 Arrays.asList("connect()", "accept()", "listen()", "bind()"), 1, "Java", 10));
 
-        questions.add(new Question(7, "What is multithreading?",
+        putQuestion(new Question(7, "What is multithreading?",
                 Arrays.asList("Running multiple programs", "Running multiple threads simultaneously",
                         "Running multiple servers", "Running multiple clients"),
                 1, "Java", 10));
 
-        questions.add(new Question(8, "What is the range of port numbers?",
+        putQuestion(new Question(8, "What is the range of port numbers?",
                 Arrays.asList("0-1023", "1024-49151", "0-65535", "1-1000"), 2, "Networking", 10));
 
-        questions.add(new Question(9, "Which keyword is used for thread synchronization?",
+        putQuestion(new Question(9, "Which keyword is used for thread synchronization?",
                 Arrays.asList("async", "synchronized", "lock", "atomic"), 1, "Java", 10));
 
-        questions.add(new Question(10, "What is a socket?",
+        putQuestion(new Question(10, "What is a socket?",
                 Arrays.asList("Hardware component", "Endpoint for network communication",
                         "Database connection", "Memory location"),
                 1, "Networking", 10));
@@ -164,67 +310,371 @@ public class DataPersistence {
 
     /**
      * Save questions to file
+     * Rewrites the whole snapshot and clears the journal; prefer
+     * applyQuestionMutations for edits
+     */
+    public void saveQuestions() {
+        compactionLock.lock();
+        lock.lock();
+        try {
+            questionsVersion++;
+            questionJournal.beginCompaction();
+            writeQuestionSnapshot(new ArrayList<>(questions.values()));
+            questionJournal.finishCompaction();
+            System.out.println("[DataPersistence] Saved " + questions.size() + " questions to file.");
+        } catch (IOException e) {
+            System.err.println("[DataPersistence] Error saving questions: " + e.getMessage());
+        } finally {
+            lock.unlock();
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * Fold the journal into a fresh questions.txt
+     * Edits keep going to a new journal while the snapshot is written
      */
-    public synchronized void saveQuestions() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(QUESTIONS_FILE))) {
+    public void compactQuestions() {
+        compactionLock.lock();
+        try {
+            List<Question> snapshot;
+            int records;
+            lock.lock();
+            try {
+                records = questionJournal.getRecordCount();
+                questionJournal.beginCompaction();
+                snapshot = new ArrayList<>(questions.values());
+            } finally {
+                lock.unlock();
+            }
+
+            writeQuestionSnapshot(snapshot);
+            questionJournal.finishCompaction();
+            System.out.println("[DataPersistence] Compacted " + records + " journal records into " +
+                    snapshot.size() + " questions.");
+        } catch (IOException e) {
+            System.err.println("[DataPersistence] Error compacting questions: " + e.getMessage());
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * Write questions.txt through a temporary file, fsync it and swap it in
+     */
+    private void writeQuestionSnapshot(List<Question> snapshot) throws IOException {
+        File temp = dataFile(QUESTIONS_FILE + ".tmp").toFile();
+        try (FileOutputStream out = new FileOutputStream(temp);
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
             writer.write("# Quiz Questions\n");
             writer.write(
                     "# Format: questionId|questionText|option1,option2,option3,option4|correctIndex|category|points\n");
             writer.write("#\n");
 
-            for (Question q : questions) {
-                String line = String.format("%d|%s|%s|%d|%s|%d\n",
-                        q.getQuestionId(),
-                        q.getQuestionText(),
-                        String.join(",", q.getOptions()),
-                        q.getCorrectAnswerIndex(),
-                        q.getCategory(),
-                        q.getPoints());
-                writer.write(line);
+            for (Question q : snapshot) {
+                writer.write(formatQuestionLine(q));
+                writer.write('\n');
             }
-            System.out.println("[DataPersistence] Saved " + questions.size() + " questions to file.");
-        } catch (IOException e) {
-            System.err.println("[DataPersistence] Error saving questions: " + e.getMessage());
+            writer.flush();
+            out.getFD().sync();
         }
+        Files.move(temp.toPath(), dataFile(QUESTIONS_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Save quiz result and wait until it is durable
+     */
+    public void saveResult(QuizResult result) {
+        saveResultAsync(result).join();
     }
 
     /**
-     * Save quiz result to file
+     * Queue a quiz result for the write-behind writer
+     * The future completes with true once the line is durable in results.txt
+     * (per the configured fsync interval), or false if it could not be written
      */
-    public synchronized void saveResult(QuizResult result) {
-        results.put(result.getStudentId(), result);
+    public CompletableFuture<Boolean> saveResultAsync(QuizResult result) {
+        ResultWriter writer;
+        lock.lock();
+        try {
+            results.put(result.getStudentId(), result);
+            if (resultWriter == null) {
+                // Both are open already when openResultStores() ran at startup
+                resultWriter = new ResultWriter(dataFile(RESULTS_FILE), openResultStore(), openAttemptHistory(),
+                        resultQueueCapacity, resultFsyncMillis);
+            }
+            writer = resultWriter;
+        } finally {
+            lock.unlock();
+        }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(RESULTS_FILE, true))) {
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-            String line = String.format("%s|%s|%d|%d|%d|%d|%.2f|%s\n",
-                    result.getStudentId(),
-                    result.getStudentName(),
-                    result.getTotalScore(),
-                    result.getMaxScore(),
-                    result.getCorrectAnswers(),
-                    result.getTotalQuestions(),
-                    result.getPercentage(),
-                    sdf.format(result.getCompletionDate()));
-            writer.write(line);
-            System.out.println("[DataPersistence] Result saved for student: " + result.getStudentId());
+        // Never blocks (a full queue hands off to an overflow thread); never holds the persistence lock
+        return writer.submit(result).thenApply(saved -> {
+            if (saved) {
+                LOG.info("Result saved for student: %s", result.getStudentId());
+            }
+            return saved;
+        });
+    }
+
+    /**
+     * Configure the result writer; takes effect if no result has been saved yet
+     * fsyncIntervalMillis: 0 = fsync every batch, N = group commit every N ms, negative = no fsync
+     */
+    public void configureResultWriter(int queueCapacity, long fsyncIntervalMillis) {
+        lock.lock();
+        try {
+            if (resultWriter != null) {
+                System.err.println("[DataPersistence] Result writer already started; configuration ignored.");
+                return;
+            }
+            this.resultQueueCapacity = queueCapacity;
+            this.resultFsyncMillis = fsyncIntervalMillis;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write out any queued results and close the results file
+     */
+    public void closeResultWriter() {
+        ResultWriter writer;
+        lock.lock();
+        try {
+            writer = resultWriter;
+            resultWriter = null;
+        } finally {
+            lock.unlock();
+        }
+        if (writer != null) {
+            writer.close();
+        }
+
+        // Index the tail so the next start is map-and-go
+        lock.lock();
+        try {
+            if (resultStore != null) {
+                resultStore.writeIndex();
+            }
         } catch (IOException e) {
-            System.err.println("[DataPersistence] Error saving result: " + e.getMessage());
+            System.err.println("[DataPersistence] Error writing results index: " + e.getMessage());
+        } finally {
+            if (attemptHistory != null) {
+                attemptHistory.close();
+            }
+            lock.unlock();
         }
     }
 
+    /**
+     * Result writer counters for the server console
+     */
+    public String getResultWriterStats() {
+        ResultWriter writer = resultWriter;
+        String fsync = resultFsyncMillis < 0 ? "off" : resultFsyncMillis == 0 ? "every batch" : resultFsyncMillis + " ms";
+        return "Result Writer: fsync " + fsync + ", queue capacity " + resultQueueCapacity + "\n" +
+                (writer != null ? writer.getStats() : "Results Written: 0\n");
+    }
+
+    /**
+     * Format one results.txt line
+     */
+    static String formatResultLine(QuizResult result, SimpleDateFormat sdf) {
+        return String.format("%s|%s|%d|%d|%d|%d|%.2f|%s\n",
+                result.getStudentId(),
+                result.getStudentName(),
+                result.getTotalScore(),
+                result.getMaxScore(),
+                result.getCorrectAnswers(),
+                result.getTotalQuestions(),
+                result.getPercentage(),
+                sdf.format(result.getCompletionDate()));
+    }
+
     /**
      * Load all quiz results from file
+     * Keeps the latest attempt per student, read from the mapped result store
+     */
+    public Map<String, QuizResult> loadResults() {
+        lock.lock();
+        try {
+            ResultStore store = openResultStore();
+            if (store == null) {
+                return loadResultsFromText();
+            }
+            results.clear();
+            try {
+                store.refresh();
+            } catch (IOException e) {
+                System.err.println("[DataPersistence] Error refreshing result store: " + e.getMessage());
+            }
+            results.putAll(store.latestPerStudent());
+            System.out.println("[DataPersistence] Loaded " + results.size() + " results (" + store.size() +
+                    " attempts) from result store.");
+            return new HashMap<>(results);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Open the result store and the attempt history, importing results.txt or
+     * seeding the history if either is new. Called at startup so that the first
+     * saved result does not do this work while holding the persistence lock
+     */
+    public void openResultStores() {
+        openResultStore();
+        openAttemptHistory();
+    }
+
+    /**
+     * Decode every stored attempt in append order, without parsing results.txt
+     * Returns false if the result store is unavailable
+     */
+    public boolean forEachStoredResult(Consumer<QuizResult> consumer) {
+        ResultStore store = openResultStore();
+        if (store == null) {
+            return false;
+        }
+        store.forEach(consumer);
+        return true;
+    }
+
+    /**
+     * Every stored attempt by a student, oldest first
+     */
+    public List<QuizResult> findResultsByStudent(String studentId) {
+        ResultStore store = openResultStore();
+        return store != null ? store.findByStudent(studentId) : Collections.emptyList();
+    }
+
+    /**
+     * Stored attempts completed in [from, to), oldest first
+     */
+    public List<QuizResult> findResultsByCompletionTime(Date from, Date to) {
+        ResultStore store = openResultStore();
+        return store != null ? store.findByCompletionTime(from.getTime(), to.getTime()) : Collections.emptyList();
+    }
+
+    /**
+     * Open the result store, importing results.txt the first time
+     * Returns null if the store cannot be opened
      */
-    public synchronized Map<String, QuizResult> loadResults() {
+    private ResultStore openResultStore() {
+        lock.lock();
+        try {
+            if (resultStore != null) {
+                return resultStore;
+            }
+            ResultStore store = new ResultStore(dataFile(RESULTS_SEGMENT), dataFile(RESULTS_INDEX));
+            if (store.isEmpty() && dataFile(RESULTS_FILE).toFile().exists()) {
+                List<QuizResult> chunk = new ArrayList<>(IMPORT_CHUNK);
+                readResultsSince(0, result -> {
+                    chunk.add(result);
+                    if (chunk.size() == IMPORT_CHUNK) {
+                        appendChunk(store, chunk);
+                    }
+                });
+                appendChunk(store, chunk);
+                store.force();
+                store.writeIndex();
+                System.out.println("[DataPersistence] Imported " + store.size() + " results into result store.");
+            }
+            resultStore = store;
+            return store;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("[DataPersistence] Error opening result store: " + e.getMessage());
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Every attempt with its answers, brought up to date with attempts.dat
+     * Returns null if the history cannot be opened
+     */
+    public AttemptHistory getAttemptHistory() {
+        AttemptHistory history = openAttemptHistory();
+        if (history != null) {
+            try {
+                history.refresh();
+            } catch (IOException e) {
+                System.err.println("[DataPersistence] Error refreshing attempt history: " + e.getMessage());
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Open the attempt history; a new one is seeded with the attempts already in
+     * the result store (which were saved without their answers)
+     */
+    private AttemptHistory openAttemptHistory() {
+        lock.lock();
+        try {
+            if (attemptHistory != null) {
+                return attemptHistory;
+            }
+            AttemptHistory history = new AttemptHistory(dataFile(ATTEMPTS_FILE));
+            ResultStore store = openResultStore();
+            if (history.getAttemptCount() == 0 && store != null && !store.isEmpty()) {
+                List<QuizResult> chunk = new ArrayList<>(IMPORT_CHUNK);
+                store.forEach(result -> {
+                    chunk.add(result);
+                    if (chunk.size() == IMPORT_CHUNK) {
+                        appendChunk(history, chunk);
+                    }
+                });
+                appendChunk(history, chunk);
+                history.force();
+                System.out.println("[DataPersistence] Seeded attempt history with " + history.getAttemptCount() +
+                        " stored results.");
+            }
+            attemptHistory = history;
+            return history;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("[DataPersistence] Error opening attempt history: " + e.getMessage());
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void appendChunk(AttemptHistory history, List<QuizResult> chunk) {
+        try {
+            history.append(chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chunk.clear();
+    }
+
+    private static void appendChunk(ResultStore store, List<QuizResult> chunk) {
+        try {
+            store.append(chunk, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Load results by parsing results.txt (used if the result store is unavailable)
+     */
+    private Map<String, QuizResult> loadResultsFromText() {
         results.clear();
-        File file = new File(RESULTS_FILE);
+        File file = dataFile(RESULTS_FILE).toFile();
 
         if (!file.exists()) {
             System.out.println("[DataPersistence] Results file not found.");
             return new HashMap<>(results);
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+        SimpleDateFormat sdf = new SimpleDateFormat(RESULT_DATE_FORMAT);
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
             String line;
             while ((line = reader.readLine()) != null) {
                 if (line.trim().isEmpty() || line.startsWith("#")) {
@@ -232,19 +682,8 @@ public class DataPersistence {
                 }
 
                 try {
-                    String[] parts = line.split("\\|");
-                    if (parts.length == 8) {
-                        QuizResult result = new QuizResult();
-                        result.setStudentId(parts[0].trim());
-                        result.setStudentName(parts[1].trim());
-                        result.setTotalScore(Integer.parseInt(parts[2].trim()));
-                        result.setMaxScore(Integer.parseInt(parts[3].trim()));
-                        result.setCorrectAnswers(Integer.parseInt(parts[4].trim()));
-                        result.setTotalQuestions(Integer.parseInt(parts[5].trim()));
-
-                        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                        result.setCompletionDate(sdf.parse(parts[7].trim()));
-
+                    QuizResult result = parseResultLine(line, sdf);
+                    if (result != null) {
                         results.put(result.getStudentId(), result);
                     }
                 } catch (Exception e) {
@@ -259,46 +698,226 @@ public class DataPersistence {
         return new HashMap<>(results);
     }
 
+    /**
+     * Parse one results.txt line
+     * Format: studentId|studentName|score|maxScore|correct|total|percentage|date
+     * Returns null if the line does not have all fields
+     */
+    static QuizResult parseResultLine(String line, SimpleDateFormat sdf) throws Exception {
+        String[] parts = line.split("\\|");
+        if (parts.length != 8) {
+            return null;
+        }
+        QuizResult result = new QuizResult();
+        result.setStudentId(parts[0].trim());
+        result.setStudentName(parts[1].trim());
+        result.setTotalScore(Integer.parseInt(parts[2].trim()));
+        result.setMaxScore(Integer.parseInt(parts[3].trim()));
+        result.setCorrectAnswers(Integer.parseInt(parts[4].trim()));
+        result.setTotalQuestions(Integer.parseInt(parts[5].trim()));
+        result.setCompletionDate(sdf.parse(parts[7].trim()));
+        return result;
+    }
+
+    /**
+     * Parse every complete result line appended after a byte offset.
+     * Does not take the persistence lock; a line still being written is left
+     * for the next call. Returns the offset just past the last complete line.
+     */
+    public long readResultsSince(long offset, Consumer<QuizResult> consumer) {
+        File file = dataFile(RESULTS_FILE).toFile();
+        if (!file.exists() || file.length() <= offset) {
+            return offset;
+        }
+
+        SimpleDateFormat sdf = new SimpleDateFormat(RESULT_DATE_FORMAT);
+        long position = offset;
+        try (FileInputStream in = new FileInputStream(file)) {
+            in.getChannel().position(offset);
+            byte[] buffer = new byte[64 * 1024];
+            int filled = 0;
+            int read;
+            while ((read = in.read(buffer, filled, buffer.length - filled)) > 0) {
+                filled += read;
+                int start = 0;
+                for (int i = 0; i < filled; i++) {
+                    if (buffer[i] != '\n') {
+                        continue;
+                    }
+                    String text = new String(buffer, start, i - start, StandardCharsets.UTF_8);
+                    position += i - start + 1;
+                    start = i + 1;
+                    if (text.trim().isEmpty() || text.startsWith("#")) {
+                        continue;
+                    }
+                    try {
+                        QuizResult result = parseResultLine(text, sdf);
+                        if (result != null) {
+                            consumer.accept(result);
+                        }
+                    } catch (Exception e) {
+                        System.err.println("[DataPersistence] Error parsing result: " + text);
+                    }
+                }
+                // Keep the incomplete last line; grow if one line fills the buffer
+                System.arraycopy(buffer, start, buffer, 0, filled - start);
+                filled -= start;
+                if (filled == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[DataPersistence] Error reading results: " + e.getMessage());
+        }
+        return position;
+    }
+
     /**
      * Get all questions
      */
-    public synchronized List<Question> getQuestions() {
-        return new ArrayList<>(questions);
+    public List<Question> getQuestions() {
+        lock.lock();
+        try {
+            return new ArrayList<>(questions.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the current question bank version
+     */
+    public long getQuestionsVersion() {
+        return questionsVersion;
+    }
+
+    /**
+     * Get an immutable, indexed snapshot of the current questions
+     * Built at most once per question bank version
+     */
+    public QuestionBank getQuestionBank() {
+        QuestionBank bank = questionBank;
+        if (bank != null && bank.getVersion() == questionsVersion) {
+            return bank;
+        }
+        lock.lock();
+        try {
+            bank = questionBank;
+            if (bank == null || bank.getVersion() != questionsVersion) {
+                bank = new QuestionBank(questionsVersion, new ArrayList<>(questions.values()));
+                questionBank = bank;
+            }
+            return bank;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Get all results
      */
-    public synchronized Map<String, QuizResult> getResults() {
-        return new HashMap<>(results);
+    public Map<String, QuizResult> getResults() {
+        lock.lock();
+        try {
+            return new HashMap<>(results);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Add a new question
+     * Add a new question (replaces an existing question with the same ID)
      */
-    public synchronized void addQuestion(Question question) {
-        questions.add(question);
-        saveQuestions();
+    public void addQuestion(Question question) {
+        applyQuestionMutations(Collections.singletonList(QuestionMutation.add(question)));
     }
 
     /**
      * Update an existing question
      */
-    public synchronized void updateQuestion(Question question) {
-        for (int i = 0; i < questions.size(); i++) {
-            if (questions.get(i).getQuestionId() == question.getQuestionId()) {
-                questions.set(i, question);
-                saveQuestions();
-                return;
+    public void updateQuestion(Question question) {
+        applyQuestionMutations(Collections.singletonList(QuestionMutation.update(question)));
+    }
+
+    /**
+     * Delete a question
+     */
+    public void deleteQuestion(int questionId) {
+        applyQuestionMutations(Collections.singletonList(QuestionMutation.delete(questionId)));
+    }
+
+    /**
+     * Apply a batch of question edits
+     * The whole batch is one journal append and one fsync, and one new
+     * question bank version. Returns the number of edits that changed something.
+     */
+    public int applyQuestionMutations(List<QuestionMutation> mutations) {
+        int applied = 0;
+        lock.lock();
+        try {
+            StringBuilder records = new StringBuilder();
+            for (QuestionMutation mutation : mutations) {
+                switch (mutation.getType()) {
+                    case ADD:
+                        putQuestion(mutation.getQuestion());
+                        break;
+                    case UPDATE:
+                        if (!questions.containsKey(mutation.getQuestionId())) {
+                            continue;
+                        }
+                        putQuestion(mutation.getQuestion());
+                        break;
+                    case DELETE:
+                        if (questions.remove(mutation.getQuestionId()) == null) {
+                            continue;
+                        }
+                        break;
+                }
+                records.append(mutation.getType()).append('|')
+                        .append(mutation.getType() == QuestionMutation.Type.DELETE
+                                ? String.valueOf(mutation.getQuestionId())
+                                : formatQuestionLine(mutation.getQuestion()))
+                        .append('\n');
+                applied++;
+            }
+
+            if (applied == 0) {
+                return 0;
+            }
+            questionsVersion++;
+            try {
+                questionJournal.append(records.toString(), applied);
+                System.out.println("[DataPersistence] Journaled " + applied + " question edits.");
+            } catch (IOException e) {
+                System.err.println("[DataPersistence] Error saving questions: " + e.getMessage());
+            }
+
+            if (questionJournal.getRecordCount() >= COMPACT_MIN_RECORDS
+                    && questionJournal.getRecordCount() >= questions.size()) {
+                scheduleCompaction();
             }
+            return applied;
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * Delete a question
+     * Run compactQuestions() on the compactor thread unless it is already pending
      */
-    public synchronized void deleteQuestion(int questionId) {
-        questions.removeIf(q -> q.getQuestionId() == questionId);
-        saveQuestions();
+    private void scheduleCompaction() {
+        if (compactionScheduled.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                compactionScheduled.set(false);
+                compactQuestions();
+            });
+        }
+    }
+
+    /**
+     * Insert or replace a question by ID (caller holds the lock)
+     */
+    private void putQuestion(Question question) {
+        questions.put(question.getQuestionId(), question);
     }
 }
@@ -0,0 +1,110 @@
+package utils;
+
+import models.Message;
+import models.Question;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ExamPayload Class
+ * Seals the redacted question list for a scheduled exam, so it can be pushed
+ * to the waiting room ahead of time and opened only once START_QUIZ delivers the key
+ * - AES-GCM with a fresh 128-bit key per exam; the sealed text is
+ *   Base64(IV || ciphertext) of the list's BINARY frame
+ * - Both halves travel as plain Strings, so every wire format can carry them
+ * - The waiting-room CONNECT reply announces the start, so a client can stop
+ *   waiting for a START_QUIZ it never got
+ */
+public final class ExamPayload {
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int KEY_BYTES = 16;
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final String WAITING_NOTICE = " (waiting room: the exam starts in %d seconds)";
+    private static final Pattern WAITING_PATTERN = Pattern.compile("\\(waiting room: the exam starts in (\\d+) seconds\\)");
+
+    private ExamPayload() {
+    }
+
+    /**
+     * A new random exam key (Base64)
+     */
+    public static String newKey() {
+        byte[] key = new byte[KEY_BYTES];
+        RANDOM.nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    /**
+     * Encrypt the (already redacted) questions under the exam key
+     */
+    public static String seal(List<Question> questions, String key) throws IOException {
+        byte[] frame = WireFormat.BINARY.encodeFrame(new Message(Message.SUCCESS, new ArrayList<>(questions)));
+        byte[] iv = new byte[IV_BYTES];
+        RANDOM.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, secretKey(key), new GCMParameterSpec(TAG_BITS, iv));
+            byte[] sealed = new byte[IV_BYTES + cipher.getOutputSize(frame.length)];
+            System.arraycopy(iv, 0, sealed, 0, IV_BYTES);
+            cipher.doFinal(frame, 0, frame.length, sealed, IV_BYTES);
+            return Base64.getEncoder().encodeToString(sealed);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Cannot seal exam payload: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decrypt and decode a sealed payload; fails if the key is wrong or the text was altered
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Question> open(String sealedText, String key) throws IOException {
+        byte[] sealed = Base64.getDecoder().decode(sealedText);
+        if (sealed.length <= IV_BYTES) {
+            throw new IOException("Exam payload is truncated");
+        }
+        byte[] frame;
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, secretKey(key), new GCMParameterSpec(TAG_BITS, sealed, 0, IV_BYTES));
+            frame = cipher.doFinal(sealed, IV_BYTES, sealed.length - IV_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Cannot open exam payload: " + e.getMessage(), e);
+        }
+        Message message = WireFormat.BINARY.decodePayload(frame, MessageFraming.HEADER_SIZE,
+                frame.length - MessageFraming.HEADER_SIZE);
+        return (List<Question>) message.getData();
+    }
+
+    /**
+     * The part of the waiting-room CONNECT reply that announces the start
+     */
+    public static String waitingNotice(long waitMillis) {
+        return String.format(WAITING_NOTICE, TimeUnit.MILLISECONDS.toSeconds(waitMillis));
+    }
+
+    /**
+     * Milliseconds until the start announced in a CONNECT reply, or -1 if it announces none
+     */
+    public static long announcedWait(String reply) {
+        Matcher matcher = WAITING_PATTERN.matcher(reply != null ? reply : "");
+        return matcher.find() ? TimeUnit.SECONDS.toMillis(Long.parseLong(matcher.group(1))) : -1;
+    }
+
+    private static SecretKeySpec secretKey(String key) {
+        return new SecretKeySpec(Base64.getDecoder().decode(key), "AES");
+    }
+}
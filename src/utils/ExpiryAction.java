@@ -0,0 +1,26 @@
+package utils;
+
+/**
+ * ExpiryAction Enum
+ * What the QuizEvaluator does with a session that times out
+ */
+public enum ExpiryAction {
+
+    /** Finalize the session and save its result, as if the student had asked for it */
+    FINALIZE,
+
+    /** Drop the session without saving a result */
+    DISCARD;
+
+    /**
+     * Parse an action name from the command line (case-insensitive)
+     */
+    public static ExpiryAction fromString(String value) {
+        for (ExpiryAction action : values()) {
+            if (action.name().equalsIgnoreCase(value)) {
+                return action;
+            }
+        }
+        throw new IllegalArgumentException("Unknown session expiry action: " + value);
+    }
+}
@@ -0,0 +1,243 @@
+package utils;
+
+import models.RankInfo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Leaderboard Class
+ * Live ranking of students by score
+ * - Score-bucketed Fenwick tree: bucket s counts the students with score s
+ * - Rank, percentile and the k-th position are O(log S) (S = highest score seen)
+ * - Top-K and the range around a student are O(K log S)
+ * - Updates swap a student between buckets in O(log S)
+ * - Readers share a read lock; updates take the write lock
+ *
+ * Tied scores share a rank (1 = top). Within a bucket students have no defined order.
+ */
+public class Leaderboard {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    // Fenwick tree over score buckets, 1-based: tree[i] covers buckets (i - lowbit(i), i]
+    private int[] tree;
+    private List<List<Entry>> buckets;
+
+    public Leaderboard() {
+        this.tree = new int[INITIAL_CAPACITY + 1];
+        this.buckets = new ArrayList<>(INITIAL_CAPACITY);
+        for (int i = 0; i < INITIAL_CAPACITY; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Insert a student or move them to a new score
+     */
+    public void update(String studentId, String studentName, int score) {
+        int bucket = Math.max(0, score);
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(studentId);
+            if (entry == null) {
+                entry = new Entry(studentId, studentName);
+                entries.put(studentId, entry);
+            } else {
+                entry.studentName = studentName;
+                if (entry.score == bucket) {
+                    return;
+                }
+                removeFromBucket(entry);
+            }
+            ensureCapacity(bucket);
+            entry.score = bucket;
+            addToBucket(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Take a student off the leaderboard
+     */
+    public void remove(String studentId) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.remove(studentId);
+            if (entry != null) {
+                removeFromBucket(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rank and percentile of one student, with up to `window` neighbours on
+     * each side in getNearby(); null if the student is not ranked
+     */
+    public RankInfo getRank(String studentId, int window) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(studentId);
+            if (entry == null) {
+                return null;
+            }
+            RankInfo info = toRankInfo(entry);
+            if (window > 0) {
+                int position = countAbove(entry.score) + entry.slot;
+                int from = Math.max(0, position - window);
+                int to = Math.min(entries.size() - 1, position + window);
+                for (int p = from; p <= to; p++) {
+                    info.getNearby().add(toRankInfo(entryAt(p)));
+                }
+            }
+            return info;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The best k students, highest score first
+     */
+    public List<RankInfo> getTop(int k) {
+        lock.readLock().lock();
+        try {
+            int count = Math.min(k, entries.size());
+            List<RankInfo> top = new ArrayList<>(count);
+            for (int p = 0; p < count; p++) {
+                top.add(toRankInfo(entryAt(p)));
+            }
+            return top;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Internals (caller holds the lock) ====================
+
+    private RankInfo toRankInfo(Entry entry) {
+        int total = entries.size();
+        int above = countAbove(entry.score);
+        int below = prefix(entry.score); // buckets 0..score-1
+        double percentile = total <= 1 ? 100.0 : below * 100.0 / (total - 1);
+        return new RankInfo(entry.studentId, entry.studentName, entry.score, above + 1, total, percentile);
+    }
+
+    /**
+     * Entry at a 0-based position counted from the top
+     */
+    private Entry entryAt(int position) {
+        // Position from the bottom, then find the bucket holding it
+        int fromBottom = entries.size() - 1 - position;
+        int index = 0;
+        int remaining = fromBottom;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next < tree.length && tree[next] <= remaining) {
+                index = next;
+                remaining -= tree[next];
+            }
+        }
+        // index = number of buckets entirely below; the entry is in bucket `index`
+        List<Entry> bucket = buckets.get(index);
+        return bucket.get(bucket.size() - 1 - remaining);
+    }
+
+    /**
+     * Number of students with a score strictly above this one
+     */
+    private int countAbove(int score) {
+        return entries.size() - prefix(score + 1);
+    }
+
+    /**
+     * Number of students in buckets 0..end-1
+     */
+    private int prefix(int end) {
+        int sum = 0;
+        for (int i = Math.min(end, tree.length - 1); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void add(int bucket, int delta) {
+        for (int i = bucket + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void addToBucket(Entry entry) {
+        List<Entry> bucket = buckets.get(entry.score);
+        entry.slot = bucket.size();
+        bucket.add(entry);
+        add(entry.score, 1);
+    }
+
+    /**
+     * Swap-remove so the bucket stays dense and indexable
+     */
+    private void removeFromBucket(Entry entry) {
+        List<Entry> bucket = buckets.get(entry.score);
+        Entry last = bucket.remove(bucket.size() - 1);
+        if (last != entry) {
+            bucket.set(entry.slot, last);
+            last.slot = entry.slot;
+        }
+        add(entry.score, -1);
+    }
+
+    /**
+     * Grow to hold a new highest score; rebuilds the tree in O(S)
+     */
+    private void ensureCapacity(int score) {
+        int capacity = buckets.size();
+        if (score < capacity) {
+            return;
+        }
+        while (capacity <= score) {
+            capacity <<= 1;
+        }
+        while (buckets.size() < capacity) {
+            buckets.add(new ArrayList<>());
+        }
+        tree = new int[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            tree[i] += buckets.get(i - 1).size();
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private static final class Entry {
+        final String studentId;
+        String studentName;
+        int score;
+        int slot; // index in its bucket
+
+        Entry(String studentId, String studentName) {
+            this.studentId = studentId;
+            this.studentName = studentName;
+        }
+    }
+}
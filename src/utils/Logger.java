@@ -0,0 +1,332 @@
+package utils;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logger Class
+ * Levelled server log whose lines are formatted and written off the calling thread
+ * - Callers claim a slot in one preallocated ring buffer and store the format
+ *   string and argument references; no string is built on the calling thread
+ * - A single "log-writer" thread formats waiting events (String.format syntax)
+ *   and prints each batch with one System.out / System.err call
+ * - A disabled level returns after one volatile read; the fixed-arity
+ *   methods allocate nothing (pass Strings, booleans and small ints, or guard
+ *   costlier arguments with isEnabled)
+ * - If the ring is full the event is dropped and counted rather than
+ *   stalling the caller
+ *
+ * Lines keep the existing "[Source] message" layout; WARN and ERROR go to
+ * System.err. Arguments are formatted later, so pass values, not objects
+ * that will change.
+ */
+public final class Logger {
+
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF;
+
+        public static Level fromString(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown log level: " + value);
+            }
+        }
+    }
+
+    private static final int CAPACITY = 8192; // power of two
+    private static final int MAX_ARGS = 5;
+    private static final int MAX_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static volatile Level level = Level.INFO;
+    private static volatile boolean async = true;
+
+    private static final Event[] ring = new Event[CAPACITY];
+    private static final AtomicLong claimed = new AtomicLong();
+    private static final AtomicLong consumed = new AtomicLong();
+    private static final LongAdder dropped = new LongAdder();
+    private static volatile boolean writerParked;
+    private static final Thread writer;
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            ring[i] = new Event(i - CAPACITY);
+        }
+        writer = new Thread(Logger::drainLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(1000), "log-flush"));
+    }
+
+    private final String prefix;
+
+    private Logger(String source) {
+        this.prefix = "[" + source + "] ";
+    }
+
+    public static Logger get(String source) {
+        return new Logger(source);
+    }
+
+    /**
+     * Set the minimum level and whether lines are written on the log thread
+     * (async) or directly by the caller, as plain println did
+     */
+    public static void configure(Level minimumLevel, boolean writeAsync) {
+        level = minimumLevel;
+        if (!writeAsync) {
+            flush(1000);
+        }
+        async = writeAsync;
+    }
+
+    public static void setLevel(Level minimumLevel) {
+        level = minimumLevel;
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public boolean isEnabled(Level candidate) {
+        return candidate.compareTo(level) >= 0 && candidate != Level.OFF;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public boolean isInfoEnabled() {
+        return isEnabled(Level.INFO);
+    }
+
+    public void debug(String format) {
+        log(Level.DEBUG, format, 0, null, null, null, null, null);
+    }
+
+    public void debug(String format, Object a0) {
+        log(Level.DEBUG, format, 1, a0, null, null, null, null);
+    }
+
+    public void debug(String format, Object a0, Object a1) {
+        log(Level.DEBUG, format, 2, a0, a1, null, null, null);
+    }
+
+    public void debug(String format, Object a0, Object a1, Object a2) {
+        log(Level.DEBUG, format, 3, a0, a1, a2, null, null);
+    }
+
+    public void debug(String format, Object a0, Object a1, Object a2, Object a3) {
+        log(Level.DEBUG, format, 4, a0, a1, a2, a3, null);
+    }
+
+    public void debug(String format, Object a0, Object a1, Object a2, Object a3, Object a4) {
+        log(Level.DEBUG, format, 5, a0, a1, a2, a3, a4);
+    }
+
+    public void info(String format) {
+        log(Level.INFO, format, 0, null, null, null, null, null);
+    }
+
+    public void info(String format, Object a0) {
+        log(Level.INFO, format, 1, a0, null, null, null, null);
+    }
+
+    public void info(String format, Object a0, Object a1) {
+        log(Level.INFO, format, 2, a0, a1, null, null, null);
+    }
+
+    public void info(String format, Object a0, Object a1, Object a2) {
+        log(Level.INFO, format, 3, a0, a1, a2, null, null);
+    }
+
+    public void info(String format, Object a0, Object a1, Object a2, Object a3) {
+        log(Level.INFO, format, 4, a0, a1, a2, a3, null);
+    }
+
+    public void info(String format, Object a0, Object a1, Object a2, Object a3, Object a4) {
+        log(Level.INFO, format, 5, a0, a1, a2, a3, a4);
+    }
+
+    public void warn(String format) {
+        log(Level.WARN, format, 0, null, null, null, null, null);
+    }
+
+    public void warn(String format, Object a0) {
+        log(Level.WARN, format, 1, a0, null, null, null, null);
+    }
+
+    public void warn(String format, Object a0, Object a1) {
+        log(Level.WARN, format, 2, a0, a1, null, null, null);
+    }
+
+    public void warn(String format, Object a0, Object a1, Object a2) {
+        log(Level.WARN, format, 3, a0, a1, a2, null, null);
+    }
+
+    public void error(String format) {
+        log(Level.ERROR, format, 0, null, null, null, null, null);
+    }
+
+    public void error(String format, Object a0) {
+        log(Level.ERROR, format, 1, a0, null, null, null, null);
+    }
+
+    public void error(String format, Object a0, Object a1) {
+        log(Level.ERROR, format, 2, a0, a1, null, null, null);
+    }
+
+    public void error(String format, Object a0, Object a1, Object a2) {
+        log(Level.ERROR, format, 3, a0, a1, a2, null, null);
+    }
+
+    private void log(Level eventLevel, String format, int argCount,
+            Object a0, Object a1, Object a2, Object a3, Object a4) {
+        if (eventLevel.compareTo(level) < 0) {
+            return;
+        }
+        if (!async) {
+            String line = format(prefix, format, argCount, a0, a1, a2, a3, a4);
+            (eventLevel.compareTo(Level.WARN) >= 0 ? System.err : System.out).println(line);
+            return;
+        }
+
+        // Claim a slot unless the writer is a full ring behind
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= CAPACITY) {
+                dropped.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        Event event = ring[(int) (sequence & (CAPACITY - 1))];
+        event.level = eventLevel;
+        event.prefix = prefix;
+        event.format = format;
+        event.argCount = argCount;
+        Object[] args = event.args;
+        args[0] = a0;
+        args[1] = a1;
+        args[2] = a2;
+        args[3] = a3;
+        args[4] = a4;
+        event.published = sequence; // volatile write publishes the fields above
+
+        if (writerParked) {
+            writerParked = false;
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Wait (up to the timeout) until every event logged so far is written
+     */
+    public static void flush(long timeoutMillis) {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (consumed.get() < target && System.nanoTime() < deadline) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static void drainLoop() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        StringBuilder err = new StringBuilder(1024);
+        long reportedDrops = 0;
+        while (true) {
+            long next = consumed.get();
+            int batch = 0;
+            Event event;
+            while (batch < MAX_BATCH
+                    && (event = ring[(int) (next & (CAPACITY - 1))]).published == next) {
+                String line;
+                try {
+                    line = format(event.prefix, event.format, event.argCount, event.args[0], event.args[1],
+                            event.args[2], event.args[3], event.args[4]);
+                } catch (RuntimeException e) {
+                    line = event.prefix + event.format + " (bad log arguments: " + e + ")";
+                }
+                (event.level.compareTo(Level.WARN) >= 0 ? err : out).append(line).append(System.lineSeparator());
+                Object[] args = event.args;
+                for (int i = 0; i < MAX_ARGS; i++) {
+                    args[i] = null;
+                }
+                next++;
+                batch++;
+            }
+
+            if (batch > 0) {
+                if (out.length() > 0) {
+                    System.out.print(out);
+                    System.out.flush();
+                    out.setLength(0);
+                }
+                if (err.length() > 0) {
+                    System.err.print(err);
+                    System.err.flush();
+                    err.setLength(0);
+                }
+                consumed.set(next); // frees the slots for producers
+                continue;
+            }
+
+            long drops = dropped.sum();
+            if (drops > reportedDrops) {
+                System.err.println("[Logger] " + (drops - reportedDrops) + " log lines dropped (ring buffer full)");
+                reportedDrops = drops;
+            }
+
+            // Nothing to write: park until a producer wakes us (recheck first to avoid a lost wake-up)
+            writerParked = true;
+            if (ring[(int) (next & (CAPACITY - 1))].published != next) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            writerParked = false;
+        }
+    }
+
+    private static String format(String prefix, String format, int argCount,
+            Object a0, Object a1, Object a2, Object a3, Object a4) {
+        switch (argCount) {
+            case 0:
+                return prefix + format;
+            case 1:
+                return prefix + String.format(format, a0);
+            case 2:
+                return prefix + String.format(format, a0, a1);
+            case 3:
+                return prefix + String.format(format, a0, a1, a2);
+            case 4:
+                return prefix + String.format(format, a0, a1, a2, a3);
+            default:
+                return prefix + String.format(format, a0, a1, a2, a3, a4);
+        }
+    }
+
+    /**
+     * One ring slot, reused forever
+     */
+    private static final class Event {
+        volatile long published;
+        Level level;
+        String prefix;
+        String format;
+        int argCount;
+        final Object[] args = new Object[MAX_ARGS];
+
+        Event(long initialSequence) {
+            this.published = initialSequence;
+        }
+    }
+}
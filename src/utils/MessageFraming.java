@@ -0,0 +1,86 @@
+package utils;
+
+import models.Message;
+
+import java.io.*;
+
+/**
+ * MessageFraming Class
+ * Length-prefixed framing of Message objects for non-blocking transports
+ * - Each frame is a 4-byte big-endian length followed by the payload
+ * - The payload is a self-contained Java serialization of one Message
+ * - Used by the NIO server mode and by clients started in framed mode
+ */
+public class MessageFraming {
+
+    public static final int HEADER_SIZE = 4;
+
+    // Default cap on one frame, sized for the largest real message (the full
+    // question list); larger banks should page or raise it with configureMaxFrameSize
+    public static final int DEFAULT_MAX_FRAME_SIZE = 2 * 1024 * 1024;
+
+    // Frames are read into a buffer of this size that grows only as bytes arrive,
+    // so a length header alone never makes the reader allocate the whole frame
+    public static final int INITIAL_READ_SIZE = 64 * 1024;
+
+    private static volatile int maxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+
+    private MessageFraming() {
+    }
+
+    /**
+     * Encode a message as a complete frame (length header + payload)
+     */
+    public static byte[] toFrame(Message message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeInt(0); // placeholder for the length header
+
+        ObjectOutputStream out = new ObjectOutputStream(data);
+        out.writeObject(message);
+        out.flush();
+
+        byte[] frame = bytes.toByteArray();
+        int payloadLength = frame.length - HEADER_SIZE;
+        frame[0] = (byte) (payloadLength >>> 24);
+        frame[1] = (byte) (payloadLength >>> 16);
+        frame[2] = (byte) (payloadLength >>> 8);
+        frame[3] = (byte) payloadLength;
+        return frame;
+    }
+
+    /**
+     * Decode the payload of a single frame back into a Message
+     */
+    public static Message fromPayload(byte[] buffer, int offset, int length) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer, offset, length))) {
+            Object obj = in.readObject();
+            if (!(obj instanceof Message)) {
+                throw new IOException("Frame does not contain a Message: " + obj);
+            }
+            return (Message) obj;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown object in frame: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Largest payload accepted from a peer, in bytes (applies to every connection)
+     */
+    public static void configureMaxFrameSize(int bytes) {
+        maxFrameSize = Math.max(INITIAL_READ_SIZE, bytes);
+    }
+
+    public static int getMaxFrameSize() {
+        return maxFrameSize;
+    }
+
+    /**
+     * Reject negative or oversized frame lengths before allocating buffers
+     */
+    public static void checkFrameLength(int length) throws IOException {
+        if (length < 0 || length > maxFrameSize) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+    }
+}
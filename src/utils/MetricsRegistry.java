@@ -0,0 +1,275 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * MetricsRegistry Class
+ * Process-wide counters, gauges and latency histograms, exposed in the
+ * Prometheus text format and as a console summary
+ * - Metrics are created on first use and live for the life of the process
+ * - A metric family may carry one label (e.g. the message type)
+ * - Recording is lock-free: LongAdder counts, fixed histogram buckets
+ */
+public final class MetricsRegistry {
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    // Histogram upper bounds, 10 us to 10 s
+    private static final long[] BUCKET_BOUNDS_NANOS = {
+            10_000L, 25_000L, 50_000L, 100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+            100_000_000L, 250_000_000L, 500_000_000L,
+            1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L
+    };
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public Counter counter(String name, String help) {
+        return counter(name, help, null, null);
+    }
+
+    public Counter counter(String name, String help, String labelName, String labelValue) {
+        return (Counter) family(name, help, Type.COUNTER, labelName).metric(labelValue, Counter::new);
+    }
+
+    public Histogram histogram(String name, String help) {
+        return histogram(name, help, null, null);
+    }
+
+    public Histogram histogram(String name, String help, String labelName, String labelValue) {
+        return (Histogram) family(name, help, Type.HISTOGRAM, labelName).metric(labelValue, Histogram::new);
+    }
+
+    /**
+     * Register a gauge read on every scrape; re-registering replaces the supplier
+     */
+    public void gauge(String name, String help, LongSupplier value) {
+        family(name, help, Type.GAUGE, null).metrics.put("", new Gauge(value));
+    }
+
+    private Family family(String name, String help, Type type, String labelName) {
+        Family family = families.computeIfAbsent(name, n -> new Family(n, help, type, labelName));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already a " + family.type);
+        }
+        return family;
+    }
+
+    /**
+     * Every metric in the Prometheus text exposition format (version 0.0.4)
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family family : sortedFamilies()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type.name().toLowerCase()).append('\n');
+            for (String labelValue : family.sortedLabelValues()) {
+                Object metric = family.metrics.get(labelValue);
+                String labels = family.labelName == null ? "" : family.labelName + "=\"" + escape(labelValue) + "\"";
+                if (metric instanceof Histogram) {
+                    ((Histogram) metric).appendTo(out, family.name, labels);
+                } else {
+                    out.append(family.name).append(braces(labels)).append(' ')
+                            .append(metric instanceof Counter ? ((Counter) metric).get() : ((Gauge) metric).get())
+                            .append('\n');
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * One line per metric for the console: values, and for histograms the
+     * count, mean and estimated p50/p99 in milliseconds
+     */
+    public String getSummary() {
+        StringBuilder out = new StringBuilder();
+        out.append("\n========== METRICS ==========\n");
+        for (Family family : sortedFamilies()) {
+            for (String labelValue : family.sortedLabelValues()) {
+                Object metric = family.metrics.get(labelValue);
+                String name = family.name + (family.labelName == null ? "" : "{" + family.labelName + "=" + labelValue + "}");
+                if (metric instanceof Histogram) {
+                    Histogram histogram = (Histogram) metric;
+                    out.append(String.format("%-52s n=%-9d mean %8.3f ms  p50 %8.3f ms  p99 %8.3f ms%n",
+                            name, histogram.getCount(), histogram.getMeanNanos() / 1e6,
+                            histogram.getPercentileNanos(50) / 1e6, histogram.getPercentileNanos(99) / 1e6));
+                } else {
+                    out.append(String.format("%-52s %d%n", name,
+                            metric instanceof Counter ? ((Counter) metric).get() : ((Gauge) metric).get()));
+                }
+            }
+        }
+        out.append("=============================\n");
+        return out.toString();
+    }
+
+    private List<Family> sortedFamilies() {
+        List<Family> sorted = new ArrayList<>(families.values());
+        sorted.sort((a, b) -> a.name.compareTo(b.name));
+        return sorted;
+    }
+
+    private static String braces(String labels) {
+        return labels.isEmpty() ? "" : "{" + labels + "}";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private enum Type {
+        COUNTER, GAUGE, HISTOGRAM
+    }
+
+    private static final class Family {
+        final String name;
+        final String help;
+        final Type type;
+        final String labelName;
+        final Map<String, Object> metrics = new ConcurrentHashMap<>();
+
+        Family(String name, String help, Type type, String labelName) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.labelName = labelName;
+        }
+
+        Object metric(String labelValue, Supplier<Object> factory) {
+            String key = labelValue == null ? "" : labelValue;
+            Object metric = metrics.get(key);
+            return metric != null ? metric : metrics.computeIfAbsent(key, k -> factory.get());
+        }
+
+        List<String> sortedLabelValues() {
+            List<String> values = new ArrayList<>(metrics.keySet());
+            Collections.sort(values);
+            return values;
+        }
+    }
+
+    /**
+     * Monotonic count
+     */
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    private static final class Gauge {
+        private final LongSupplier supplier;
+
+        Gauge(LongSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        long get() {
+            return supplier.getAsLong();
+        }
+    }
+
+    /**
+     * Latency distribution over fixed buckets (10 us to 10 s, plus +Inf)
+     */
+    public static final class Histogram {
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_NANOS.length + 1];
+        private final LongAdder sumNanos = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void observeNanos(long nanos) {
+            int i = 0;
+            while (i < BUCKET_BOUNDS_NANOS.length && nanos > BUCKET_BOUNDS_NANOS[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            sumNanos.add(Math.max(0, nanos));
+        }
+
+        /**
+         * Observe the time since a System.nanoTime() reading
+         */
+        public void observeSince(long startNanos) {
+            observeNanos(System.nanoTime() - startNanos);
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        public double getMeanNanos() {
+            long count = getCount();
+            return count == 0 ? 0 : (double) sumNanos.sum() / count;
+        }
+
+        /**
+         * Upper bound of the bucket holding the percentile (the largest
+         * finite bound if it falls in +Inf)
+         */
+        public long getPercentileNanos(double percentile) {
+            long count = getCount();
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_NANOS.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank) {
+                    return BUCKET_BOUNDS_NANOS[i];
+                }
+            }
+            return BUCKET_BOUNDS_NANOS[BUCKET_BOUNDS_NANOS.length - 1];
+        }
+
+        private void appendTo(StringBuilder out, String name, String labels) {
+            String prefix = labels.isEmpty() ? "" : labels + ",";
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i].sum();
+                String bound = i < BUCKET_BOUNDS_NANOS.length
+                        ? Double.toString(BUCKET_BOUNDS_NANOS[i] / (double) TimeUnit.SECONDS.toNanos(1)) : "+Inf";
+                out.append(name).append("_bucket{").append(prefix).append("le=\"").append(bound).append("\"} ")
+                        .append(cumulative).append('\n');
+            }
+            out.append(name).append("_sum").append(braces(labels)).append(' ')
+                    .append(sumNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1)).append('\n');
+            out.append(name).append("_count").append(braces(labels)).append(' ').append(cumulative).append('\n');
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package utils;
+
+import models.Question;
+
+import java.util.*;
+
+/**
+ * QuestionBank Class
+ * Immutable, versioned snapshot of the question bank
+ * - O(1) lookup by questionId (dense array when ids are compact,
+ *   open-addressing int map otherwise), of the question or its position
+ *   in bank order
+ * - Precomputed max score and per-category question counts and points
+ * - Published through a single volatile reference; a new bank is built
+ *   for every change instead of mutating this one
+ *
+ * Question objects are shared with DataPersistence and must be treated as read-only.
+ */
+public final class QuestionBank {
+
+    // Use a dense array when it wastes at most this many slots per question
+    private static final int DENSE_SLACK = 4;
+
+    private final long version;
+    private final List<Question> questions;
+    private final int maxScore;
+    private final Map<String, Integer> categoryQuestionCounts;
+    private final Map<String, Integer> categoryPoints;
+
+    // Dense index: denseById[questionId - minId], position in denseIndex
+    private final Question[] denseById;
+    private final int[] denseIndex;
+    private final int minId;
+
+    // Sparse index: open addressing with linear probing
+    private final int[] sparseKeys;
+    private final Question[] sparseValues;
+    private final int[] sparseIndex;
+
+    public QuestionBank(long version, List<Question> source) {
+        this.version = version;
+        this.questions = Collections.unmodifiableList(new ArrayList<>(source));
+
+        int total = 0;
+        int lowest = Integer.MAX_VALUE;
+        int highest = Integer.MIN_VALUE;
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        Map<String, Integer> points = new LinkedHashMap<>();
+        for (Question q : questions) {
+            total += q.getPoints();
+            lowest = Math.min(lowest, q.getQuestionId());
+            highest = Math.max(highest, q.getQuestionId());
+            counts.merge(q.getCategory(), 1, Integer::sum);
+            points.merge(q.getCategory(), q.getPoints(), Integer::sum);
+        }
+        this.maxScore = total;
+        this.categoryQuestionCounts = Collections.unmodifiableMap(counts);
+        this.categoryPoints = Collections.unmodifiableMap(points);
+
+        long span = questions.isEmpty() ? 0 : (long) highest - lowest + 1;
+        if (span <= (long) questions.size() * DENSE_SLACK + 16) {
+            this.minId = questions.isEmpty() ? 0 : lowest;
+            this.denseById = new Question[(int) span];
+            this.denseIndex = new int[(int) span];
+            for (int i = 0; i < questions.size(); i++) {
+                Question q = questions.get(i);
+                denseById[q.getQuestionId() - minId] = q;
+                denseIndex[q.getQuestionId() - minId] = i;
+            }
+            this.sparseKeys = null;
+            this.sparseValues = null;
+            this.sparseIndex = null;
+        } else {
+            this.minId = 0;
+            this.denseById = null;
+            this.denseIndex = null;
+            int capacity = Integer.highestOneBit(questions.size() * 2 - 1) << 1;
+            this.sparseKeys = new int[capacity];
+            this.sparseValues = new Question[capacity];
+            this.sparseIndex = new int[capacity];
+            for (int i = 0; i < questions.size(); i++) {
+                Question q = questions.get(i);
+                int slot = slotFor(q.getQuestionId());
+                sparseKeys[slot] = q.getQuestionId();
+                sparseValues[slot] = q;
+                sparseIndex[slot] = i;
+            }
+        }
+    }
+
+    /**
+     * Find the slot holding questionId, or the empty slot where it would go
+     */
+    private int slotFor(int questionId) {
+        int mask = sparseKeys.length - 1;
+        int slot = mix(questionId) & mask;
+        while (sparseValues[slot] != null && sparseKeys[slot] != questionId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Find question by ID in O(1); null if the bank has no such question
+     */
+    public Question get(int questionId) {
+        if (denseById != null) {
+            int index = questionId - minId;
+            return index >= 0 && index < denseById.length ? denseById[index] : null;
+        }
+        return sparseValues[slotFor(questionId)];
+    }
+
+    /**
+     * Position of a question in getQuestions(), in O(1); -1 if the bank has no such question
+     * Positions are dense (0 to size() - 1) but only meaningful for this snapshot
+     */
+    public int indexOf(int questionId) {
+        if (denseById != null) {
+            int index = questionId - minId;
+            return index >= 0 && index < denseById.length && denseById[index] != null ? denseIndex[index] : -1;
+        }
+        int slot = slotFor(questionId);
+        return sparseValues[slot] != null ? sparseIndex[slot] : -1;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * All questions in bank order (unmodifiable)
+     */
+    public List<Question> getQuestions() {
+        return questions;
+    }
+
+    public int size() {
+        return questions.size();
+    }
+
+    /**
+     * Sum of points over all questions
+     */
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    /**
+     * Number of questions per category (unmodifiable, bank order)
+     */
+    public Map<String, Integer> getCategoryQuestionCounts() {
+        return categoryQuestionCounts;
+    }
+
+    /**
+     * Total points per category (unmodifiable, bank order)
+     */
+    public Map<String, Integer> getCategoryPoints() {
+        return categoryPoints;
+    }
+}
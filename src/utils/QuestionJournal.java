@@ -0,0 +1,117 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * QuestionJournal Class
+ * Append-only log of question bank edits, replayed on top of questions.txt
+ * - One text record per line: ADD|question, UPDATE|question or DELETE|questionId
+ * - Each append is a single write plus one fsync, however many records it holds
+ * - Compaction moves the live journal aside (to .compacting) so new edits go to
+ *   a fresh file while the snapshot is rewritten; the old segment is deleted
+ *   once the new snapshot is in place
+ *
+ * Replaying a segment twice gives the same result, so a crash at any point of
+ * compaction is safe. The caller (DataPersistence) serializes all access.
+ */
+class QuestionJournal {
+
+    private final Path journalPath;
+    private final Path compactingPath;
+    private FileChannel channel;
+    private int recordCount;
+
+    QuestionJournal(Path journalPath) {
+        this.journalPath = journalPath;
+        this.compactingPath = journalPath.resolveSibling(journalPath.getFileName() + ".compacting");
+    }
+
+    /**
+     * Append records (each ending in a newline) and fsync once
+     */
+    void append(String records, int count) throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(records.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        recordCount += count;
+    }
+
+    /**
+     * Records appended since the last compaction started
+     */
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Feed every record (compacting segment first, then the live journal) to the consumer
+     */
+    void replay(Consumer<String> consumer) throws IOException {
+        recordCount = 0;
+        for (Path segment : new Path[] { compactingPath, journalPath }) {
+            if (!Files.exists(segment)) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        consumer.accept(line);
+                        recordCount++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Move the live journal aside; later appends start a new file.
+     * A segment left over from an interrupted compaction absorbs the live one.
+     */
+    void beginCompaction() throws IOException {
+        closeChannel();
+        recordCount = 0;
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        if (Files.exists(compactingPath)) {
+            Files.write(compactingPath, Files.readAllBytes(journalPath), StandardOpenOption.APPEND);
+            Files.delete(journalPath);
+        } else {
+            Files.move(journalPath, compactingPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * The new snapshot is durable: drop the moved-aside segment
+     */
+    void finishCompaction() throws IOException {
+        Files.deleteIfExists(compactingPath);
+    }
+
+    void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("[QuestionJournal] Error closing journal: " + e.getMessage());
+            }
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package utils;
+
+import models.Question;
+
+/**
+ * QuestionMutation Class
+ * One add, update or delete in a batch of question bank edits
+ * (see DataPersistence.applyQuestionMutations)
+ */
+public final class QuestionMutation {
+
+    public enum Type {
+        /** Insert, or replace a question with the same ID */
+        ADD,
+        /** Replace an existing question; ignored if the ID is unknown */
+        UPDATE,
+        /** Remove a question; ignored if the ID is unknown */
+        DELETE
+    }
+
+    private final Type type;
+    private final Question question; // null for DELETE
+    private final int questionId;
+
+    private QuestionMutation(Type type, Question question, int questionId) {
+        this.type = type;
+        this.question = question;
+        this.questionId = questionId;
+    }
+
+    public static QuestionMutation add(Question question) {
+        return new QuestionMutation(Type.ADD, question, question.getQuestionId());
+    }
+
+    public static QuestionMutation update(Question question) {
+        return new QuestionMutation(Type.UPDATE, question, question.getQuestionId());
+    }
+
+    public static QuestionMutation delete(int questionId) {
+        return new QuestionMutation(Type.DELETE, null, questionId);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Question getQuestion() {
+        return question;
+    }
+
+    public int getQuestionId() {
+        return questionId;
+    }
+}
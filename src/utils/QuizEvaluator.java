@@ -3,10 +3,26 @@ package utils;
 import models.Answer;
 import models.Question;
 import models.QuizResult;
-
+import models.RankInfo;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * MEMBER 4: RESULT EVALUATION AND REAL-TIME SCORE UPDATE
@@ -16,13 +32,63 @@ import java.util.concurrent.ConcurrentHashMap;
  * - Evaluates student answers against correct answers
  * - Updates scores in real-time
  * - Maintains thread-safe score tracking
+ * - Sessions are guarded by striped locks, so different students are scored in parallel
+ * - Keeps a live leaderboard of in-progress and completed scores
+ * - Logs every session event and snapshots active sessions, so a restart
+ *   recovers in-progress quizzes
+ * - Sessions carry a resume token for reconnects, and each question is scored
+ *   at most once per session (retransmitted answers are not double counted)
+ * - Abandoned sessions expire after an idle or absolute timeout, tracked on a
+ *   single timing wheel, and are finalized or discarded
+ * - Optional quiz time limit: late answers are rejected and the session is
+ *   finalized at its deadline (on the same wheel)
  * - Generates comprehensive quiz results
  */
 public class QuizEvaluator {
 
-    private List<Question> questions;
+    private static final Logger LOG = Logger.get("QuizEvaluator");
+
+    private volatile QuestionBank questionBank; // immutable snapshot, swapped on reload
     private Map<String, QuizResult> activeResults; // studentId -> QuizResult
     private DataPersistence dataPersistence;
+    private final QuizStatistics statistics = new QuizStatistics();
+    private final Leaderboard leaderboard = new Leaderboard();
+
+    // Striped session locks: a student's session is always guarded by the same stripe,
+    // and students on different stripes never wait for each other
+    private final ReentrantLock[] sessionLocks;
+
+    // Session event log and snapshots
+    private final SessionJournal sessionJournal;
+
+    // Per-session bookkeeping beside activeResults (updated under the stripe lock),
+    // and resume token -> studentId
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<String, String> sessionTokens = new ConcurrentHashMap<>();
+    private final SecureRandom tokenRandom = new SecureRandom();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final MetricsRegistry.Histogram lockWait = MetricsRegistry.getInstance().histogram(
+            "quiz_evaluator_lock_wait_seconds", "Time spent acquiring a session lock stripe");
+    private final ScheduledExecutorService snapshotter;
+    private static long snapshotIntervalSeconds = 30;
+
+    // Session expiry: idle and absolute timeouts (0 = none) on one timing wheel
+    private static final long EXPIRY_TICK_MILLIS = 1000;
+    private static final int EXPIRY_WHEEL_SLOTS = 512;
+    private static long sessionIdleMillis = TimeUnit.MINUTES.toMillis(30);
+    private static long sessionMaxMillis = TimeUnit.HOURS.toMillis(4);
+    private static ExpiryAction expiryAction = ExpiryAction.FINALIZE;
+    private static long quizTimeLimitMillis; // 0 = untimed
+    private volatile Consumer<QuizResult> timeUpListener;
+    private final TimingWheel<Session> expiryWheel;
+    private final LongAdder sessionsFinalizedOnExpiry = new LongAdder();
+    private final LongAdder sessionsDiscarded = new LongAdder();
+    private final LongAdder bytesReclaimed = new LongAdder();
+    private final LongAdder quizzesTimedOut = new LongAdder();
+
+    // Rough heap cost of an active session, for the reclaimed-memory estimate
+    private static final int SESSION_BASE_BYTES = 320;
+    private static final int ANSWER_BYTES = 56;
 
     // Singleton instance
     private static QuizEvaluator instance;
@@ -30,7 +96,45 @@ public class QuizEvaluator {
     private QuizEvaluator() {
         this.activeResults = new ConcurrentHashMap<>();
         this.dataPersistence = DataPersistence.getInstance();
-        this.questions = dataPersistence.loadQuestions();
+        this.sessionJournal = new SessionJournal(dataPersistence.dataFile(DataPersistence.SESSIONS_LOG),
+                dataPersistence.dataFile(DataPersistence.SESSIONS_SNAPSHOT));
+        dataPersistence.loadQuestions();
+        this.questionBank = dataPersistence.getQuestionBank();
+        dataPersistence.openResultStores();
+        // One pass over the binary result store seeds the statistics and the leaderboard
+        // (each student ends on their latest attempt); results.txt is parsed only without a store
+        Consumer<QuizResult> seed = result -> {
+            statistics.add(result);
+            leaderboard.update(result.getStudentId(), result.getStudentName(), result.getTotalScore());
+        };
+        if (!dataPersistence.forEachStoredResult(seed)) {
+            dataPersistence.readResultsSince(0, seed);
+        }
+        AttemptHistory history = dataPersistence.getAttemptHistory();
+        if (history != null) {
+            statistics.addCategories(history.getQuestionStats(), questionBank);
+        }
+
+        int stripes = Integer.highestOneBit(Math.max(16, Runtime.getRuntime().availableProcessors() * 4) - 1) << 1;
+        this.sessionLocks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            sessionLocks[i] = new ReentrantLock();
+        }
+
+        this.expiryWheel = new TimingWheel<>("session-expiry", EXPIRY_TICK_MILLIS, EXPIRY_WHEEL_SLOTS,
+                this::expireIfDue);
+        recoverSessions();
+        MetricsRegistry.getInstance().gauge("quiz_active_sessions", "Quiz sessions in progress",
+                sessions::size);
+        this.snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (snapshotIntervalSeconds > 0) {
+            snapshotter.scheduleWithFixedDelay(this::snapshotSessions,
+                    snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+        }
     }
 
     public static synchronized QuizEvaluator getInstance() {
@@ -41,185 +145,712 @@ public class QuizEvaluator {
     }
 
     /**
-     * Initialize a new quiz session for a student
+     * Seconds between session snapshots (0 = only on shutdown); takes effect
+     * if called before the first getInstance()
      */
-    public synchronized void initializeQuizSession(String studentId, String studentName) {
+    public static synchronized void configureSessionSnapshots(long intervalSeconds) {
+        if (instance != null) {
+            LOG.warn("Already started; snapshot interval ignored.");
+            return;
+        }
+        snapshotIntervalSeconds = intervalSeconds;
+    }
+
+    /**
+     * Idle and absolute session timeouts (ms, 0 = none) and what happens to an
+     * expired session; takes effect if called before the first getInstance()
+     */
+    public static synchronized void configureSessionExpiry(long idleMillis, long maxMillis, ExpiryAction action) {
+        if (instance != null) {
+            LOG.warn("Already started; session expiry settings ignored.");
+            return;
+        }
+        sessionIdleMillis = idleMillis;
+        sessionMaxMillis = maxMillis;
+        expiryAction = action;
+    }
+
+    /**
+     * Time allowed per quiz (ms, 0 = untimed); takes effect if called before
+     * the first getInstance()
+     */
+    public static synchronized void configureQuizTimeLimit(long limitMillis) {
+        if (instance != null) {
+            LOG.warn("Already started; quiz time limit ignored.");
+            return;
+        }
+        quizTimeLimitMillis = limitMillis;
+    }
+
+    public static synchronized long getQuizTimeLimit() {
+        return quizTimeLimitMillis;
+    }
+
+    /**
+     * Called with the saved result of every session finalized at its deadline
+     * (from the expiry thread), e.g. to tell the student their time is up
+     */
+    public void setTimeUpListener(Consumer<QuizResult> listener) {
+        this.timeUpListener = listener;
+    }
+
+    /**
+     * Get the lock stripe for a student's session
+     */
+    private ReentrantLock lockFor(String studentId) {
+        int hash = studentId != null ? studentId.hashCode() : 0;
+        hash ^= (hash >>> 16);
+        return sessionLocks[hash & (sessionLocks.length - 1)];
+    }
+
+    /**
+     * Acquire the student's lock stripe, recording how long it took
+     */
+    private ReentrantLock lockSession(String studentId) {
+        ReentrantLock lock = lockFor(studentId);
+        if (lock.tryLock()) {
+            lockWait.observeNanos(0);
+        } else {
+            long start = System.nanoTime();
+            lock.lock();
+            lockWait.observeSince(start);
+        }
+        return lock;
+    }
+
+    /**
+     * Initialize a new quiz session for a student, replacing any active one
+     * Returns the token that resumes the session after a reconnect
+     */
+    public String initializeQuizSession(String studentId, String studentName) {
+        return initializeQuizSession(studentId, studentName, newSessionToken());
+    }
+
+    /**
+     * Initialize a session under a token issued earlier with newSessionToken()
+     * (a scheduled exam hands out tokens in the waiting room, before sessions start)
+     */
+    public String initializeQuizSession(String studentId, String studentName, String token) {
+        return initializeQuizSession(studentId, studentName, token, System.currentTimeMillis());
+    }
+
+    /**
+     * Initialize a session that started at startTime (ms), so that sessions
+     * released together (a scheduled exam) share one start and one deadline
+     */
+    public String initializeQuizSession(String studentId, String studentName, String token, long startTime) {
+        QuestionBank bank = questionBank;
         QuizResult result = new QuizResult(studentId, studentName);
-        result.setTotalQuestions(questions.size());
+        result.setCompletionDate(new Date(startTime)); // the start time until the quiz is finalized
+        result.setTotalQuestions(bank.size());
+        result.setMaxScore(bank.getMaxScore());
+
+        long seq;
+        ReentrantLock lock = lockSession(studentId);
+        try {
+            Session previous = sessions.get(studentId);
+            if (previous != null) {
+                sessionTokens.remove(previous.token);
+            }
+            activeResults.put(studentId, result);
+            Session session = new Session(studentId, token, startTime);
+            seq = sessionJournal.nextSeq();
+            session.lastSeq = seq;
+            sessions.put(studentId, session);
+            sessionTokens.put(token, studentId);
+            scheduleExpiry(session);
+            leaderboard.update(studentId, studentName, 0);
+        } finally {
+            lock.unlock();
+        }
+        sessionJournal.logStart(seq, result, token);
+        LOG.info("Initialized quiz session for: %s (ID: %s)", studentName, studentId);
+        return token;
+    }
 
-        // Calculate max possible score
-        int maxScore = 0;
-        for (Question q : questions) {
-            maxScore += q.getPoints();
+    /**
+     * Reattach to an active session by its resume token
+     * Returns a copy of the session's current result (with the answers already
+     * scored), or null if the token is unknown or the session has finished
+     */
+    public QuizResult resumeSession(String token) {
+        String studentId = token != null ? sessionTokens.get(token) : null;
+        if (studentId == null) {
+            return null;
         }
-        result.setMaxScore(maxScore);
+        ReentrantLock lock = lockSession(studentId);
+        try {
+            Session session = sessions.get(studentId);
+            QuizResult result = activeResults.get(studentId);
+            if (session == null || result == null || !session.token.equals(token)) {
+                return null;
+            }
+            session.lastActivity = System.currentTimeMillis();
+            LOG.info("Resumed quiz session for: %s (%d answers so far)", studentId, result.getAnswers().size());
+            return copyOf(result);
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        activeResults.put(studentId, result);
-        System.out.println("[QuizEvaluator] Initialized quiz session for: " + studentName + " (ID: " + studentId + ")");
+    /**
+     * When the student's quiz time runs out (ms); Long.MAX_VALUE if untimed
+     * or there is no active session
+     */
+    public long getQuizDeadline(String studentId) {
+        Session session = sessions.get(studentId);
+        return session != null ? session.deadline() : Long.MAX_VALUE;
+    }
+
+    /**
+     * When the student's active session started (ms), or -1 if there is none
+     */
+    public long getSessionStartTime(String studentId) {
+        Session session = sessions.get(studentId);
+        return session != null ? session.startTime : -1;
     }
 
     /**
      * Evaluate a single answer in real-time
-     * Returns true if answer is correct, false otherwise
+     * Returns true if answer is correct, false otherwise (including when it was not scored)
      */
-    public synchronized boolean evaluateAnswer(Answer answer) {
-        String studentId = answer.getStudentId();
-        QuizResult result = activeResults.get(studentId);
+    public boolean evaluateAnswer(Answer answer) {
+        return evaluate(answer) == AnswerOutcome.CORRECT;
+    }
 
-        if (result == null) {
-            System.err.println("[QuizEvaluator] No active quiz session for student: " + studentId);
-            return false;
-        }
+    /**
+     * Evaluate a single answer in real-time
+     * Late answers and answers without an active session are not scored, and
+     * are reported as such rather than as incorrect
+     */
+    public AnswerOutcome evaluate(Answer answer) {
+        String studentId = answer.getStudentId();
 
         // Find the question
-        Question question = findQuestionById(answer.getQuestionId());
+        QuestionBank bank = questionBank;
+        Question question = bank.get(answer.getQuestionId());
         if (question == null) {
-            System.err.println("[QuizEvaluator] Question not found: " + answer.getQuestionId());
-            return false;
+            LOG.warn("Question not found: %d", answer.getQuestionId());
+            return AnswerOutcome.INCORRECT;
         }
 
-        // Add answer to result
-        result.addAnswer(answer);
-
         // Check if answer is correct
         boolean isCorrect = answer.getSelectedAnswerIndex() == question.getCorrectAnswerIndex();
+        answer.setCorrect(isCorrect);
+
+        QuizResult result;
+        int totalScore;
+        int maxScore;
+        long seq;
+        boolean duplicate = false;
+        boolean late = false;
+
+        ReentrantLock lock = lockSession(studentId);
+        try {
+            result = activeResults.get(studentId);
+            if (result == null) {
+                LOG.warn("No active quiz session for student: %s", studentId);
+                return AnswerOutcome.NO_SESSION;
+            }
 
-        if (isCorrect) {
-            // Update score in real-time
-            result.setCorrectAnswers(result.getCorrectAnswers() + 1);
-            result.setTotalScore(result.getTotalScore() + question.getPoints());
+            // A question is scored once per session; a retransmission gets the original verdict
+            Session session = sessions.get(studentId);
+            long now = System.currentTimeMillis();
+            if (now >= session.deadline()) {
+                late = true;
+                return AnswerOutcome.LATE;
+            }
+            session.lastActivity = now;
+            BitSet answered = session.answeredIn(bank, result);
+            int index = bank.indexOf(question.getQuestionId());
+            if (answered.get(index)) {
+                duplicate = true;
+                isCorrect = originalVerdict(result, question.getQuestionId());
+                answer.setCorrect(isCorrect);
+                totalScore = result.getTotalScore();
+                maxScore = result.getMaxScore();
+                return isCorrect ? AnswerOutcome.CORRECT : AnswerOutcome.INCORRECT;
+            }
+            answered.set(index);
+
+            // Add answer to result
+            result.addAnswer(answer);
+            seq = sessionJournal.nextSeq();
+            session.lastSeq = seq;
+
+            if (isCorrect) {
+                // Update score in real-time
+                result.setCorrectAnswers(result.getCorrectAnswers() + 1);
+                result.setTotalScore(result.getTotalScore() + question.getPoints());
+                leaderboard.update(studentId, result.getStudentName(), result.getTotalScore());
+            }
+            totalScore = result.getTotalScore();
+            maxScore = result.getMaxScore();
+        } finally {
+            lock.unlock();
+            // Guarded here and below: the int arguments are boxed before the level check
+            if (duplicate && LOG.isInfoEnabled()) {
+                LOG.info("Duplicate answer ignored - Student: %s, Question: %d", studentId, answer.getQuestionId());
+            } else if (late && LOG.isInfoEnabled()) {
+                LOG.info("Late answer rejected - Student: %s, Question: %d", studentId, answer.getQuestionId());
+            }
+        }
 
-            System.out.println(String.format(
-                    "[QuizEvaluator] ✓ CORRECT - Student: %s, Question: %d, Score: +%d points (Total: %d/%d)",
-                    studentId, answer.getQuestionId(), question.getPoints(),
-                    result.getTotalScore(), result.getMaxScore()));
-        } else {
-            System.out.println(
-                    String.format("[QuizEvaluator] ✗ INCORRECT - Student: %s, Question: %d (Selected: %d, Correct: %d)",
-                            studentId, answer.getQuestionId(),
-                            answer.getSelectedAnswerIndex(), question.getCorrectAnswerIndex()));
+        // Journal and log outside the session lock; both are written by their own threads
+        sessionJournal.logAnswer(seq, answer, isCorrect ? question.getPoints() : 0);
+        if (LOG.isInfoEnabled() && isCorrect) {
+            LOG.info("✓ CORRECT - Student: %s, Question: %d, Score: +%d points (Total: %d/%d)",
+                    studentId, answer.getQuestionId(), question.getPoints(), totalScore, maxScore);
+        } else if (LOG.isInfoEnabled()) {
+            LOG.info("✗ INCORRECT - Student: %s, Question: %d (Selected: %d, Correct: %d)",
+                    studentId, answer.getQuestionId(),
+                    answer.getSelectedAnswerIndex(), question.getCorrectAnswerIndex());
         }
 
         // Notify about real-time score update
-        notifyScoreUpdate(studentId, result);
+        notifyScoreUpdate(result.getStudentName(), totalScore, maxScore);
 
-        return isCorrect;
+        return isCorrect ? AnswerOutcome.CORRECT : AnswerOutcome.INCORRECT;
     }
 
     /**
      * Finalize quiz result when student completes the quiz
+     * Waits until the result is durable
      */
-    public synchronized QuizResult finalizeQuizResult(String studentId, long startTime) {
-        QuizResult result = activeResults.get(studentId);
+    public QuizResult finalizeQuizResult(String studentId, long startTime) {
+        return finalizeQuizResultAsync(studentId, startTime).join();
+    }
+
+    /**
+     * Finalize quiz result without waiting for disk
+     * The session is closed immediately; the future completes with the result
+     * once it is durable (null if there was no active session)
+     */
+    public CompletableFuture<QuizResult> finalizeQuizResultAsync(String studentId, long startTime) {
+        QuizResult result;
+        long timeTaken;
+        long finishSeq;
+
+        ReentrantLock lock = lockSession(studentId);
+        try {
+            // Remove from active results so no further answers are scored
+            Session session = sessions.get(studentId);
+            result = closeSession(studentId);
+
+            if (result == null) {
+                LOG.warn("No active quiz session for student: %s", studentId);
+                return CompletableFuture.completedFuture(null);
+            }
 
+            // Calculate time taken (a timed quiz never runs past its deadline)
+            timeTaken = Math.min(System.currentTimeMillis(), session.deadline()) - startTime;
+            result.setTimeTaken(timeTaken);
+            finishSeq = session.lastSeq;
+        } finally {
+            lock.unlock();
+        }
+        sessionJournal.logFinish(finishSeq, studentId);
+
+        return persistResult(result);
+    }
+
+    /**
+     * Remove a session and everything tracked for it (caller holds its stripe lock)
+     * Returns its result, or null if there was no active session; the session's
+     * lastSeq becomes the FINISH event, which the caller logs after unlocking
+     */
+    private QuizResult closeSession(String studentId) {
+        QuizResult result = activeResults.remove(studentId);
         if (result == null) {
-            System.err.println("[QuizEvaluator] No active quiz session for student: " + studentId);
             return null;
         }
+        Session session = sessions.remove(studentId);
+        if (session != null) {
+            session.lastSeq = sessionJournal.nextSeq();
+            sessionTokens.remove(session.token);
+        }
+        return result;
+    }
 
-        // Calculate time taken
-        long timeTaken = System.currentTimeMillis() - startTime;
-        result.setTimeTaken(timeTaken);
+    /**
+     * Save a closed session's result; the future completes once it is durable
+     */
+    private CompletableFuture<QuizResult> persistResult(QuizResult result) {
+        String studentId = result.getStudentId();
+        long timeTaken = result.getTimeTaken();
+        QuestionBank bank = questionBank;
+
+        // Hand off to the write-behind writer; count the result in memory once it is saved
+        return dataPersistence.saveResultAsync(result).thenApply(saved -> {
+            if (saved) {
+                statistics.record(result, bank);
+            } else {
+                LOG.error("Result for %s was not saved", studentId);
+            }
 
-        // Save to persistent storage
-        dataPersistence.saveResult(result);
+            LOG.info("★ QUIZ COMPLETED - Student: %s, Score: %d/%d (%.2f%%), Time: %d seconds",
+                    studentId, result.getTotalScore(), result.getMaxScore(),
+                    result.getPercentage(), timeTaken / 1000);
+            return result;
+        });
+    }
 
-        // Remove from active results
-        activeResults.remove(studentId);
+    /**
+     * Put a session on the expiry wheel at its earliest timeout
+     */
+    private void scheduleExpiry(Session session) {
+        long due = expiresAt(session);
+        if (due != Long.MAX_VALUE) {
+            expiryWheel.schedule(session, due);
+        }
+    }
 
-        System.out.println(
-                String.format("[QuizEvaluator] ★ QUIZ COMPLETED - Student: %s, Score: %d/%d (%.2f%%), Time: %d seconds",
-                        studentId, result.getTotalScore(), result.getMaxScore(),
-                        result.getPercentage(), timeTaken / 1000));
+    private static long expiresAt(Session session) {
+        long due = session.deadline();
+        if (sessionIdleMillis > 0) {
+            due = Math.min(due, session.lastActivity + sessionIdleMillis);
+        }
+        if (sessionMaxMillis > 0) {
+            due = Math.min(due, session.startTime + sessionMaxMillis);
+        }
+        return due;
+    }
 
-        return result;
+    /**
+     * Expiry wheel handler: expire the session if a timeout has passed, otherwise
+     * return when to look again (activity only moves the idle deadline later)
+     */
+    private long expireIfDue(Session session) {
+        String studentId = session.studentId;
+        long now = System.currentTimeMillis();
+        QuizResult result;
+        boolean timeUp;
+
+        ReentrantLock lock = lockSession(studentId);
+        try {
+            if (sessions.get(studentId) != session) {
+                return 0; // finished or replaced
+            }
+            long due = expiresAt(session);
+            if (now < due) {
+                return due;
+            }
+            timeUp = now >= session.deadline();
+            result = closeSession(studentId);
+            result.setTimeTaken(Math.min(now, session.deadline()) - session.startTime);
+            if (!timeUp && expiryAction == ExpiryAction.DISCARD) {
+                restoreLeaderboard(studentId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        sessionJournal.logFinish(session.lastSeq, studentId);
+
+        if (timeUp) {
+            // The quiz is over, not abandoned: always keep the result
+            LOG.info("Time is up - Student: %s, %d answers", studentId, result.getAnswers().size());
+            quizzesTimedOut.increment();
+            persistResult(result).thenAccept(saved -> {
+                Consumer<QuizResult> listener = timeUpListener;
+                if (listener != null) {
+                    listener.accept(saved);
+                }
+            });
+            return 0;
+        }
+
+        long reclaimed = SESSION_BASE_BYTES + (long) result.getAnswers().size() * ANSWER_BYTES;
+        bytesReclaimed.add(reclaimed);
+        boolean idle = sessionIdleMillis > 0 && now >= session.lastActivity + sessionIdleMillis;
+        LOG.info("Session expired (%s) - Student: %s, %d answers, action: %s",
+                idle ? "idle" : "max age", studentId, result.getAnswers().size(), expiryAction);
+
+        if (expiryAction == ExpiryAction.FINALIZE) {
+            sessionsFinalizedOnExpiry.increment();
+            persistResult(result);
+        } else {
+            sessionsDiscarded.increment();
+        }
+        return 0;
+    }
+
+    /**
+     * Put a discarded session's student back at their last saved score, if any
+     * (caller holds the stripe lock)
+     */
+    private void restoreLeaderboard(String studentId) {
+        List<QuizResult> saved = dataPersistence.findResultsByStudent(studentId);
+        if (saved.isEmpty()) {
+            leaderboard.remove(studentId);
+        } else {
+            QuizResult last = saved.get(saved.size() - 1);
+            leaderboard.update(studentId, last.getStudentName(), last.getTotalScore());
+        }
+    }
+
+    /**
+     * Session expiry settings and counters for the server console
+     */
+    public String getSessionExpiryStats() {
+        return String.format("Session Expiry: idle %s, max %s, action %s, quiz time limit %s%n" +
+                        "Sessions Expired: %d finalized, %d discarded, ~%d KB reclaimed, %d timed out, %d tracked%n",
+                sessionIdleMillis > 0 ? TimeUnit.MILLISECONDS.toSeconds(sessionIdleMillis) + " s" : "off",
+                sessionMaxMillis > 0 ? TimeUnit.MILLISECONDS.toSeconds(sessionMaxMillis) + " s" : "off",
+                expiryAction,
+                quizTimeLimitMillis > 0 ? TimeUnit.MILLISECONDS.toSeconds(quizTimeLimitMillis) + " s" : "off",
+                sessionsFinalizedOnExpiry.sum(), sessionsDiscarded.sum(),
+                bytesReclaimed.sum() / 1024, quizzesTimedOut.sum(), expiryWheel.size());
+    }
+
+    /**
+     * Stop session expiry and the scheduled snapshots
+     * Called before the result writer is closed, so no expiring session saves
+     * its result after that (which would start a new writer)
+     */
+    public void shutdown() {
+        expiryWheel.shutdown();
+        snapshotter.shutdown();
+        try {
+            snapshotter.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Rebuild active sessions from the last snapshot and the session log
+     */
+    private void recoverSessions() {
+        long started = System.nanoTime();
+        try {
+            Map<String, Long> lastSeqs = new HashMap<>();
+            Map<String, String> tokens = new HashMap<>();
+            long replayed = sessionJournal.recover(activeResults, lastSeqs, tokens);
+            for (QuizResult result : activeResults.values()) {
+                String studentId = result.getStudentId();
+                Session session = new Session(studentId, tokens.get(studentId), result.getCompletionDate().getTime());
+                session.lastSeq = lastSeqs.get(studentId);
+                session.answeredIn(questionBank, result);
+                sessions.put(studentId, session);
+                sessionTokens.put(session.token, studentId);
+                scheduleExpiry(session);
+                leaderboard.update(studentId, result.getStudentName(), result.getTotalScore());
+            }
+            if (!activeResults.isEmpty() || replayed > 0) {
+                LOG.info("Recovered %d active sessions (%d events replayed) in %d ms",
+                        activeResults.size(), replayed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }
+        } catch (IOException e) {
+            LOG.error("Error recovering sessions: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Write a snapshot of every active session and drop the log it covers
+     * Sessions are copied one stripe lock at a time; scoring carries on meanwhile
+     */
+    public void snapshotSessions() {
+        snapshotLock.lock();
+        try {
+            if (sessionJournal.getEventsSinceSnapshot() == 0) {
+                return;
+            }
+            long started = System.nanoTime();
+            sessionJournal.beginSnapshot();
+
+            int capacity = activeResults.size();
+            List<QuizResult> copies = new ArrayList<>(capacity);
+            long[] seqs = new long[capacity];
+            String[] tokens = new String[capacity];
+            for (String studentId : activeResults.keySet()) {
+                ReentrantLock lock = lockSession(studentId);
+                try {
+                    QuizResult result = activeResults.get(studentId);
+                    Session session = sessions.get(studentId);
+                    if (result == null || session == null) {
+                        continue;
+                    }
+                    int i = copies.size();
+                    if (i == seqs.length) {
+                        seqs = Arrays.copyOf(seqs, i * 2 + 1);
+                        tokens = Arrays.copyOf(tokens, i * 2 + 1);
+                    }
+                    seqs[i] = session.lastSeq;
+                    tokens[i] = session.token;
+                    copies.add(copyOf(result));
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            sessionJournal.writeSnapshot(copies, seqs, tokens);
+            LOG.info("Snapshot of %d active sessions written in %d ms",
+                    copies.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException e) {
+            LOG.error("Error writing session snapshot: %s", e.getMessage());
+        } catch (RuntimeException e) {
+            // Keep the scheduled snapshots running
+            LOG.error("Session snapshot failed: %s", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Copy of a session, safe to read after its stripe lock is released
+     */
+    private static QuizResult copyOf(QuizResult result) {
+        QuizResult copy = new QuizResult(result.getStudentId(), result.getStudentName());
+        copy.setTotalQuestions(result.getTotalQuestions());
+        copy.setMaxScore(result.getMaxScore());
+        copy.setTotalScore(result.getTotalScore());
+        copy.setCorrectAnswers(result.getCorrectAnswers());
+        copy.setCompletionDate(result.getCompletionDate());
+        copy.setAnswers(new ArrayList<>(result.getAnswers()));
+        return copy;
+    }
+
+    /**
+     * Verdict of the first answer a session recorded for a question
+     */
+    private static boolean originalVerdict(QuizResult result, int questionId) {
+        for (Answer answer : result.getAnswers()) {
+            if (answer.getQuestionId() == questionId) {
+                return answer.isCorrect();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A new random resume token
+     */
+    public String newSessionToken() {
+        byte[] bytes = new byte[18];
+        tokenRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
     }
 
     /**
      * Get current result for a student (real-time)
      */
-    public synchronized QuizResult getCurrentResult(String studentId) {
+    public QuizResult getCurrentResult(String studentId) {
         return activeResults.get(studentId);
     }
 
     /**
      * Get all active quiz sessions
      */
-    public synchronized Map<String, QuizResult> getActiveResults() {
+    public Map<String, QuizResult> getActiveResults() {
         return new ConcurrentHashMap<>(activeResults);
     }
 
     /**
      * Get all completed results from persistent storage
      */
-    public synchronized Map<String, QuizResult> getAllCompletedResults() {
+    public Map<String, QuizResult> getAllCompletedResults() {
         return dataPersistence.loadResults();
     }
 
     /**
-     * Find question by ID
+     * Live leaderboard position of a student, with up to `window` neighbours
+     * on each side; null if the student has never started a quiz
      */
-    private Question findQuestionById(int questionId) {
-        for (Question q : questions) {
-            if (q.getQuestionId() == questionId) {
-                return q;
-            }
-        }
-        return null;
+    public RankInfo getRank(String studentId, int window) {
+        return leaderboard.getRank(studentId, window);
+    }
+
+    /**
+     * The best k students on the live leaderboard
+     */
+    public List<RankInfo> getTopStudents(int k) {
+        return leaderboard.getTop(k);
+    }
+
+    /**
+     * Get the question bank snapshot used for scoring
+     */
+    public QuestionBank getQuestionBank() {
+        return questionBank;
     }
 
     /**
      * Notify about score update (can be extended to push notifications)
      */
-    private void notifyScoreUpdate(String studentId, QuizResult result) {
+    private void notifyScoreUpdate(String studentName, int totalScore, int maxScore) {
         // This method can be extended to send real-time notifications
         // to admin panel or connected clients
-        System.out.println(String.format("[QuizEvaluator] Real-time update - %s: %d/%d points (%.1f%%)",
-                result.getStudentName(), result.getTotalScore(),
-                result.getMaxScore(), result.getPercentage()));
+        if (!LOG.isInfoEnabled()) {
+            return;
+        }
+        double percentage = maxScore == 0 ? 0.0 : (totalScore * 100.0) / maxScore;
+        LOG.info("Real-time update - %s: %d/%d points (%.1f%%)", studentName, totalScore, maxScore, percentage);
     }
 
     /**
      * Reload questions from persistent storage
+     * The new snapshot is published with a single volatile write; in-flight
+     * evaluations finish against the snapshot they already read
      */
-    public synchronized void reloadQuestions() {
-        this.questions = dataPersistence.loadQuestions();
-        System.out.println("[QuizEvaluator] Reloaded " + questions.size() + " questions.");
+    public void reloadQuestions() {
+        dataPersistence.loadQuestions();
+        QuestionBank reloaded = dataPersistence.getQuestionBank();
+        this.questionBank = reloaded;
+        LOG.info("Reloaded %d questions (version %d).", reloaded.size(), reloaded.getVersion());
     }
 
     /**
      * Get statistics for all completed quizzes
+     * Served from running aggregates kept in memory; no file is read
      */
-    public synchronized String getStatistics() {
-        Map<String, QuizResult> allResults = dataPersistence.loadResults();
+    public String getStatistics() {
+        return statistics.format(activeResults.size());
+    }
 
-        if (allResults.isEmpty()) {
-            return "No quiz results available.";
+    /**
+     * Bookkeeping for one active session
+     */
+    private static final class Session {
+        final String studentId;
+        final String token;
+        final long startTime;
+        // Questions already scored, by position in answeredBank (the question ID is the
+        // idempotency key of an answer; positions keep the set small whatever the IDs)
+        final BitSet answered = new BitSet();
+        QuestionBank answeredBank;
+        long lastSeq; // last event logged to the session journal
+        long lastActivity; // start, last answer or resume (ms)
+
+        Session(String studentId, String token, long startTime) {
+            this.studentId = studentId;
+            this.token = token;
+            this.startTime = startTime;
+            this.lastActivity = System.currentTimeMillis();
         }
 
-        int totalAttempts = allResults.size();
-        double avgScore = 0;
-        int highestScore = 0;
-        String topStudent = "";
-
-        for (QuizResult result : allResults.values()) {
-            avgScore += result.getPercentage();
-            if (result.getTotalScore() > highestScore) {
-                highestScore = result.getTotalScore();
-                topStudent = result.getStudentName();
+        /**
+         * The answered set keyed for this bank snapshot, rebuilt from the
+         * session's answers after a reload; call under the stripe lock
+         */
+        BitSet answeredIn(QuestionBank bank, QuizResult result) {
+            if (answeredBank != bank) {
+                answered.clear();
+                for (Answer answer : result.getAnswers()) {
+                    int index = bank.indexOf(answer.getQuestionId());
+                    if (index >= 0) {
+                        answered.set(index);
+                    }
+                }
+                answeredBank = bank;
             }
+            return answered;
         }
 
-        avgScore /= totalAttempts;
-
-        StringBuilder stats = new StringBuilder();
-        stats.append("\n========== QUIZ STATISTICS ==========\n");
-        stats.append(String.format("Total Attempts: %d\n", totalAttempts));
-        stats.append(String.format("Average Score: %.2f%%\n", avgScore));
-        stats.append(String.format("Top Student: %s (%d points)\n", topStudent, highestScore));
-        stats.append(String.format("Active Sessions: %d\n", activeResults.size()));
-        stats.append("====================================\n");
-
-        return stats.toString();
+        /**
+         * End of the quiz time limit (ms); Long.MAX_VALUE if untimed
+         */
+        long deadline() {
+            return quizTimeLimitMillis > 0 ? startTime + quizTimeLimitMillis : Long.MAX_VALUE;
+        }
     }
 }
@@ -0,0 +1,167 @@
+package utils;
+
+import models.Answer;
+import models.Question;
+import models.QuizResult;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * QuizStatistics Class
+ * Running aggregates over completed quiz attempts
+ * - Count, sum and sum of squares of percentages (mean and standard deviation in O(1))
+ * - Highest and lowest score with the student who set them
+ * - Per-category answered/correct/points totals
+ * - Seeded once at startup (attempts from the result store, category totals
+ *   from the answers kept in the attempt history), then advanced in memory
+ *   by each result this process saves
+ *
+ * Every attempt counts, including repeat attempts by the same student.
+ */
+public class QuizStatistics {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long attempts;
+    private double percentageSum;
+    private double percentageSquareSum;
+    private long scoreSum;
+    private int highestScore = Integer.MIN_VALUE;
+    private String topStudent = "";
+    private int lowestScore = Integer.MAX_VALUE;
+    private String lowestStudent = "";
+
+    // Keyed by the category in the current question bank
+    private final Map<String, CategoryTotals> categories = new LinkedHashMap<>();
+
+    /**
+     * Count one stored attempt (scores only; used to seed from the result store)
+     */
+    public void add(QuizResult result) {
+        lock.lock();
+        try {
+            addAttempt(result);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Seed the category totals from per-question answer totals of the attempt history
+     * Questions no longer in the bank are skipped
+     */
+    public void addCategories(Map<Integer, AttemptHistory.QuestionStats> questionStats, QuestionBank bank) {
+        lock.lock();
+        try {
+            for (AttemptHistory.QuestionStats stats : questionStats.values()) {
+                Question question = bank.get(stats.getQuestionId());
+                if (question == null) {
+                    continue;
+                }
+                CategoryTotals totals = categories.computeIfAbsent(question.getCategory(), c -> new CategoryTotals());
+                totals.answered += stats.getAnswered();
+                totals.correct += stats.getCorrect();
+                totals.points += (long) stats.getCorrect() * question.getPoints();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Count a result that was just saved, with the per-category outcome of its answers
+     */
+    public void record(QuizResult result, QuestionBank bank) {
+        List<Answer> answers = result.getAnswers();
+        lock.lock();
+        try {
+            addAttempt(result);
+            for (Answer answer : answers) {
+                Question question = bank.get(answer.getQuestionId());
+                if (question == null) {
+                    continue;
+                }
+                CategoryTotals totals = categories.computeIfAbsent(question.getCategory(), c -> new CategoryTotals());
+                totals.answered++;
+                if (answer.getSelectedAnswerIndex() == question.getCorrectAnswerIndex()) {
+                    totals.correct++;
+                    totals.points += question.getPoints();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void addAttempt(QuizResult result) {
+        double percentage = result.getPercentage();
+        attempts++;
+        percentageSum += percentage;
+        percentageSquareSum += percentage * percentage;
+        scoreSum += result.getTotalScore();
+        if (result.getTotalScore() > highestScore) {
+            highestScore = result.getTotalScore();
+            topStudent = result.getStudentName();
+        }
+        if (result.getTotalScore() < lowestScore) {
+            lowestScore = result.getTotalScore();
+            lowestStudent = result.getStudentName();
+        }
+    }
+
+    public long getAttempts() {
+        lock.lock();
+        try {
+            return attempts;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Render the statistics report; activeSessions is supplied by the caller
+     */
+    public String format(int activeSessions) {
+        lock.lock();
+        try {
+            if (attempts == 0) {
+                return "No quiz results available.";
+            }
+
+            double mean = percentageSum / attempts;
+            double variance = Math.max(0.0, percentageSquareSum / attempts - mean * mean);
+
+            StringBuilder stats = new StringBuilder();
+            stats.append("\n========== QUIZ STATISTICS ==========\n");
+            stats.append(String.format("Total Attempts: %d\n", attempts));
+            stats.append(String.format("Average Score: %.2f%%\n", mean));
+            stats.append(String.format("Std Deviation: %.2f%%\n", Math.sqrt(variance)));
+            stats.append(String.format("Average Points: %.2f\n", (double) scoreSum / attempts));
+            stats.append(String.format("Top Student: %s (%d points)\n", topStudent, highestScore));
+            stats.append(String.format("Lowest Score: %s (%d points)\n", lowestStudent, lowestScore));
+            if (!categories.isEmpty()) {
+                stats.append("Categories:\n");
+                for (Map.Entry<String, CategoryTotals> entry : categories.entrySet()) {
+                    CategoryTotals totals = entry.getValue();
+                    stats.append(String.format("  %s: %d/%d correct (%.1f%%), %d points\n",
+                            entry.getKey(), totals.correct, totals.answered,
+                            totals.correct * 100.0 / totals.answered, totals.points));
+                }
+            }
+            stats.append(String.format("Active Sessions: %d\n", activeSessions));
+            stats.append("====================================\n");
+            return stats.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class CategoryTotals {
+        long answered;
+        long correct;
+        long points;
+    }
+}
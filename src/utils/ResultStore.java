@@ -0,0 +1,655 @@
+package utils;
+
+import models.QuizResult;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * ResultStore Class
+ * Binary, memory-mapped store of every completed quiz attempt
+ * - results.seg: 16-byte header, then fixed-width 128-byte records in append order
+ * - results.idx: sidecar index with two sorted arrays, (studentId hash, record)
+ *   and (completion time, record), read in one bulk read and binary-searched in place
+ *   (not mapped, so it can be replaced atomically on every platform)
+ * - Records appended after the index was written (the tail) are scanned
+ *   linearly until the index is rewritten
+ * - Opening is map-and-go: nothing is parsed until a record is read
+ *
+ * Record layout (big-endian):
+ *   0  studentId   (1-byte length + 39 bytes UTF-8)
+ *   40 studentName (1-byte length + 55 bytes UTF-8)
+ *   96 totalScore, 100 maxScore, 104 correctAnswers, 108 totalQuestions (int)
+ *   112 completionTime, 120 timeTaken (long, ms)
+ * Longer ids and names are truncated. Answers are not stored here.
+ */
+public class ResultStore {
+
+    private static final byte[] SEGMENT_MAGIC = { 'Q', 'Z', 'R', 'S' };
+    private static final byte[] INDEX_MAGIC = { 'Q', 'Z', 'R', 'I' };
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 128;
+
+    private static final int ID_OFFSET = 0;
+    private static final int ID_MAX_BYTES = 39;
+    private static final int NAME_OFFSET = 40;
+    private static final int NAME_MAX_BYTES = 55;
+    private static final int SCORE_OFFSET = 96;
+    private static final int MAX_SCORE_OFFSET = 100;
+    private static final int CORRECT_OFFSET = 104;
+    private static final int QUESTIONS_OFFSET = 108;
+    private static final int COMPLETION_OFFSET = 112;
+    private static final int TIME_TAKEN_OFFSET = 120;
+
+    private static final int INDEX_ENTRY_SIZE = 12; // long key + int record
+
+    // Rewrite the sidecar index once this many appended records are unindexed
+    private static final int INDEX_TAIL_LIMIT = 8192;
+
+    private final Path segmentPath;
+    private final Path indexPath;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock indexWriteLock = new ReentrantLock(); // one index rewrite at a time
+
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment; // read-only view of the complete records
+    private int recordCount;
+
+    private ByteBuffer index; // null when there is no usable index
+    private int indexedCount;
+    private long indexModified;
+
+    public ResultStore(Path segmentPath, Path indexPath) throws IOException {
+        this.segmentPath = segmentPath;
+        this.indexPath = indexPath;
+
+        boolean created = !Files.exists(segmentPath);
+        this.segmentChannel = FileChannel.open(segmentPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (created || segmentChannel.size() < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.put(SEGMENT_MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).flip();
+            segmentChannel.write(header, 0);
+            segmentChannel.force(true);
+        } else {
+            checkSegmentHeader();
+        }
+        remapSegment();
+        openIndex();
+        if (index == null && recordCount > 0) {
+            writeIndex();
+        }
+    }
+
+    private void checkSegmentHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        segmentChannel.read(header, 0);
+        header.flip();
+        byte[] magic = new byte[SEGMENT_MAGIC.length];
+        header.get(magic);
+        int version = header.getInt();
+        int recordSize = header.getInt();
+        if (!Arrays.equals(magic, SEGMENT_MAGIC) || version != VERSION || recordSize != RECORD_SIZE) {
+            throw new IOException("Not a version " + VERSION + " results segment: " + segmentPath);
+        }
+    }
+
+    /**
+     * True if the segment holds no records yet
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return recordCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int unindexedCount() {
+        lock.readLock().lock();
+        try {
+            return recordCount - indexedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Writing ====================
+
+    /**
+     * Append results at the end of the segment (not fsynced; see force())
+     */
+    public void append(List<QuizResult> results) throws IOException {
+        append(results, true);
+    }
+
+    /**
+     * Append results; a bulk import passes indexTail = false and writes the index once at the end
+     */
+    void append(List<QuizResult> results, boolean indexTail) throws IOException {
+        if (results.isEmpty()) {
+            return;
+        }
+        ByteBuffer records = ByteBuffer.allocate(results.size() * RECORD_SIZE);
+        for (QuizResult result : results) {
+            encode(records, result);
+        }
+        records.flip();
+
+        lock.writeLock().lock();
+        try {
+            long position = HEADER_SIZE + (long) recordCount * RECORD_SIZE;
+            while (records.hasRemaining()) {
+                position += segmentChannel.write(records, position);
+            }
+            remapSegment();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (indexTail && unindexedCount() >= INDEX_TAIL_LIMIT) {
+            writeIndex();
+        }
+    }
+
+    /**
+     * fsync appended records
+     */
+    public void force() throws IOException {
+        segmentChannel.force(false);
+    }
+
+    /**
+     * Persist the sidecar index for every record currently in the segment
+     * Merges the sorted tail into the existing index (O(n) streaming write);
+     * readers keep using the old index until the new one is swapped in
+     */
+    public void writeIndex() throws IOException {
+        indexWriteLock.lock();
+        try {
+            ByteBuffer records;
+            ByteBuffer oldIndex;
+            int count;
+            int oldCount;
+            lock.readLock().lock();
+            try {
+                records = segment;
+                oldIndex = index;
+                count = recordCount;
+                oldCount = index != null ? indexedCount : 0;
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (oldIndex != null && oldCount == count) {
+                return;
+            }
+
+            // Sort the unindexed tail by each key; ties stay in append order
+            int tail = count - oldCount;
+            long[] studentKeys = new long[tail];
+            int[] studentRecords = new int[tail];
+            long[] times = new long[tail];
+            int[] timeRecords = new int[tail];
+            for (int i = 0; i < tail; i++) {
+                int record = oldCount + i;
+                studentKeys[i] = studentKeyOf(records, record);
+                times[i] = records.getLong(offsetOf(record) + COMPLETION_OFFSET);
+                studentRecords[i] = record;
+                timeRecords[i] = record;
+            }
+            sortByKey(studentKeys, studentRecords);
+            sortByKey(times, timeRecords);
+
+            Path temp = Files.createTempFile(indexPath.getParent(), indexPath.getFileName().toString(), ".tmp");
+            try (OutputStream file = Files.newOutputStream(temp);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024))) {
+                out.write(INDEX_MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(count);
+                mergeEntries(out, oldIndex, HEADER_SIZE, oldCount, studentKeys, studentRecords);
+                mergeEntries(out, oldIndex, HEADER_SIZE + oldCount * INDEX_ENTRY_SIZE, oldCount, times, timeRecords);
+            }
+            Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            lock.writeLock().lock();
+            try {
+                openIndex();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            indexWriteLock.unlock();
+        }
+    }
+
+    /**
+     * Write the union of a sorted index section and sorted tail entries.
+     * Old entries go first on equal keys: they refer to older records.
+     */
+    private static void mergeEntries(DataOutputStream out, ByteBuffer oldIndex, int base, int oldCount,
+            long[] keys, int[] records) throws IOException {
+        int i = 0;
+        int j = 0;
+        while (i < oldCount || j < keys.length) {
+            long oldKey = i < oldCount ? oldIndex.getLong(base + i * INDEX_ENTRY_SIZE) : 0;
+            if (j >= keys.length || (i < oldCount && oldKey <= keys[j])) {
+                out.writeLong(oldKey);
+                out.writeInt(oldIndex.getInt(base + i * INDEX_ENTRY_SIZE + 8));
+                i++;
+            } else {
+                out.writeLong(keys[j]);
+                out.writeInt(records[j]);
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Stable merge sort of parallel key/record arrays by key
+     */
+    private static void sortByKey(long[] keys, int[] records) {
+        int n = keys.length;
+        long[] keyBuffer = new long[n];
+        int[] recordBuffer = new int[n];
+        for (int width = 1; width < n; width <<= 1) {
+            for (int low = 0; low < n; low += width << 1) {
+                int mid = Math.min(low + width, n);
+                int high = Math.min(low + (width << 1), n);
+                int i = low;
+                int j = mid;
+                for (int k = low; k < high; k++) {
+                    if (i < mid && (j >= high || keys[i] <= keys[j])) {
+                        keyBuffer[k] = keys[i];
+                        recordBuffer[k] = records[i++];
+                    } else {
+                        keyBuffer[k] = keys[j];
+                        recordBuffer[k] = records[j++];
+                    }
+                }
+            }
+            System.arraycopy(keyBuffer, 0, keys, 0, n);
+            System.arraycopy(recordBuffer, 0, records, 0, n);
+        }
+    }
+
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            segmentChannel.close();
+        } catch (IOException e) {
+            System.err.println("[ResultStore] Error closing results segment: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== Reading ====================
+
+    /**
+     * Pick up records and index changes written by another process
+     */
+    public void refresh() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (segmentChannel.size() != HEADER_SIZE + (long) recordCount * RECORD_SIZE) {
+                remapSegment();
+            }
+            if (Files.exists(indexPath) && Files.getLastModifiedTime(indexPath).toMillis() != indexModified) {
+                openIndex();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Decode one record (0 = oldest)
+     */
+    public QuizResult get(int record) {
+        lock.readLock().lock();
+        try {
+            return decode(record);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Decode every record in append order
+     */
+    public void forEach(Consumer<QuizResult> consumer) {
+        lock.readLock().lock();
+        try {
+            for (int record = 0; record < recordCount; record++) {
+                consumer.accept(decode(record));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Every attempt by a student, oldest first
+     */
+    public List<QuizResult> findByStudent(String studentId) {
+        byte[] id = truncate(studentId, ID_MAX_BYTES);
+        long key = hash(id, 0, id.length);
+        List<QuizResult> found = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            if (index != null) {
+                int base = HEADER_SIZE;
+                for (int i = lowerBound(base, key); i < indexedCount && keyAt(base, i) == key; i++) {
+                    int record = recordAt(base, i);
+                    if (idEquals(record, id)) {
+                        found.add(decode(record));
+                    }
+                }
+            }
+            for (int record = indexedCount; record < recordCount; record++) {
+                if (idEquals(record, id)) {
+                    found.add(decode(record));
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Attempts completed in [fromMillis, toMillis), oldest first
+     */
+    public List<QuizResult> findByCompletionTime(long fromMillis, long toMillis) {
+        List<QuizResult> found = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            if (index != null) {
+                int base = HEADER_SIZE + indexedCount * INDEX_ENTRY_SIZE;
+                for (int i = lowerBound(base, fromMillis); i < indexedCount && keyAt(base, i) < toMillis; i++) {
+                    found.add(decode(recordAt(base, i)));
+                }
+            }
+            List<QuizResult> tail = new ArrayList<>();
+            for (int record = indexedCount; record < recordCount; record++) {
+                long time = segment.getLong(offsetOf(record) + COMPLETION_OFFSET);
+                if (time >= fromMillis && time < toMillis) {
+                    tail.add(decode(record));
+                }
+            }
+            if (!tail.isEmpty()) {
+                found.addAll(tail);
+                found.sort(Comparator.comparing(QuizResult::getCompletionDate));
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The most recent attempt of each student
+     * Walks the student index and decodes one record per student
+     */
+    public Map<String, QuizResult> latestPerStudent() {
+        Map<String, QuizResult> latest = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            if (index != null) {
+                int base = HEADER_SIZE;
+                int i = 0;
+                List<Integer> seen = new ArrayList<>(2);
+                while (i < indexedCount) {
+                    long key = keyAt(base, i);
+                    int end = i;
+                    while (end < indexedCount && keyAt(base, end) == key) {
+                        end++;
+                    }
+                    // Newest first; more than one distinct id per key only on a hash collision
+                    seen.clear();
+                    for (int j = end - 1; j >= i; j--) {
+                        int record = recordAt(base, j);
+                        boolean duplicate = false;
+                        for (int other : seen) {
+                            if (sameId(record, other)) {
+                                duplicate = true;
+                                break;
+                            }
+                        }
+                        if (!duplicate) {
+                            seen.add(record);
+                            QuizResult result = decode(record);
+                            latest.put(result.getStudentId(), result);
+                        }
+                    }
+                    i = end;
+                }
+            }
+            for (int record = indexedCount; record < recordCount; record++) {
+                QuizResult result = decode(record);
+                latest.put(result.getStudentId(), result);
+            }
+            return latest;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Internals ====================
+
+    /**
+     * Map every complete record; a torn record at the end is ignored
+     */
+    private void remapSegment() throws IOException {
+        long size = segmentChannel.size();
+        long records = Math.max(0, (size - HEADER_SIZE) / RECORD_SIZE);
+        if (HEADER_SIZE + records * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IOException("Results segment exceeds 2 GB: " + segmentPath);
+        }
+        recordCount = (int) records;
+        segment = segmentChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE + records * RECORD_SIZE);
+    }
+
+    /**
+     * Load the sidecar index if it is valid for this segment
+     */
+    private void openIndex() throws IOException {
+        index = null;
+        indexedCount = 0;
+        if (!Files.exists(indexPath)) {
+            return;
+        }
+        indexModified = Files.getLastModifiedTime(indexPath).toMillis();
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return;
+            }
+            if (size > Integer.MAX_VALUE) {
+                return;
+            }
+            ByteBuffer loaded = ByteBuffer.allocate((int) size);
+            while (loaded.hasRemaining() && channel.read(loaded) >= 0) {
+                // read the whole file
+            }
+            loaded.flip();
+            byte[] magic = new byte[INDEX_MAGIC.length];
+            loaded.get(magic);
+            int version = loaded.getInt();
+            long count = loaded.getLong();
+            if (!Arrays.equals(magic, INDEX_MAGIC) || version != VERSION || count > recordCount
+                    || size != HEADER_SIZE + count * 2 * INDEX_ENTRY_SIZE) {
+                System.err.println("[ResultStore] Ignoring stale or invalid index: " + indexPath);
+                return;
+            }
+            index = loaded;
+            indexedCount = (int) count;
+        }
+    }
+
+    private static int offsetOf(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    private long keyAt(int base, int i) {
+        return index.getLong(base + i * INDEX_ENTRY_SIZE);
+    }
+
+    private int recordAt(int base, int i) {
+        return index.getInt(base + i * INDEX_ENTRY_SIZE + 8);
+    }
+
+    /**
+     * First index entry whose key is >= key
+     */
+    private int lowerBound(int base, long key) {
+        int low = 0;
+        int high = indexedCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keyAt(base, mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long studentKeyOf(ByteBuffer records, int record) {
+        int offset = offsetOf(record) + ID_OFFSET;
+        int length = records.get(offset) & 0xFF;
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < length; i++) {
+            h ^= records.get(offset + 1 + i) & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * 64-bit FNV-1a, the same hash studentKeyOf computes from a record
+     */
+    private static long hash(byte[] bytes, int offset, int length) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = offset; i < offset + length; i++) {
+            h ^= bytes[i] & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private boolean idEquals(int record, byte[] id) {
+        int offset = offsetOf(record) + ID_OFFSET;
+        if ((segment.get(offset) & 0xFF) != id.length) {
+            return false;
+        }
+        for (int i = 0; i < id.length; i++) {
+            if (segment.get(offset + 1 + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sameId(int a, int b) {
+        int offsetA = offsetOf(a) + ID_OFFSET;
+        int offsetB = offsetOf(b) + ID_OFFSET;
+        int length = segment.get(offsetA) & 0xFF;
+        for (int i = 0; i <= length; i++) {
+            if (segment.get(offsetA + i) != segment.get(offsetB + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private QuizResult decode(int record) {
+        int offset = offsetOf(record);
+        QuizResult result = new QuizResult(readString(offset + ID_OFFSET), readString(offset + NAME_OFFSET));
+        result.setTotalScore(segment.getInt(offset + SCORE_OFFSET));
+        result.setMaxScore(segment.getInt(offset + MAX_SCORE_OFFSET));
+        result.setCorrectAnswers(segment.getInt(offset + CORRECT_OFFSET));
+        result.setTotalQuestions(segment.getInt(offset + QUESTIONS_OFFSET));
+        result.setCompletionDate(new Date(segment.getLong(offset + COMPLETION_OFFSET)));
+        result.setTimeTaken(segment.getLong(offset + TIME_TAKEN_OFFSET));
+        return result;
+    }
+
+    private String readString(int offset) {
+        int length = segment.get(offset) & 0xFF;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = segment.get(offset + 1 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void encode(ByteBuffer out, QuizResult result) {
+        int start = out.position();
+        writeString(out, start + ID_OFFSET, result.getStudentId(), ID_MAX_BYTES);
+        writeString(out, start + NAME_OFFSET, result.getStudentName(), NAME_MAX_BYTES);
+        out.putInt(start + SCORE_OFFSET, result.getTotalScore());
+        out.putInt(start + MAX_SCORE_OFFSET, result.getMaxScore());
+        out.putInt(start + CORRECT_OFFSET, result.getCorrectAnswers());
+        out.putInt(start + QUESTIONS_OFFSET, result.getTotalQuestions());
+        Date completion = result.getCompletionDate();
+        out.putLong(start + COMPLETION_OFFSET, completion != null ? completion.getTime() : 0L);
+        out.putLong(start + TIME_TAKEN_OFFSET, result.getTimeTaken());
+        out.position(start + RECORD_SIZE);
+    }
+
+    private static void writeString(ByteBuffer out, int offset, String value, int maxBytes) {
+        byte[] bytes = truncate(value, maxBytes);
+        out.put(offset, (byte) bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            out.put(offset + 1 + i, bytes[i]);
+        }
+    }
+
+    /**
+     * UTF-8 bytes of value, cut at a character boundary to fit maxBytes
+     */
+    private static byte[] truncate(String value, int maxBytes) {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= maxBytes) {
+            return bytes;
+        }
+        int length = maxBytes;
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--; // don't split a multi-byte character
+        }
+        return Arrays.copyOf(bytes, length);
+    }
+}
@@ -0,0 +1,381 @@
+package utils;
+
+import models.QuizResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ResultWriter Class
+ * Write-behind appender for results.txt, the binary ResultStore and the AttemptHistory
+ * - Callers offer results to a bounded queue and never block; when it is full
+ *   the result waits for space on an overflow thread instead
+ * - One writer thread appends whole batches to a long-lived FileChannel
+ * - Group commit: one fsync covers every result written since the last one
+ * - Each result's future completes at its durability point
+ * - results.txt is the record: a result is saved once its line is there; the
+ *   result store and attempt history retry a failed append ahead of the next batch
+ *
+ * fsync interval: 0 = fsync after every batch, N > 0 = at most one fsync
+ * every N ms, negative = never fsync (durable once handed to the OS).
+ */
+class ResultWriter {
+
+    private static final Logger LOG = Logger.get("ResultWriter");
+
+    private static final int MAX_BATCH = 256;
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MAX_BACKLOG = 64 * MAX_BATCH;
+
+    private final Path path;
+    private final ResultStore store; // may be null
+    private final AttemptHistory history; // may be null
+    private final long fsyncIntervalNanos;
+    private final boolean fsyncEnabled;
+    private final BlockingQueue<Pending> queue;
+    private final Thread thread;
+    private final ExecutorService overflow;
+    private volatile boolean running = true;
+
+    private FileChannel channel;
+
+    // Written but not yet fsynced, waiting for the next group commit
+    private final List<Pending> unsynced = new ArrayList<>();
+    private long lastSyncNanos = System.nanoTime();
+
+    // Saved in results.txt but not yet taken by the result store / attempt history
+    private final List<QuizResult> storeBacklog = new ArrayList<>();
+    private final List<QuizResult> historyBacklog = new ArrayList<>();
+
+    // Metrics
+    private final LongAdder resultsWritten = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final MetricsRegistry.Histogram writeLatency = MetricsRegistry.getInstance().histogram(
+            "quiz_result_write_seconds", "Time to append one batch of results to every store");
+    private final MetricsRegistry.Histogram syncLatency = MetricsRegistry.getInstance().histogram(
+            "quiz_result_fsync_seconds", "Time to fsync the result files (one group commit)");
+    private final MetricsRegistry.Histogram durableLatency = MetricsRegistry.getInstance().histogram(
+            "quiz_result_durable_seconds", "Time from submitting a result to it being durable");
+
+    ResultWriter(Path path, ResultStore store, AttemptHistory history, int queueCapacity, long fsyncIntervalMillis) {
+        this.path = path;
+        this.store = store;
+        this.history = history;
+        this.fsyncEnabled = fsyncIntervalMillis >= 0;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, fsyncIntervalMillis));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.thread = new Thread(this::run, "result-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        this.overflow = Executors.newSingleThreadExecutor(runnable -> {
+            Thread overflowThread = new Thread(runnable, "result-writer-overflow");
+            overflowThread.setDaemon(true);
+            return overflowThread;
+        });
+    }
+
+    /**
+     * Queue a result; the future completes with true once it is durable,
+     * or false if it could not be written
+     * Never blocks, so it is safe to call from an event loop
+     */
+    CompletableFuture<Boolean> submit(QuizResult result) {
+        Pending pending = new Pending(result);
+        if (!running) {
+            pending.future.complete(false);
+            return pending.future;
+        }
+        if (queue.offer(pending)) {
+            abandonIfStopped(pending);
+            return pending.future;
+        }
+        // Queue full: wait for space on the overflow thread rather than the caller's
+        overflowed.increment();
+        try {
+            overflow.execute(() -> enqueue(pending));
+        } catch (RejectedExecutionException e) {
+            pending.future.complete(false);
+        }
+        return pending.future;
+    }
+
+    private void enqueue(Pending pending) {
+        try {
+            while (running) {
+                if (queue.offer(pending, IDLE_POLL_NANOS, TimeUnit.NANOSECONDS)) {
+                    abandonIfStopped(pending);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pending.future.complete(false);
+    }
+
+    /**
+     * The writer may have stopped and drained the queue while we were adding;
+     * if the result is still queued nobody will write it
+     */
+    private void abandonIfStopped(Pending pending) {
+        if (!running && queue.remove(pending)) {
+            pending.future.complete(false);
+        }
+    }
+
+    /**
+     * Write and fsync everything still queued, then close the channel
+     */
+    void close() {
+        // No interrupt: it would close the FileChannel under an in-flight write
+        running = false;
+        overflow.shutdown();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    String getStats() {
+        long batchCount = batches.sum();
+        return String.format("Results Written: %d in %d batches (avg %.1f), fsyncs: %d, failures: %d, queued: %d, overflowed: %d%n",
+                resultsWritten.sum(), batchCount,
+                batchCount == 0 ? 0.0 : (double) resultsWritten.sum() / batchCount,
+                syncs.sum(), writeFailures.sum(), queue.size(), overflowed.sum());
+    }
+
+    private void run() {
+        SimpleDateFormat sdf = new SimpleDateFormat(DataPersistence.RESULT_DATE_FORMAT);
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (running || !queue.isEmpty()) {
+                Pending first;
+                try {
+                    first = queue.poll(unsynced.isEmpty() ? IDLE_POLL_NANOS : untilNextSync(),
+                            TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    first = queue.poll();
+                }
+
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    write(batch, sdf);
+                    batch.clear();
+                }
+                if (!unsynced.isEmpty() && untilNextSync() <= 0) {
+                    sync();
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Writer stopped: %s", e);
+        } finally {
+            // Also reached on an unexpected exception: refuse new results, then fail
+            // whatever was in flight (complete is a no-op for settled futures)
+            running = false;
+            try {
+                appendToStores(Collections.emptyList()); // retry any backlog
+                sync();
+            } catch (RuntimeException e) {
+                LOG.error("Error syncing results: %s", e);
+            }
+            closeChannel();
+            for (Pending pending : batch) {
+                pending.future.complete(false);
+            }
+            for (Pending pending : unsynced) {
+                pending.future.complete(false);
+            }
+            unsynced.clear();
+            Pending late;
+            while ((late = queue.poll()) != null) {
+                late.future.complete(false);
+            }
+        }
+    }
+
+    private long untilNextSync() {
+        return fsyncIntervalNanos - (System.nanoTime() - lastSyncNanos);
+    }
+
+    private void write(List<Pending> batch, SimpleDateFormat sdf) {
+        StringBuilder lines = new StringBuilder(batch.size() * 96);
+        List<QuizResult> results = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            lines.append(DataPersistence.formatResultLine(pending.result, sdf));
+            results.add(pending.result);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+
+        long start = System.nanoTime();
+        try {
+            appendLines(buffer);
+        } catch (IOException e) {
+            // Nothing of the batch is in any store, so false means "not saved"
+            LOG.error("Error saving %d results: %s", batch.size(), e.getMessage());
+            writeFailures.add(batch.size());
+            closeChannel(); // reopen on the next batch
+            for (Pending pending : batch) {
+                pending.future.complete(false);
+            }
+            return;
+        }
+        appendToStores(results);
+        writeLatency.observeSince(start);
+
+        batches.increment();
+        resultsWritten.add(batch.size());
+        if (fsyncEnabled) {
+            unsynced.addAll(batch);
+        } else {
+            for (Pending pending : batch) {
+                complete(pending, true);
+            }
+        }
+    }
+
+    /**
+     * Append whole lines to results.txt; a failed write is cut back off so no
+     * partial line is left behind
+     */
+    private void appendLines(ByteBuffer buffer) throws IOException {
+        FileChannel out = channel();
+        long size = out.size();
+        try {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        } catch (IOException e) {
+            try {
+                out.truncate(size);
+            } catch (IOException truncateError) {
+                LOG.error("Error truncating results file: %s", truncateError.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Append results already in results.txt to the result store and the attempt
+     * history, each after its own backlog of earlier failures. Both write at their
+     * committed end, so retrying a failed append does not duplicate records.
+     */
+    private void appendToStores(List<QuizResult> results) {
+        if (store != null) {
+            storeBacklog.addAll(results);
+            try {
+                store.append(storeBacklog);
+                storeBacklog.clear();
+            } catch (IOException | RuntimeException e) {
+                backlogFailed("result store", storeBacklog, e);
+            }
+        }
+        if (history != null) {
+            historyBacklog.addAll(results);
+            try {
+                history.append(historyBacklog);
+                historyBacklog.clear();
+            } catch (IOException | RuntimeException e) {
+                backlogFailed("attempt history", historyBacklog, e);
+            }
+        }
+    }
+
+    private void backlogFailed(String name, List<QuizResult> backlog, Exception e) {
+        LOG.warn("Error appending %d results to the %s (kept in results.txt, will retry): %s",
+                backlog.size(), name, e.getMessage());
+        if (backlog.size() > MAX_BACKLOG) {
+            LOG.error("Giving up on %d results for the %s; it is behind results.txt until rebuilt",
+                    backlog.size(), name);
+            backlog.clear();
+        }
+    }
+
+    private void sync() {
+        if (unsynced.isEmpty()) {
+            return;
+        }
+        boolean durable = true;
+        long start = System.nanoTime();
+        try {
+            channel().force(false);
+            syncs.increment();
+            syncLatency.observeSince(start);
+        } catch (IOException e) {
+            LOG.error("Error syncing results: %s", e.getMessage());
+            durable = false;
+        }
+        // Durability follows results.txt, the record of every saved result
+        try {
+            if (store != null) {
+                store.force();
+            }
+            if (history != null) {
+                history.force();
+            }
+        } catch (IOException e) {
+            LOG.error("Error syncing result store: %s", e.getMessage());
+        }
+        lastSyncNanos = System.nanoTime();
+        for (Pending pending : unsynced) {
+            complete(pending, durable);
+        }
+        unsynced.clear();
+    }
+
+    private void complete(Pending pending, boolean durable) {
+        if (durable) {
+            durableLatency.observeSince(pending.submittedNanos);
+        }
+        pending.future.complete(durable);
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.error("Error closing results file: %s", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    private static final class Pending {
+        final QuizResult result;
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        final long submittedNanos = System.nanoTime();
+
+        Pending(QuizResult result) {
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package utils;
+
+import models.Answer;
+import models.QuizResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SessionJournal Class
+ * Crash recovery for in-progress quiz sessions
+ * - sessions.log: every session start (with its resume token), accepted answer
+ *   and finish, each with a global sequence number; written straight to the
+ *   OS (survives a process crash without an fsync per answer)
+ * - Callers take a sequence number under their session lock, then encode and
+ *   queue the event after releasing it; one "session-journal" thread writes
+ *   each batch with a single gathering write (group commit), so scoring never
+ *   waits on a shared lock or a syscall
+ * - sessions.snapshot: every active session with the sequence number of its
+ *   last event, written periodically (tmp file, fsync, atomic move)
+ * - Recovery loads the snapshot and replays the events it does not already
+ *   hold, in sequence order (queued events can reach the file out of order)
+ *
+ * A snapshot rotates the log to sessions.log.prev first (appending if an
+ * interrupted snapshot left one behind), so events in the new log are never
+ * older than the snapshot; the rotated segment is deleted once the snapshot
+ * is durable. Replay skips events a session has already seen, so replaying
+ * a segment the snapshot also covers is harmless. Events still queued when
+ * the process dies are lost, like answers whose response never arrived.
+ */
+class SessionJournal {
+
+    private static final Logger LOG = Logger.get("SessionJournal");
+
+    private static final byte[] SNAPSHOT_MAGIC = { 'Q', 'Z', 'S', 'S' };
+    private static final int VERSION = 2;
+
+    private static final byte START = 1;
+    private static final byte ANSWER = 2;
+    private static final byte FINISH = 3;
+
+    private static final int QUEUE_CAPACITY = 64 * 1024;
+    private static final int MAX_BATCH = 512;
+
+    private final Path logPath;
+    private final Path previousPath;
+    private final Path snapshotPath;
+    private final ReentrantLock lock = new ReentrantLock(); // the log file: writer thread, rotation, recovery
+    private final BlockingQueue<ByteBuffer> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong nextSeq = new AtomicLong(1);
+    private final AtomicLong eventsSinceSnapshot = new AtomicLong();
+    private final Thread writer;
+    private FileChannel channel;
+
+    SessionJournal(Path logPath, Path snapshotPath) {
+        this.logPath = logPath;
+        this.previousPath = logPath.resolveSibling(logPath.getFileName() + ".prev");
+        this.snapshotPath = snapshotPath;
+        this.writer = new Thread(this::drainLoop, "session-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // ==================== Logging ====================
+
+    /**
+     * Sequence number for a session's next event; take it under the session's
+     * lock so a session's events are numbered in the order they were applied
+     */
+    long nextSeq() {
+        return nextSeq.getAndIncrement();
+    }
+
+    /**
+     * Log a new (or restarted) session and its resume token
+     */
+    void logStart(long seq, QuizResult result, String token) {
+        try {
+            RecordBuffer record = begin(START, seq, result.getStudentId());
+            DataOutputStream out = record.data;
+            out.writeUTF(token);
+            out.writeUTF(result.getStudentName() != null ? result.getStudentName() : "");
+            out.writeInt(result.getTotalQuestions());
+            out.writeInt(result.getMaxScore());
+            out.writeLong(result.getCompletionDate().getTime());
+            enqueue(record);
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Log an accepted answer and the points it earned
+     */
+    void logAnswer(long seq, Answer answer, int points) {
+        try {
+            RecordBuffer record = begin(ANSWER, seq, answer.getStudentId());
+            DataOutputStream out = record.data;
+            out.writeInt(answer.getQuestionId());
+            out.writeByte(answer.getSelectedAnswerIndex());
+            out.writeBoolean(answer.isCorrect());
+            out.writeInt(points);
+            out.writeLong(answer.getTimestamp());
+            enqueue(record);
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Log that a session was finalized (its result is with the result writer)
+     */
+    void logFinish(long seq, String studentId) {
+        try {
+            enqueue(begin(FINISH, seq, studentId));
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Events logged since the last snapshot
+     */
+    long getEventsSinceSnapshot() {
+        return eventsSinceSnapshot.get();
+    }
+
+    private static RecordBuffer begin(byte type, long seq, String studentId) throws IOException {
+        RecordBuffer record = new RecordBuffer();
+        DataOutputStream out = record.data;
+        out.writeInt(0); // length, patched in enqueue()
+        out.writeByte(type);
+        out.writeLong(seq);
+        out.writeUTF(studentId);
+        return record;
+    }
+
+    private void enqueue(RecordBuffer record) throws IOException {
+        ByteBuffer buffer = record.toBuffer();
+        buffer.putInt(0, buffer.limit() - 4);
+        try {
+            queue.put(buffer); // blocks only if the disk is a full queue behind
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while queueing a session event");
+        }
+        eventsSinceSnapshot.incrementAndGet();
+    }
+
+    private void failed(IOException e) {
+        LOG.error("Error logging session event: %s", e.getMessage());
+    }
+
+    /**
+     * Writer thread: append whatever is queued, one gathering write per batch
+     */
+    private void drainLoop() {
+        List<ByteBuffer> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue; // daemon thread: runs for the life of the process
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            lock.lock();
+            try {
+                writeBatch(batch);
+            } finally {
+                lock.unlock();
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Write queued records (caller holds lock)
+     */
+    private void writeBatch(List<ByteBuffer> batch) {
+        try {
+            if (channel == null || !channel.isOpen()) {
+                channel = FileChannel.open(logPath, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            ByteBuffer[] buffers = batch.toArray(new ByteBuffer[0]);
+            ByteBuffer last = buffers[buffers.length - 1];
+            while (last.hasRemaining()) {
+                channel.write(buffers);
+            }
+        } catch (IOException e) {
+            LOG.error("Error writing %d session events: %s", batch.size(), e.getMessage());
+            closeChannel(); // reopen on the next batch
+        }
+    }
+
+    /**
+     * Growable buffer whose bytes become a record without another copy
+     */
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+        final DataOutputStream data = new DataOutputStream(this);
+
+        RecordBuffer() {
+            super(96);
+        }
+
+        ByteBuffer toBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    // ==================== Snapshots ====================
+
+    /**
+     * Rotate the log ahead of a snapshot; events queued so far are written to
+     * the old file first, events logged from now on go to a fresh one
+     */
+    void beginSnapshot() throws IOException {
+        lock.lock();
+        try {
+            List<ByteBuffer> queued = new ArrayList<>();
+            queue.drainTo(queued);
+            if (!queued.isEmpty()) {
+                writeBatch(queued);
+            }
+            closeChannel();
+            eventsSinceSnapshot.set(0);
+            if (Files.exists(logPath)) {
+                if (Files.exists(previousPath)) {
+                    Files.write(previousPath, Files.readAllBytes(logPath), StandardOpenOption.APPEND);
+                    Files.delete(logPath);
+                } else {
+                    Files.move(logPath, previousPath, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Persist a copy of the active sessions, taken after beginSnapshot();
+     * lastSeqs[i] is the sequence number of the last event applied to sessions[i]
+     * and tokens[i] its resume token
+     */
+    void writeSnapshot(List<QuizResult> sessions, long[] lastSeqs, String[] tokens) throws IOException {
+        Path temp = Files.createTempFile(snapshotPath.getParent(), snapshotPath.getFileName().toString(), ".tmp");
+        try (FileChannel file = FileChannel.open(temp, StandardOpenOption.WRITE);
+                DataOutputStream data = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(file), 64 * 1024))) {
+            data.write(SNAPSHOT_MAGIC);
+            data.writeInt(VERSION);
+            data.writeInt(sessions.size());
+            for (int i = 0; i < sessions.size(); i++) {
+                QuizResult result = sessions.get(i);
+                data.writeLong(lastSeqs[i]);
+                data.writeUTF(tokens[i]);
+                data.writeUTF(result.getStudentId());
+                data.writeUTF(result.getStudentName() != null ? result.getStudentName() : "");
+                data.writeInt(result.getTotalQuestions());
+                data.writeInt(result.getMaxScore());
+                data.writeInt(result.getTotalScore());
+                data.writeInt(result.getCorrectAnswers());
+                data.writeLong(result.getCompletionDate().getTime());
+                data.writeInt(result.getAnswers().size());
+                for (Answer answer : result.getAnswers()) {
+                    data.writeInt(answer.getQuestionId());
+                    data.writeByte(answer.getSelectedAnswerIndex());
+                    data.writeBoolean(answer.isCorrect());
+                    data.writeLong(answer.getTimestamp());
+                }
+            }
+            data.flush();
+            file.force(false);
+        }
+        Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(previousPath);
+    }
+
+    // ==================== Recovery ====================
+
+    /**
+     * Rebuild the active sessions: snapshot first, then the rotated and live logs.
+     * Fills sessions, lastSeqs (studentId -> last applied event) and tokens
+     * (studentId -> resume token) and returns the number of log events replayed.
+     */
+    long recover(Map<String, QuizResult> sessions, Map<String, Long> lastSeqs,
+            Map<String, String> tokens) throws IOException {
+        lock.lock();
+        try {
+            long maxSeq = 0;
+            if (Files.exists(snapshotPath)) {
+                maxSeq = readSnapshot(sessions, lastSeqs, tokens);
+            }
+            List<byte[]> records = new ArrayList<>();
+            for (Path segment : new Path[] { previousPath, logPath }) {
+                if (!Files.exists(segment)) {
+                    continue;
+                }
+                try (InputStream file = Files.newInputStream(segment);
+                        DataInputStream data = new DataInputStream(new BufferedInputStream(file, 64 * 1024))) {
+                    while (true) {
+                        try {
+                            int length = data.readInt();
+                            if (length <= 0) {
+                                break;
+                            }
+                            byte[] record = new byte[length];
+                            data.readFully(record);
+                            records.add(record);
+                        } catch (EOFException e) {
+                            break; // torn last record
+                        }
+                    }
+                }
+            }
+
+            // Batches are written in queue order, not sequence order: replay by sequence number
+            records.sort(Comparator.comparingLong(record -> ByteBuffer.wrap(record).getLong(1)));
+            for (byte[] record : records) {
+                long seq = apply(new DataInputStream(new ByteArrayInputStream(record)), sessions, lastSeqs, tokens);
+                maxSeq = Math.max(maxSeq, seq);
+            }
+            lastSeqs.keySet().retainAll(sessions.keySet());
+            tokens.keySet().retainAll(sessions.keySet());
+            nextSeq.set(maxSeq + 1);
+            eventsSinceSnapshot.set(records.size());
+            return records.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long readSnapshot(Map<String, QuizResult> sessions, Map<String, Long> lastSeqs,
+            Map<String, String> tokens) throws IOException {
+        long maxSeq = 0;
+        try (InputStream file = Files.newInputStream(snapshotPath);
+                DataInputStream data = new DataInputStream(new BufferedInputStream(file, 64 * 1024))) {
+            byte[] magic = new byte[SNAPSHOT_MAGIC.length];
+            data.readFully(magic);
+            if (!Arrays.equals(magic, SNAPSHOT_MAGIC) || data.readInt() != VERSION) {
+                throw new IOException("Not a version " + VERSION + " session snapshot: " + snapshotPath);
+            }
+            int count = data.readInt();
+            for (int i = 0; i < count; i++) {
+                long lastSeq = data.readLong();
+                String token = data.readUTF();
+                QuizResult result = new QuizResult(data.readUTF(), data.readUTF());
+                result.setTotalQuestions(data.readInt());
+                result.setMaxScore(data.readInt());
+                result.setTotalScore(data.readInt());
+                result.setCorrectAnswers(data.readInt());
+                result.setCompletionDate(new Date(data.readLong()));
+                int answers = data.readInt();
+                for (int a = 0; a < answers; a++) {
+                    Answer answer = new Answer(data.readInt(), data.readByte(), result.getStudentId());
+                    answer.setCorrect(data.readBoolean());
+                    answer.setTimestamp(data.readLong());
+                    result.addAnswer(answer);
+                }
+                sessions.put(result.getStudentId(), result);
+                lastSeqs.put(result.getStudentId(), lastSeq);
+                tokens.put(result.getStudentId(), token);
+                maxSeq = Math.max(maxSeq, lastSeq);
+            }
+        }
+        return maxSeq;
+    }
+
+    /**
+     * Apply one event unless its session has already seen it; returns its sequence number
+     */
+    private static long apply(DataInputStream data, Map<String, QuizResult> sessions,
+            Map<String, Long> lastSeqs, Map<String, String> tokens) throws IOException {
+        byte type = data.readByte();
+        long seq = data.readLong();
+        String studentId = data.readUTF();
+        Long last = lastSeqs.get(studentId);
+        if (last != null && seq <= last) {
+            return seq;
+        }
+
+        switch (type) {
+            case START:
+                tokens.put(studentId, data.readUTF());
+                QuizResult result = new QuizResult(studentId, data.readUTF());
+                result.setTotalQuestions(data.readInt());
+                result.setMaxScore(data.readInt());
+                result.setCompletionDate(new Date(data.readLong()));
+                sessions.put(studentId, result);
+                lastSeqs.put(studentId, seq);
+                break;
+            case ANSWER:
+                QuizResult session = sessions.get(studentId);
+                if (session == null) {
+                    break; // finished before the snapshot was taken
+                }
+                Answer answer = new Answer(data.readInt(), data.readByte(), studentId);
+                answer.setCorrect(data.readBoolean());
+                int points = data.readInt();
+                answer.setTimestamp(data.readLong());
+                session.addAnswer(answer);
+                if (answer.isCorrect()) {
+                    session.setCorrectAnswers(session.getCorrectAnswers() + 1);
+                    session.setTotalScore(session.getTotalScore() + points);
+                }
+                lastSeqs.put(studentId, seq);
+                break;
+            case FINISH:
+                sessions.remove(studentId);
+                lastSeqs.put(studentId, seq);
+                break;
+            default:
+                throw new IOException("Unknown session event type: " + type);
+        }
+        return seq;
+    }
+
+    void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.error("Error closing session log: %s", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+}
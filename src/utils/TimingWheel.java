@@ -0,0 +1,151 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToLongFunction;
+
+/**
+ * TimingWheel Class
+ * Hashed timing wheel: one thread serves any number of deadlines
+ * - The wheel is a ring of slots, one per tick; a deadline lands in slot
+ *   (deadline tick mod slots) with the number of full turns still to wait
+ * - Each tick visits one slot, so the cost per tick is the size of that slot,
+ *   not the number of pending deadlines
+ * - schedule() is lock-free: new deadlines go on a queue the wheel thread
+ *   drains at the next tick
+ * - When a deadline is due the handler gets the item and returns its next
+ *   deadline (ms) to stay on the wheel, or 0 to drop it
+ *
+ * Deadlines fire up to one tick late, never early. There is no cancel: the
+ * handler decides whether an item is still live, so a changed deadline can
+ * be followed lazily by returning it when the old one fires.
+ */
+public class TimingWheel<T> {
+
+    private final long tickNanos;
+    private final long startNanos = System.nanoTime();
+    private final long startMillis = System.currentTimeMillis();
+    private final List<List<Entry<T>>> slots;
+    private final Queue<Entry<T>> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ToLongFunction<T> handler;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private long tick; // ticks processed (wheel thread only)
+
+    public TimingWheel(String name, long tickMillis, int slotCount, ToLongFunction<T> handler) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        this.handler = handler;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Call the handler with item once the wall-clock deadline (ms) has passed
+     */
+    public void schedule(T item, long deadlineMillis) {
+        incoming.add(new Entry<>(item, deadlineMillis));
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Items waiting on the wheel
+     */
+    public int size() {
+        return pending.get();
+    }
+
+    /**
+     * Stop the wheel; waits (up to 5 s) for a tick in progress to finish its handlers
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        List<Entry<T>> due = new ArrayList<>();
+        while (running) {
+            long sleep = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            if (sleep > 0) {
+                // No interrupt: it would close a FileChannel a handler is writing to
+                LockSupport.parkNanos(this, sleep);
+                continue; // woken by shutdown(), early or on time: re-check running and the clock
+            }
+            tick++;
+
+            Entry<T> entry;
+            while ((entry = incoming.poll()) != null) {
+                place(entry);
+            }
+
+            // Collect due entries first: handlers may schedule into this slot
+            List<Entry<T>> slot = slots.get((int) (tick % slots.size()));
+            int kept = 0;
+            for (Entry<T> candidate : slot) {
+                if (candidate.rounds > 0) {
+                    candidate.rounds--;
+                    slot.set(kept++, candidate);
+                } else {
+                    due.add(candidate);
+                }
+            }
+            slot.subList(kept, slot.size()).clear();
+
+            for (Entry<T> expired : due) {
+                long next;
+                try {
+                    next = handler.applyAsLong(expired.item);
+                } catch (RuntimeException e) {
+                    System.err.println("[TimingWheel] " + thread.getName() + " handler failed: " + e);
+                    next = 0;
+                }
+                if (next > 0) {
+                    expired.deadlineMillis = next;
+                    place(expired);
+                } else {
+                    pending.decrementAndGet();
+                }
+            }
+            due.clear();
+        }
+    }
+
+    /**
+     * Put an entry in the slot of its deadline tick (the next tick if already due)
+     */
+    private void place(Entry<T> entry) {
+        long deadlineTick = (entry.deadlineMillis - startMillis) * 1_000_000L / tickNanos;
+        long ticksAhead = Math.max(1, deadlineTick - tick + 1);
+        entry.rounds = (ticksAhead - 1) / slots.size();
+        slots.get((int) ((tick + ticksAhead) % slots.size())).add(entry);
+    }
+
+    private static final class Entry<T> {
+        final T item;
+        long deadlineMillis;
+        long rounds;
+
+        Entry(T item, long deadlineMillis) {
+            this.item = item;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package utils;
+
+import models.Message;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * WireFormat Enum
+ * The encodings a client connection can use
+ * - OBJECT_STREAM: one long-lived ObjectOutputStream/ObjectInputStream pair (original protocol)
+ * - SERIALIZED_FRAMES: length-prefixed frames of standalone Java serialization (MessageFraming)
+ * - BINARY: length-prefixed frames with opcodes and hand-written codecs (BinaryProtocol)
+ */
+public enum WireFormat {
+
+    OBJECT_STREAM,
+    SERIALIZED_FRAMES,
+    BINARY;
+
+    /**
+     * Whether messages travel as self-contained length-prefixed frames
+     */
+    public boolean isFramed() {
+        return this != OBJECT_STREAM;
+    }
+
+    /**
+     * Encode a complete frame (length header included)
+     */
+    public byte[] encodeFrame(Message message) throws IOException {
+        switch (this) {
+            case SERIALIZED_FRAMES:
+                return MessageFraming.toFrame(message);
+            case BINARY:
+                return BinaryProtocol.toFrame(message);
+            default:
+                throw new IOException(this + " is not a framed format");
+        }
+    }
+
+    /**
+     * Decode the payload of one frame
+     */
+    public Message decodePayload(byte[] buffer, int offset, int length) throws IOException {
+        switch (this) {
+            case SERIALIZED_FRAMES:
+                return MessageFraming.fromPayload(buffer, offset, length);
+            case BINARY:
+                return BinaryProtocol.fromPayload(buffer, offset, length);
+            default:
+                throw new IOException(this + " is not a framed format");
+        }
+    }
+
+    /**
+     * Write one frame to a blocking stream
+     */
+    public void writeFrame(DataOutputStream out, Message message) throws IOException {
+        out.write(encodeFrame(message));
+        out.flush();
+    }
+
+    /**
+     * Read one frame from a blocking stream
+     * The payload buffer starts small and doubles as bytes arrive, so memory
+     * follows what the peer actually sent, not what its header claims
+     */
+    public Message readFrame(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        MessageFraming.checkFrameLength(length);
+        byte[] payload = new byte[Math.min(length, MessageFraming.INITIAL_READ_SIZE)];
+        int filled = 0;
+        while (filled < length) {
+            if (filled == payload.length) {
+                payload = Arrays.copyOf(payload, (int) Math.min(length, 2L * payload.length));
+            }
+            int read = in.read(payload, filled, payload.length - filled);
+            if (read < 0) {
+                throw new EOFException("Connection closed inside a frame");
+            }
+            filled += read;
+        }
+        return decodePayload(payload, 0, length);
+    }
+}